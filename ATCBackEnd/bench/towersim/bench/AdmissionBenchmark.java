@@ -0,0 +1,84 @@
+package towersim.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.aircraft.Aircraft;
+import towersim.control.AdmissionResult;
+import towersim.control.ControlTower;
+import towersim.tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks admitting a bank of arrivals that all need gates to an empty airport, either as one
+ * batch or one aircraft at a time. Each invocation starts from a fresh airport, so the time is
+ * measured once per invocation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Thread)
+public class AdmissionBenchmark {
+
+    /** Number of aircraft arriving together. */
+    @Param({"10000"})
+    public int arrivalCount;
+
+    /** Number of gates across all terminals of the tower. */
+    @Param({"60", "6000"})
+    public int gateCount;
+
+    /** Empty tower the arrivals are admitted to. */
+    private ControlTower tower;
+
+    /** Aircraft arriving, each needing a gate. */
+    private List<Aircraft> arrivals;
+
+    /** Sets up an empty tower and a new bank of arrivals for each invocation. */
+    @Setup(Level.Invocation)
+    public void setup() {
+        tower = Fixtures.airport(gateCount);
+        arrivals = new ArrayList<Aircraft>(arrivalCount);
+        for (int i = 0; i < arrivalCount; i++) {
+            arrivals.add(Fixtures.aircraft(i, TaskType.LOAD));
+        }
+    }
+
+    /**
+     * Admits every arrival in a single batch.
+     *
+     * @return outcome for each arrival
+     */
+    @Benchmark
+    public List<AdmissionResult> addAircraftBatch() {
+        return tower.addAircraft(arrivals);
+    }
+
+    /**
+     * Admits the arrivals one at a time.
+     *
+     * @return outcome of the last arrival
+     */
+    @Benchmark
+    public AdmissionResult tryAddAircraftEach() {
+        AdmissionResult result = null;
+        for (Aircraft aircraft : arrivals) {
+            result = tower.tryAddAircraft(aircraft);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package towersim.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-aircraft calculations made on every tick.
+ * Run with the GC profiler (-prof gc) to report the allocation rate alongside time per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AircraftBenchmark {
+
+    /** Passenger aircraft on a LOAD task. */
+    private PassengerAircraft passengerAircraft;
+
+    /** Freight aircraft on a LOAD task. */
+    private FreightAircraft freightAircraft;
+
+    /** Sets up the aircraft for a trial. */
+    @Setup(Level.Trial)
+    public void setup() {
+        TaskList loading = Fixtures.cycleStartingAt(TaskType.LOAD);
+        passengerAircraft = new PassengerAircraft("ABC123", AircraftCharacteristics.BOEING_787,
+                loading, 60000, 0);
+        freightAircraft = new FreightAircraft("DEF456", AircraftCharacteristics.BOEING_747_8F,
+                loading, 100000, 0);
+    }
+
+    /**
+     * Calculates the loading time of a passenger aircraft.
+     *
+     * @return loading time in ticks
+     */
+    @Benchmark
+    public int passengerLoadingTime() {
+        return passengerAircraft.getLoadingTime();
+    }
+
+    /**
+     * Calculates the loading time of a freight aircraft.
+     *
+     * @return loading time in ticks
+     */
+    @Benchmark
+    public int freightLoadingTime() {
+        return freightAircraft.getLoadingTime();
+    }
+
+    /**
+     * Renders a passenger aircraft.
+     *
+     * @return string representation of the aircraft
+     */
+    @Benchmark
+    public String aircraftToString() {
+        return passengerAircraft.toString();
+    }
+
+    /**
+     * Renders a task list.
+     *
+     * @return string representation of the task list
+     */
+    @Benchmark
+    public String taskListToString() {
+        return passengerAircraft.getTaskList().toString();
+    }
+}
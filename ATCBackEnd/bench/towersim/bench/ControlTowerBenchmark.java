@@ -0,0 +1,181 @@
+package towersim.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.aircraft.Aircraft;
+import towersim.control.AdmissionResult;
+import towersim.control.ControlTower;
+import towersim.ground.Gate;
+import towersim.tasks.TaskType;
+import towersim.util.NoSuitableGateException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hot paths of ControlTower over a range of fleet sizes and gate counts.
+ * Run with the GC profiler (-prof gc) to report the allocation rate alongside time per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControlTowerBenchmark {
+
+    /** Number of aircraft managed by the tower. */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int fleetSize;
+
+    /** Number of gates across all terminals of the tower. */
+    @Param({"60", "6000"})
+    public int gateCount;
+
+    /** Tower under test, with every airplane gate occupied. */
+    private ControlTower tower;
+
+    /** Aircraft managed by the tower. */
+    private List<Aircraft> fleet;
+
+    /** Aircraft of the fleet that is parked at a gate. */
+    private Aircraft parked;
+
+    /** Aircraft that is not managed by the tower and needs a gate. */
+    private Aircraft arrival;
+
+    /** Position in the fleet of the next aircraft to look up. */
+    private int next;
+
+    /** Sets up the tower and fleet for a trial. */
+    @Setup(Level.Trial)
+    public void setup() {
+        tower = Fixtures.airport(gateCount);
+        fleet = Fixtures.fleet(tower, fleetSize);
+        parked = fleet.get(0);
+        arrival = Fixtures.aircraft(fleetSize, TaskType.LOAD);
+        next = 0;
+    }
+
+    /**
+     * Returns the next aircraft of the fleet, cycling through every aircraft in turn.
+     *
+     * @return aircraft to look up
+     */
+    private Aircraft nextAircraft() {
+        Aircraft aircraft = fleet.get(next);
+        next = next + 1 == fleet.size() ? 0 : next + 1;
+        return aircraft;
+    }
+
+    /**
+     * Ticks the whole fleet once.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void tick() {
+        tower.tick();
+    }
+
+    /**
+     * Looks for a gate on a full airport, which is the common case at peak.
+     *
+     * @return gate found, or null
+     */
+    @Benchmark
+    public Gate findUnoccupiedGateMiss() {
+        try {
+            return tower.findUnoccupiedGate(arrival);
+        } catch (NoSuitableGateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Looks for a gate on a full airport without using exceptions.
+     *
+     * @return gate found, or null
+     */
+    @Benchmark
+    public Gate tryFindUnoccupiedGateMiss() {
+        return tower.tryFindUnoccupiedGate(arrival);
+    }
+
+    /**
+     * Finds a free gate, parks at it and leaves again, so the airport is unchanged afterwards.
+     *
+     * @return gate used
+     */
+    @Benchmark
+    public Gate findUnoccupiedGateAndPark() {
+        tower.findGateOfAircraft(parked).aircraftLeaves();
+        Gate gate = tower.tryFindUnoccupiedGate(parked);
+        gate.tryParkAircraft(parked);
+        return gate;
+    }
+
+    /**
+     * Finds the gate of each aircraft of the fleet in turn.
+     *
+     * @return gate of the aircraft, or null
+     */
+    @Benchmark
+    public Gate findGateOfAircraft() {
+        return tower.findGateOfAircraft(nextAircraft());
+    }
+
+    /**
+     * Tries to admit an aircraft that needs a gate to a full airport.
+     *
+     * @return outcome of the admission
+     */
+    @Benchmark
+    public AdmissionResult tryAddAircraftMiss() {
+        return tower.tryAddAircraft(arrival);
+    }
+
+    /**
+     * Admits an aircraft that needs a gate to a full airport, which throws.
+     *
+     * @return true if the aircraft was admitted
+     */
+    @Benchmark
+    public boolean addAircraftMiss() {
+        try {
+            tower.addAircraft(arrival);
+            return true;
+        } catch (NoSuitableGateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Calculates the airport-wide occupancy level.
+     *
+     * @return occupancy level
+     */
+    @Benchmark
+    public int calculateOccupancyLevel() {
+        return tower.calculateOccupancyLevel();
+    }
+
+    /**
+     * Renders each aircraft of the fleet in turn.
+     *
+     * @return string representation of the aircraft
+     */
+    @Benchmark
+    public String aircraftToString() {
+        return nextAircraft().toString();
+    }
+}
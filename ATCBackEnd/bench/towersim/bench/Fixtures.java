@@ -0,0 +1,119 @@
+package towersim.bench;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+import towersim.util.NoSuitableGateException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Builds the airports and fleets shared by the benchmarks. */
+final class Fixtures {
+
+    /** Creates nothing; this class only holds static helpers. */
+    private Fixtures() {}
+
+    /**
+     * Creates a control tower with the given number of gates, split into full airplane terminals,
+     * with every tenth terminal a helicopter terminal instead.
+     *
+     * @param gateCount total number of gates
+     * @return control tower with empty gates
+     */
+    static ControlTower airport(int gateCount) {
+        ControlTower tower = new ControlTower();
+        int terminalCount = (gateCount + Terminal.MAX_NUM_GATES - 1) / Terminal.MAX_NUM_GATES;
+        int gateNumber = 0;
+        for (int i = 0; i < terminalCount; i++) {
+            Terminal terminal = i % 10 == 9 ? new HelicopterTerminal(i) : new AirplaneTerminal(i);
+            for (int j = 0; j < Terminal.MAX_NUM_GATES && gateNumber < gateCount; j++) {
+                try {
+                    terminal.addGate(new Gate(gateNumber++));
+                } catch (NoSpaceException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            tower.addTerminal(terminal);
+        }
+        return tower;
+    }
+
+    /**
+     * Creates a task list whose current task is the given task, followed by the rest of a
+     * standard AWAY, LAND, LOAD, TAKEOFF cycle.
+     *
+     * @param first task the list starts on
+     * @return new task list
+     * @throws IllegalArgumentException if the cycle does not contain the given task
+     */
+    static TaskList cycleStartingAt(TaskType first) {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(new Task(TaskType.LOAD, 80));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        TaskList taskList = new TaskList(tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (taskList.getCurrentTask().getType() == first) {
+                return taskList;
+            }
+            taskList.moveToNextTask();
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Creates an aircraft with its own task list, alternating between passenger airliners and
+     * freighters so both loading formulas are exercised.
+     *
+     * @param index number of the aircraft, used for its callsign and kind
+     * @param task  task the aircraft starts on
+     * @return new aircraft
+     */
+    static Aircraft aircraft(int index, TaskType task) {
+        if (index % 2 == 0) {
+            return new PassengerAircraft("P" + index, AircraftCharacteristics.BOEING_787,
+                    cycleStartingAt(task), 60000, 0);
+        }
+        return new FreightAircraft("F" + index, AircraftCharacteristics.BOEING_747_8F,
+                cycleStartingAt(task), 100000, 0);
+    }
+
+    /**
+     * Fills the given tower with a fleet of the given size. Aircraft are parked and loading at
+     * airplane gates while any are free, and the rest are AWAY.
+     *
+     * @param tower     tower to fill
+     * @param fleetSize number of aircraft to add
+     * @return aircraft added, in order
+     */
+    static List<Aircraft> fleet(ControlTower tower, int fleetSize) {
+        List<Aircraft> fleet = new ArrayList<Aircraft>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            Aircraft aircraft = aircraft(i, TaskType.LOAD);
+            try {
+                tower.addAircraft(aircraft);
+            } catch (NoSuitableGateException e) {
+                aircraft = aircraft(i, TaskType.AWAY);
+                try {
+                    tower.addAircraft(aircraft);
+                } catch (NoSuitableGateException away) {
+                    throw new IllegalStateException(away);
+                }
+            }
+            fleet.add(aircraft);
+        }
+        return fleet;
+    }
+}
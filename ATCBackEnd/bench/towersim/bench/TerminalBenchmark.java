@@ -0,0 +1,98 @@
+package towersim.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.control.ControlTower;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks occupancy and rendering of terminals and gates over a range of gate counts.
+ * Run with the GC profiler (-prof gc) to report the allocation rate alongside time per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TerminalBenchmark {
+
+    /** Number of aircraft parked at the airport, or AWAY once every gate is taken. */
+    @Param({"1000", "1000000"})
+    public int fleetSize;
+
+    /** Number of gates across all terminals. */
+    @Param({"60", "6000", "60000"})
+    public int gateCount;
+
+    /** Terminals of the airport. */
+    private List<Terminal> terminals;
+
+    /** Position of the next terminal to use. */
+    private int next;
+
+    /** Sets up the airport for a trial. */
+    @Setup(Level.Trial)
+    public void setup() {
+        ControlTower tower = Fixtures.airport(gateCount);
+        Fixtures.fleet(tower, fleetSize);
+        terminals = tower.getTerminalsView();
+        next = 0;
+    }
+
+    /**
+     * Returns the next terminal, cycling through every terminal in turn.
+     *
+     * @return terminal to use
+     */
+    private Terminal nextTerminal() {
+        Terminal terminal = terminals.get(next);
+        next = next + 1 == terminals.size() ? 0 : next + 1;
+        return terminal;
+    }
+
+    /**
+     * Calculates the occupancy level of each terminal in turn.
+     *
+     * @return occupancy level
+     */
+    @Benchmark
+    public int calculateOccupancyLevel() {
+        return nextTerminal().calculateOccupancyLevel();
+    }
+
+    /**
+     * Renders each terminal in turn.
+     *
+     * @return string representation of the terminal
+     */
+    @Benchmark
+    public String terminalToString() {
+        return nextTerminal().toString();
+    }
+
+    /**
+     * Renders the first gate of each terminal in turn.
+     *
+     * @return string representation of the gate
+     */
+    @Benchmark
+    public String gateToString() {
+        Gate gate = nextTerminal().getGatesView().get(0);
+        return gate.toString();
+    }
+}
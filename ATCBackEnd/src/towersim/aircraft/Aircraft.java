@@ -1,11 +1,16 @@
 package towersim.aircraft;
 
+import towersim.jfr.AircraftTickEvent;
+import towersim.tasks.Task;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
+import towersim.util.EmergencyListener;
 import towersim.util.EmergencyState;
 import towersim.util.OccupancyLevel;
 import towersim.util.Tickable;
 
+import java.util.function.IntConsumer;
+
 /** Represents an aircraft whose movement is managed by the system. */
 public abstract class Aircraft implements EmergencyState, OccupancyLevel, Tickable {
 
@@ -27,6 +32,18 @@ public abstract class Aircraft implements EmergencyState, OccupancyLevel, Tickab
     /** The aircraft's current state of emergency. */
     private boolean emergencyState;
 
+    /** The columnar store holding this aircraft's state, or null if held in this object. */
+    private AircraftStore store;
+
+    /** The position of this aircraft's state in its store. */
+    private int slot;
+
+    /** Copies moves of the current task into the store, or null if not held in a store. */
+    private IntConsumer taskPositionListener;
+
+    /** Listener notified when this aircraft enters or leaves a state of emergency, or null. */
+    private EmergencyListener emergencyListener;
+
     /**
      * Creates a new aircraft with the given callsign, task list, characteristics and fuel amount.
      *
@@ -67,9 +84,25 @@ public abstract class Aircraft implements EmergencyState, OccupancyLevel, Tickab
      * @return current fuel amount
      */
     public double getFuelAmount() {
+        if (store != null) {
+            return store.getFuelAmount(slot);
+        }
         return fuelAmount;
     }
 
+    /**
+     * Sets the current amount of fuel onboard, in litres.
+     *
+     * @param fuelAmount new fuel amount
+     */
+    private void setFuelAmount(double fuelAmount) {
+        if (store != null) {
+            store.setFuelAmount(slot, fuelAmount);
+        } else {
+            this.fuelAmount = fuelAmount;
+        }
+    }
+
     /**
      * Returns this aircraft's characteristics.
      *
@@ -115,34 +148,200 @@ public abstract class Aircraft implements EmergencyState, OccupancyLevel, Tickab
      */
     public abstract int getLoadingTime();
 
+    /**
+     * Returns the amount of cargo onboard, in the units the aircraft loads at the gate.
+     * Aircraft that do not carry any cargo have none onboard.
+     *
+     * @return amount of cargo onboard
+     */
+    int getPayload() {
+        return 0;
+    }
+
+    /**
+     * Returns the store holding this aircraft's state, or null if it is held in this object.
+     *
+     * @return columnar store of this aircraft
+     */
+    AircraftStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the position of this aircraft's state in its store.
+     *
+     * @return slot of this aircraft in its store
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Moves this aircraft's state into the given slot of a columnar store. From then on the
+     * store holds this aircraft's state, and this object only provides access to it.
+     *
+     * @param store store to hold this aircraft's state
+     * @param slot  position of this aircraft's state in the store
+     */
+    void attach(AircraftStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        // the listener reads the slot when called, so it stays valid as the aircraft is moved
+        if (taskPositionListener == null) {
+            taskPositionListener = position -> this.store.setTaskPosition(this.slot, position);
+            tasks.addPositionListener(taskPositionListener);
+        }
+    }
+
+    /**
+     * Moves this aircraft's state out of its columnar store and back into this object, which
+     * holds its state from then on.
+     */
+    void detach() {
+        double fuel = getFuelAmount();
+        boolean emergency = hasEmergency();
+        int payload = getPayload();
+        tasks.removePositionListener(taskPositionListener);
+        this.taskPositionListener = null;
+        this.store = null;
+        this.fuelAmount = fuel;
+        this.emergencyState = emergency;
+        restorePayload(payload);
+    }
+
+    /**
+     * Sets the amount of cargo onboard once this aircraft's state has been moved out of its
+     * store. Aircraft that do not carry any cargo have nothing to restore.
+     *
+     * @param payload amount of cargo onboard
+     */
+    void restorePayload(int payload) {
+    }
+
+    /**
+     * Returns the fuel added on each tick of loading this aircraft for a task with the given
+     * load percentage.
+     *
+     * @param loadPercent load percentage of the current task
+     * @return fuel added per tick, in litres
+     */
+    double fuelPerTick(int loadPercent) {
+        return getCharacteristics().fuelCapacity / getLoadingTime();
+    }
+
+    /**
+     * Returns the fuel remaining after one tick of the AWAY task.
+     *
+     * @param fuelAmount   current amount of fuel onboard, in litres
+     * @param fuelCapacity fuel capacity of the aircraft, in litres
+     * @param burnPerTick  fuel burnt per tick away, in litres
+     * @return fuel amount after the tick
+     */
+    static double fuelAfterAway(double fuelAmount, double fuelCapacity, double burnPerTick) {
+        // decreases fuel of the aircraft by 10% per tick when aircraft is on the away task.
+        double newFuelAmount = fuelAmount - burnPerTick;
+        if ((int) Math.round(100 * (newFuelAmount / fuelCapacity)) < 0) {
+            // Sets fuel to 0 when a full tick decrement would fall below 0.
+            newFuelAmount = 0.0;
+        }
+        return newFuelAmount;
+    }
+
+    /**
+     * Returns the fuel onboard after one tick of the LOAD task.
+     *
+     * @param fuelAmount   current amount of fuel onboard, in litres
+     * @param fuelCapacity fuel capacity of the aircraft, in litres
+     * @param fuelPerTick  fuel added per tick, being the capacity over the loading time
+     * @return fuel amount after the tick
+     */
+    static double fuelAfterLoad(double fuelAmount, double fuelCapacity, double fuelPerTick) {
+        if (fuelAmount + fuelPerTick <= fuelCapacity) {
+            return fuelAmount + fuelPerTick;
+        } else {
+            // Sets fuel to capacity when a full tick increment would exceed capacity
+            return fuelCapacity;
+        }
+    }
+
+    /**
+     * Returns the cargo onboard after one tick of the LOAD task.
+     *
+     * @param amount          current amount of cargo onboard
+     * @param increasePerTick cargo added per tick, being the total over the loading time
+     * @param capacity        maximum amount of cargo able to be carried
+     * @return cargo amount after the tick
+     */
+    static int payloadAfterLoad(int amount, int increasePerTick, int capacity) {
+        // increases the cargo by the per tick rate every time tick method is called
+        if (amount + increasePerTick <= capacity) {
+            return amount + increasePerTick;
+        } else {
+            // sets the cargo to capacity when a full tick increment would exceed capacity
+            return capacity;
+        }
+    }
+
     /**
      * Updates the aircraft's state on each tick of the simulation.
      */
     public void tick() {
-        TaskType currentTask = getTaskList().getCurrentTask().getType();
+        AircraftTickEvent event = new AircraftTickEvent();
+        event.begin();
+        Task currentTask = getTaskList().getCurrentTask();
+        double fuelCapacity = getCharacteristics().fuelCapacity;
 
-        // decreases fuel of the aircraft by 10% per tick when aircraft is on the away task.
-        if (currentTask == TaskType.AWAY) {
-            double fuelDecreaseRate = 0.1 * getCharacteristics().fuelCapacity;
-            fuelAmount = getFuelAmount() - fuelDecreaseRate;
-            if (getFuelPercentRemaining() < 0) {
-                // Sets fuel to 0 when a full tick decrement would fall below 0.
-                fuelAmount = 0.0;
-            }
+        if (currentTask.getType() == TaskType.AWAY) {
+            setFuelAmount(fuelAfterAway(getFuelAmount(), fuelCapacity,
+                    Kinetics.awayBurn(getCharacteristics())));
+        }
+
+        if (currentTask.getType() == TaskType.LOAD) {
+            setFuelAmount(fuelAfterLoad(getFuelAmount(), fuelCapacity,
+                    fuelPerTick(currentTask.getLoadPercent())));
         }
+        tickCargo(currentTask);
 
-        // increases fuel of the aircraft by the (capacity / load time) per tick when on load task
-        if (currentTask == TaskType.LOAD) {
-            double fuelIncreaseRate = characteristics.fuelCapacity / getLoadingTime();
-            if (getFuelAmount() + fuelIncreaseRate <= getCharacteristics().fuelCapacity) {
-                fuelAmount += fuelIncreaseRate;
-            } else {
-                // Sets fuel to capacity when a full tick increment would exceed capacity
-                fuelAmount = getCharacteristics().fuelCapacity;
-            }
+        event.end();
+        if (event.shouldCommit()) {
+            event.callsign = getCallsign();
+            event.task = currentTask.getType().name();
+            event.commit();
         }
     }
 
+    /**
+     * Updates the cargo onboard on each tick of the simulation, after fuel has been updated.
+     * Aircraft that do not carry any cargo have nothing to update.
+     *
+     * @param currentTask current task of the aircraft
+     */
+    void tickCargo(Task currentTask) {
+    }
+
+    /**
+     * Returns whether ticking this aircraft in its current state would leave its state unchanged,
+     * for example once an AWAY aircraft has run out of fuel or a loading aircraft is full.
+     * Since a tick only depends on the aircraft's state and current task, a quiescent aircraft
+     * stays quiescent until its task changes.
+     *
+     * @return true if a tick would not change this aircraft; false otherwise
+     */
+    public boolean isQuiescent() {
+        Task currentTask = getTaskList().getCurrentTask();
+        double fuelCapacity = getCharacteristics().fuelCapacity;
+
+        if (currentTask.getType() == TaskType.AWAY) {
+            return fuelAfterAway(getFuelAmount(), fuelCapacity,
+                    Kinetics.awayBurn(getCharacteristics())) == getFuelAmount();
+        }
+        if (currentTask.getType() == TaskType.LOAD) {
+            return fuelAfterLoad(getFuelAmount(), fuelCapacity,
+                    fuelPerTick(currentTask.getLoadPercent())) == getFuelAmount();
+        }
+        return true;
+    }
+
     /**
      * Returns the human-readable string representation of this aircraft.
      *
@@ -165,18 +364,45 @@ public abstract class Aircraft implements EmergencyState, OccupancyLevel, Tickab
         }
     }
 
+    /**
+     * Sets the listener to notify whenever this aircraft enters or leaves a state of emergency,
+     * replacing any previous listener.
+     *
+     * @param listener listener to notify, or null to stop notifying
+     */
+    public void setEmergencyListener(EmergencyListener listener) {
+        this.emergencyListener = listener;
+    }
+
     /**
      * Declares a state of emergency.
      */
     public void declareEmergency() {
-        emergencyState = true;
+        setEmergency(true);
     }
 
     /**
      * Clears any active state of emergency.
      */
     public void clearEmergency() {
-        emergencyState = false;
+        setEmergency(false);
+    }
+
+    /**
+     * Sets the state of emergency, notifying the listener if the state changed.
+     *
+     * @param emergency whether to be in a state of emergency
+     */
+    private void setEmergency(boolean emergency) {
+        boolean changed = hasEmergency() != emergency;
+        if (store != null) {
+            store.setEmergency(slot, emergency);
+        } else {
+            emergencyState = emergency;
+        }
+        if (changed && emergencyListener != null) {
+            emergencyListener.emergencyChanged(this, emergency);
+        }
     }
 
     /**
@@ -185,6 +411,9 @@ public abstract class Aircraft implements EmergencyState, OccupancyLevel, Tickab
      * @return true if in emergency; false otherwise
      */
     public boolean hasEmergency() {
+        if (store != null) {
+            return store.hasEmergency(slot);
+        }
         return emergencyState;
     }
 }
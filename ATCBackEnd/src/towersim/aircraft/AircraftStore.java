@@ -0,0 +1,309 @@
+package towersim.aircraft;
+
+import towersim.tasks.Task;
+import towersim.tasks.TaskCycle;
+import towersim.tasks.TaskType;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Columnar store holding the changing state of many aircraft in parallel primitive arrays,
+ * one array per field. Once an aircraft is added to a store, the store holds its state and the
+ * aircraft object becomes a handle onto its slot, so the aircraft can still be used as before.
+ * Ticking the store walks the arrays in order instead of following each aircraft object.
+ * <p>
+ * The position of each aircraft's current task is copied into an int column, next to the shared
+ * cycle of tasks it indexes, and kept up to date as the aircraft's task list moves on. The
+ * handful of distinct cycles stay in cache, so a tick reads the current task without following
+ * a pointer to each aircraft's task list.
+ */
+public class AircraftStore {
+
+    /** Kind of aircraft that boards passengers when loading. */
+    private static final byte PASSENGER = Kinetics.PASSENGER;
+
+    /** Kind of aircraft that loads freight when loading. */
+    private static final byte FREIGHT = Kinetics.FREIGHT;
+
+    /** Number of slots allocated when a store is created. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** All possible aircraft models, indexed by ordinal. */
+    private static final AircraftCharacteristics[] MODELS = AircraftCharacteristics.values();
+
+    /** Number of aircraft in this store. */
+    private int size;
+
+    /** The aircraft in each slot. */
+    private Aircraft[] aircraft;
+
+    /** Fuel onboard each aircraft, in litres. */
+    private double[] fuelAmounts;
+
+    /** Passengers or kilograms of freight onboard each aircraft. */
+    private int[] payloads;
+
+    /** Ordinal of the characteristics of each aircraft. */
+    private int[] models;
+
+    /** Whether each aircraft boards passengers or loads freight. */
+    private byte[] kinds;
+
+    /** Whether each aircraft is in a state of emergency. */
+    private boolean[] emergencies;
+
+    /** Shared cycle of tasks of each aircraft. */
+    private TaskCycle[] taskCycles;
+
+    /** Position of the current task of each aircraft within its cycle. */
+    private int[] taskPositions;
+
+    /**
+     * Creates a new, empty AircraftStore.
+     */
+    public AircraftStore() {
+        this.size = 0;
+        this.aircraft = new Aircraft[INITIAL_CAPACITY];
+        this.fuelAmounts = new double[INITIAL_CAPACITY];
+        this.payloads = new int[INITIAL_CAPACITY];
+        this.models = new int[INITIAL_CAPACITY];
+        this.kinds = new byte[INITIAL_CAPACITY];
+        this.emergencies = new boolean[INITIAL_CAPACITY];
+        this.taskCycles = new TaskCycle[INITIAL_CAPACITY];
+        this.taskPositions = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns whether the given aircraft can be added to this store, which is only if it is a
+     * passenger or freight aircraft not already held in a store.
+     *
+     * @param aircraft aircraft to check
+     * @return true if add(Aircraft) would accept the aircraft; false otherwise
+     */
+    public boolean canAdd(Aircraft aircraft) {
+        return (aircraft instanceof PassengerAircraft || aircraft instanceof FreightAircraft)
+                && aircraft.getStore() == null;
+    }
+
+    /**
+     * Moves the state of the given aircraft into this store.
+     *
+     * @param aircraft aircraft to add
+     * @throws IllegalArgumentException if the aircraft is already held in a store, or is neither
+     * a passenger nor a freight aircraft
+     */
+    public void add(Aircraft aircraft) {
+        if (!canAdd(aircraft)) {
+            throw new IllegalArgumentException();
+        }
+        byte kind = aircraft instanceof PassengerAircraft ? PASSENGER : FREIGHT;
+
+        if (size == this.aircraft.length) {
+            grow();
+        }
+        int slot = size++;
+        this.aircraft[slot] = aircraft;
+        fuelAmounts[slot] = aircraft.getFuelAmount();
+        payloads[slot] = aircraft.getPayload();
+        models[slot] = aircraft.getCharacteristics().ordinal();
+        kinds[slot] = kind;
+        emergencies[slot] = aircraft.hasEmergency();
+        taskCycles[slot] = aircraft.getTaskList().getCycle();
+        taskPositions[slot] = aircraft.getTaskList().getCurrentTaskPosition();
+
+        // the aircraft reads from the store from now on, so it must be attached last
+        aircraft.attach(this, slot);
+    }
+
+    /**
+     * Moves the state of every aircraft matching the given filter out of this store and back into
+     * the aircraft itself. The remaining aircraft keep their order, moving down to fill the slots
+     * left behind, so removing any number of aircraft takes a single pass over the store.
+     *
+     * @param filter returns true for aircraft to remove
+     * @return number of aircraft removed
+     */
+    public int removeIf(Predicate<? super Aircraft> filter) {
+        int kept = 0;
+        for (int slot = 0; slot < size; slot++) {
+            Aircraft each = aircraft[slot];
+            if (filter.test(each)) {
+                each.detach();
+                continue;
+            }
+            if (kept != slot) {
+                aircraft[kept] = each;
+                fuelAmounts[kept] = fuelAmounts[slot];
+                payloads[kept] = payloads[slot];
+                models[kept] = models[slot];
+                kinds[kept] = kinds[slot];
+                emergencies[kept] = emergencies[slot];
+                taskCycles[kept] = taskCycles[slot];
+                taskPositions[kept] = taskPositions[slot];
+                each.attach(this, kept);
+            }
+            kept++;
+        }
+        int removed = size - kept;
+        Arrays.fill(aircraft, kept, size, null);
+        Arrays.fill(taskCycles, kept, size, null);
+        size = kept;
+        return removed;
+    }
+
+    /**
+     * Doubles the number of slots available in this store.
+     */
+    private void grow() {
+        int capacity = aircraft.length * 2;
+        aircraft = Arrays.copyOf(aircraft, capacity);
+        fuelAmounts = Arrays.copyOf(fuelAmounts, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        models = Arrays.copyOf(models, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        emergencies = Arrays.copyOf(emergencies, capacity);
+        taskCycles = Arrays.copyOf(taskCycles, capacity);
+        taskPositions = Arrays.copyOf(taskPositions, capacity);
+    }
+
+    /**
+     * Returns the number of aircraft in this store.
+     *
+     * @return number of aircraft
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the aircraft in the given slot.
+     *
+     * @param slot slot of the aircraft
+     * @return aircraft in the slot
+     */
+    public Aircraft getAircraft(int slot) {
+        return aircraft[slot];
+    }
+
+    /**
+     * Returns the fuel onboard the aircraft in the given slot, in litres.
+     *
+     * @param slot slot of the aircraft
+     * @return fuel amount
+     */
+    double getFuelAmount(int slot) {
+        return fuelAmounts[slot];
+    }
+
+    /**
+     * Sets the fuel onboard the aircraft in the given slot, in litres.
+     *
+     * @param slot       slot of the aircraft
+     * @param fuelAmount new fuel amount
+     */
+    void setFuelAmount(int slot, double fuelAmount) {
+        fuelAmounts[slot] = fuelAmount;
+    }
+
+    /**
+     * Returns the cargo onboard the aircraft in the given slot.
+     *
+     * @param slot slot of the aircraft
+     * @return passengers or kilograms of freight onboard
+     */
+    int getPayload(int slot) {
+        return payloads[slot];
+    }
+
+    /**
+     * Sets the cargo onboard the aircraft in the given slot.
+     *
+     * @param slot    slot of the aircraft
+     * @param payload new number of passengers or kilograms of freight
+     */
+    void setPayload(int slot, int payload) {
+        payloads[slot] = payload;
+    }
+
+    /**
+     * Returns whether the aircraft in the given slot is in a state of emergency.
+     *
+     * @param slot slot of the aircraft
+     * @return true if in emergency; false otherwise
+     */
+    boolean hasEmergency(int slot) {
+        return emergencies[slot];
+    }
+
+    /**
+     * Sets whether the aircraft in the given slot is in a state of emergency.
+     *
+     * @param slot      slot of the aircraft
+     * @param emergency true if in emergency; false otherwise
+     */
+    void setEmergency(int slot, boolean emergency) {
+        emergencies[slot] = emergency;
+    }
+
+    /**
+     * Sets the position of the current task of the aircraft in the given slot, after its task
+     * list has moved on.
+     *
+     * @param slot     slot of the aircraft
+     * @param position index of the current task in the aircraft's cycle of tasks
+     */
+    void setTaskPosition(int slot, int position) {
+        taskPositions[slot] = position;
+    }
+
+    /**
+     * Advances every aircraft in this store by one tick.
+     */
+    public void tick() {
+        tick(0, size);
+    }
+
+    /**
+     * Advances the aircraft in the given range of slots by one tick. Each slot is updated in
+     * exactly the same way as calling tick() on the aircraft in that slot.
+     *
+     * @param from first slot to tick, inclusive
+     * @param to   last slot to tick, exclusive
+     */
+    public void tick(int from, int to) {
+        tick(from, to, false);
+    }
+
+    /**
+     * Advances the aircraft in the given range of slots by one tick, optionally leaving out
+     * aircraft in a state of emergency, for callers that tick those separately.
+     *
+     * @param from            first slot to tick, inclusive
+     * @param to              last slot to tick, exclusive
+     * @param skipEmergencies true to leave aircraft in emergency untouched
+     */
+    public void tick(int from, int to, boolean skipEmergencies) {
+        for (int slot = from; slot < to; slot++) {
+            if (skipEmergencies && emergencies[slot]) {
+                continue;
+            }
+            Task currentTask = taskCycles[slot].get(taskPositions[slot]);
+            TaskType currentType = currentTask.getType();
+            AircraftCharacteristics model = MODELS[models[slot]];
+
+            if (currentType == TaskType.AWAY) {
+                fuelAmounts[slot] = Aircraft.fuelAfterAway(fuelAmounts[slot], model.fuelCapacity,
+                        Kinetics.awayBurn(model));
+            } else if (currentType == TaskType.LOAD) {
+                byte kind = kinds[slot];
+                int loadPercent = currentTask.getLoadPercent();
+                int capacity = kind == PASSENGER ? model.passengerCapacity : model.freightCapacity;
+                fuelAmounts[slot] = Aircraft.fuelAfterLoad(fuelAmounts[slot], model.fuelCapacity,
+                        Kinetics.fuelPerTick(kind, model, loadPercent));
+                payloads[slot] = Aircraft.payloadAfterLoad(payloads[slot],
+                        Kinetics.payloadPerTick(kind, model, loadPercent), capacity);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package towersim.aircraft;
 
+import towersim.tasks.Task;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
 import towersim.util.EmergencyState;
@@ -45,21 +46,72 @@ public class FreightAircraft extends Aircraft implements EmergencyState, Occupan
     public double getTotalWeight() {
         // calculates total aircraft weight by summing empty weight with fuel and freight weight
         double emptyAircraftWeight = super.getTotalWeight();
-        double freightWeight = freightAmount;
+        double freightWeight = getFreightAmount();
 
         return emptyAircraftWeight + freightWeight;
     }
 
     /**
-     * Returns the total freight to be loaded based on the maximum freight capacity of the aircraft
-     * and the load ratio specified in the aircraft's current task
+     * Returns the current amount of freight onboard, in kilograms.
      *
+     * @return freight onboard
+     */
+    public int getFreightAmount() {
+        if (getStore() != null) {
+            return getStore().getPayload(getSlot());
+        }
+        return freightAmount;
+    }
+
+    /**
+     * Sets the current amount of freight onboard, in kilograms.
      *
+     * @param freightAmount new freight amount
+     */
+    private void setFreightAmount(int freightAmount) {
+        if (getStore() != null) {
+            getStore().setPayload(getSlot(), freightAmount);
+        } else {
+            this.freightAmount = freightAmount;
+        }
+    }
+
+    @Override
+    int getPayload() {
+        return getFreightAmount();
+    }
+
+    @Override
+    void restorePayload(int payload) {
+        setFreightAmount(payload);
+    }
+
+    /**
+     * Returns the amount of freight loaded on each tick of the aircraft's current LOAD task.
+     *
+     * @return freight loaded per tick
+     */
+    private int getFreightPerTick() {
+        return Kinetics.payloadPerTick(Kinetics.FREIGHT, getCharacteristics(),
+                getTaskList().getCurrentTask().getLoadPercent());
+    }
+
+    @Override
+    double fuelPerTick(int loadPercent) {
+        return Kinetics.fuelPerTick(Kinetics.FREIGHT, getCharacteristics(), loadPercent);
+    }
+
+    /**
+     * Returns the total freight to be loaded by an aircraft of the given model
+     * loading to the given percentage of its freight capacity.
+     *
+     * @param characteristics model of the aircraft
+     * @param loadPercent     percentage of freight capacity to load
      * @return total freight to be loaded
      */
-    private int getTotalFreightToBeLoaded() {
-        double loadPercentRatio = getTaskList().getCurrentTask().getLoadPercent() / 100.0;
-        return (int) Math.round(getCharacteristics().freightCapacity * loadPercentRatio);
+    static int totalFreightToBeLoaded(AircraftCharacteristics characteristics, int loadPercent) {
+        double loadPercentRatio = loadPercent / 100.0;
+        return (int) Math.round(characteristics.freightCapacity * loadPercentRatio);
     }
 
     /**
@@ -68,8 +120,17 @@ public class FreightAircraft extends Aircraft implements EmergencyState, Occupan
      * @return loading time in ticks
      */
     public int getLoadingTime() {
-        int freightToBeLoaded = getTotalFreightToBeLoaded();
+        return Kinetics.loadingTime(Kinetics.FREIGHT, getCharacteristics(),
+                getTaskList().getCurrentTask().getLoadPercent());
+    }
 
+    /**
+     * Returns the number of ticks required to load the given amount of freight.
+     *
+     * @param freightToBeLoaded total freight to be loaded
+     * @return loading time in ticks
+     */
+    static int loadingTime(int freightToBeLoaded) {
         if (freightToBeLoaded < 1000) {
             return 1;
         } else if (freightToBeLoaded > 50000) {
@@ -86,33 +147,35 @@ public class FreightAircraft extends Aircraft implements EmergencyState, Occupan
      * @return occupancy level as a percentage
      */
     public int calculateOccupancyLevel() {
-        double freightToCapacityRatio = freightAmount
+        double freightToCapacityRatio = getFreightAmount()
                 / (double) getCharacteristics().freightCapacity;
         return (int) Math.round(100 * freightToCapacityRatio);
     }
 
     /**
-     * Updates the aircraft's state on each tick of the simulation.
+     * Returns whether ticking this aircraft in its current state would leave its state unchanged.
+     *
+     * @return true if a tick would not change this aircraft; false otherwise
      */
     @Override
-    public void tick() {
-        super.tick();
-
-        TaskType currentTask = getTaskList().getCurrentTask().getType();
-
-        if (currentTask == TaskType.LOAD) {
-            int totalFreightToBeLoaded = getTotalFreightToBeLoaded();
-            int freightIncreasePerTick = (int) Math.round(totalFreightToBeLoaded
-                    / (double) getLoadingTime());
-
-            // increases freight amount by the per tick rate every time tick method is called
-            if (freightAmount + freightIncreasePerTick
-                    <= getCharacteristics().freightCapacity) {
-                freightAmount += freightIncreasePerTick;
-            } else {
-                // sets freight amount to capacity when a full tick increment would exceed capacity
-                freightAmount = getCharacteristics().freightCapacity;
-            }
+    public boolean isQuiescent() {
+        if (!super.isQuiescent()) {
+            return false;
+        }
+        if (getTaskList().getCurrentTask().getType() == TaskType.LOAD) {
+            int capacity = getCharacteristics().freightCapacity;
+            return payloadAfterLoad(getFreightAmount(), getFreightPerTick(), capacity)
+                    == getFreightAmount();
+        }
+        return true;
+    }
+
+    @Override
+    void tickCargo(Task currentTask) {
+        // loads freight at the per tick rate, up to the freight capacity
+        if (currentTask.getType() == TaskType.LOAD) {
+            setFreightAmount(payloadAfterLoad(getFreightAmount(), getFreightPerTick(),
+                    getCharacteristics().freightCapacity));
         }
     }
 }
@@ -0,0 +1,193 @@
+package towersim.aircraft;
+
+/**
+ * Loading and fuel rates of every aircraft model, worked out once for every load percentage
+ * from 0 to 100 so that ticking an aircraft only has to look them up.
+ * <p>
+ * Entries are indexed by the kind of cargo the aircraft carries, its model and the load
+ * percentage of its current task. Load percentages outside the table are worked out on demand
+ * with the same formulas, so every value is exactly what the formulas would give.
+ */
+final class Kinetics {
+
+    /** Kind of aircraft that boards passengers when loading. */
+    static final byte PASSENGER = 0;
+
+    /** Kind of aircraft that loads freight when loading. */
+    static final byte FREIGHT = 1;
+
+    /** Number of load percentages held in the table, from 0 to 100. */
+    private static final int PERCENTAGES = 101;
+
+    /** All possible aircraft models, indexed by ordinal. */
+    private static final AircraftCharacteristics[] MODELS = AircraftCharacteristics.values();
+
+    /** Fuel burnt by each model on each tick away from the airport, in litres. */
+    private static final double[] AWAY_BURN = new double[MODELS.length];
+
+    /** Total cargo to be loaded, by kind, model and load percentage. */
+    private static final int[] TOTAL_TO_LOAD = new int[2 * MODELS.length * PERCENTAGES];
+
+    /** Number of ticks taken to load, by kind, model and load percentage. */
+    private static final int[] LOADING_TIME = new int[TOTAL_TO_LOAD.length];
+
+    /** Fuel added on each tick of loading, in litres, by kind, model and load percentage. */
+    private static final double[] FUEL_PER_TICK = new double[TOTAL_TO_LOAD.length];
+
+    /** Cargo added on each tick of loading, by kind, model and load percentage. */
+    private static final int[] PAYLOAD_PER_TICK = new int[TOTAL_TO_LOAD.length];
+
+    static {
+        for (AircraftCharacteristics model : MODELS) {
+            AWAY_BURN[model.ordinal()] = 0.1 * model.fuelCapacity;
+            for (byte kind = PASSENGER; kind <= FREIGHT; kind++) {
+                for (int loadPercent = 0; loadPercent < PERCENTAGES; loadPercent++) {
+                    int index = index(kind, model, loadPercent);
+                    TOTAL_TO_LOAD[index] = computeTotalToLoad(kind, model, loadPercent);
+                    LOADING_TIME[index] = computeLoadingTime(kind, TOTAL_TO_LOAD[index]);
+                    FUEL_PER_TICK[index] = model.fuelCapacity / LOADING_TIME[index];
+                    PAYLOAD_PER_TICK[index] = computePayloadPerTick(TOTAL_TO_LOAD[index],
+                            LOADING_TIME[index]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Kinetics only provides static lookups and cannot be created.
+     */
+    private Kinetics() {
+    }
+
+    /**
+     * Returns the position in the tables of the given kind, model and load percentage.
+     *
+     * @param kind        kind of cargo carried
+     * @param model       model of the aircraft
+     * @param loadPercent load percentage, from 0 to 100
+     * @return index into the tables
+     */
+    private static int index(int kind, AircraftCharacteristics model, int loadPercent) {
+        return (kind * MODELS.length + model.ordinal()) * PERCENTAGES + loadPercent;
+    }
+
+    /**
+     * Returns whether the given load percentage is held in the tables.
+     *
+     * @param loadPercent load percentage
+     * @return true if held in the tables; false if it must be worked out
+     */
+    private static boolean inTable(int loadPercent) {
+        return loadPercent >= 0 && loadPercent < PERCENTAGES;
+    }
+
+    /**
+     * Returns the fuel burnt by the given model on each tick away from the airport.
+     *
+     * @param model model of the aircraft
+     * @return fuel burnt per tick, in litres
+     */
+    static double awayBurn(AircraftCharacteristics model) {
+        return AWAY_BURN[model.ordinal()];
+    }
+
+    /**
+     * Returns the total cargo to be loaded by the given kind and model of aircraft.
+     *
+     * @param kind        kind of cargo carried
+     * @param model       model of the aircraft
+     * @param loadPercent percentage of capacity to load
+     * @return total passengers or freight to be loaded
+     */
+    static int totalToLoad(int kind, AircraftCharacteristics model, int loadPercent) {
+        if (!inTable(loadPercent)) {
+            return computeTotalToLoad(kind, model, loadPercent);
+        }
+        return TOTAL_TO_LOAD[index(kind, model, loadPercent)];
+    }
+
+    /**
+     * Returns the number of ticks taken to load the given kind and model of aircraft.
+     *
+     * @param kind        kind of cargo carried
+     * @param model       model of the aircraft
+     * @param loadPercent percentage of capacity to load
+     * @return loading time in ticks
+     */
+    static int loadingTime(int kind, AircraftCharacteristics model, int loadPercent) {
+        if (!inTable(loadPercent)) {
+            return computeLoadingTime(kind, computeTotalToLoad(kind, model, loadPercent));
+        }
+        return LOADING_TIME[index(kind, model, loadPercent)];
+    }
+
+    /**
+     * Returns the fuel added on each tick of loading the given kind and model of aircraft.
+     *
+     * @param kind        kind of cargo carried
+     * @param model       model of the aircraft
+     * @param loadPercent percentage of capacity to load
+     * @return fuel added per tick, in litres
+     */
+    static double fuelPerTick(int kind, AircraftCharacteristics model, int loadPercent) {
+        if (!inTable(loadPercent)) {
+            return model.fuelCapacity / loadingTime(kind, model, loadPercent);
+        }
+        return FUEL_PER_TICK[index(kind, model, loadPercent)];
+    }
+
+    /**
+     * Returns the cargo added on each tick of loading the given kind and model of aircraft.
+     *
+     * @param kind        kind of cargo carried
+     * @param model       model of the aircraft
+     * @param loadPercent percentage of capacity to load
+     * @return passengers or freight added per tick
+     */
+    static int payloadPerTick(int kind, AircraftCharacteristics model, int loadPercent) {
+        if (!inTable(loadPercent)) {
+            int totalToLoad = computeTotalToLoad(kind, model, loadPercent);
+            return computePayloadPerTick(totalToLoad, computeLoadingTime(kind, totalToLoad));
+        }
+        return PAYLOAD_PER_TICK[index(kind, model, loadPercent)];
+    }
+
+    /**
+     * Works out the total cargo to be loaded by the given kind and model of aircraft.
+     *
+     * @param kind        kind of cargo carried
+     * @param model       model of the aircraft
+     * @param loadPercent percentage of capacity to load
+     * @return total passengers or freight to be loaded
+     */
+    private static int computeTotalToLoad(int kind, AircraftCharacteristics model,
+                                          int loadPercent) {
+        return kind == PASSENGER
+                ? PassengerAircraft.totalPassengersToBeLoaded(model, loadPercent)
+                : FreightAircraft.totalFreightToBeLoaded(model, loadPercent);
+    }
+
+    /**
+     * Works out the number of ticks taken to load the given amount of cargo.
+     *
+     * @param kind        kind of cargo carried
+     * @param totalToLoad total passengers or freight to be loaded
+     * @return loading time in ticks
+     */
+    private static int computeLoadingTime(int kind, int totalToLoad) {
+        return kind == PASSENGER
+                ? PassengerAircraft.loadingTime(totalToLoad)
+                : FreightAircraft.loadingTime(totalToLoad);
+    }
+
+    /**
+     * Works out the cargo added on each tick of loading.
+     *
+     * @param totalToLoad total passengers or freight to be loaded
+     * @param loadingTime loading time in ticks
+     * @return passengers or freight added per tick
+     */
+    private static int computePayloadPerTick(int totalToLoad, int loadingTime) {
+        return (int) Math.round(totalToLoad / (double) loadingTime);
+    }
+}
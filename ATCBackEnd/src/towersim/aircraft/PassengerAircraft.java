@@ -1,5 +1,6 @@
 package towersim.aircraft;
 
+import towersim.tasks.Task;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
 import towersim.util.EmergencyState;
@@ -49,21 +50,73 @@ public class PassengerAircraft extends Aircraft implements
     public double getTotalWeight() {
         // calculates total aircraft weight by summing empty weight with fuel and passenger weight
         double emptyAircraftWeight = super.getTotalWeight();
-        double passengerWeight = AVG_PASSENGER_WEIGHT * numPassengers;
+        double passengerWeight = AVG_PASSENGER_WEIGHT * getNumPassengers();
 
         return emptyAircraftWeight + passengerWeight;
     }
 
     /**
-     * Returns the total number of passenger to be boarded based on the maximum passenger capacity
-     * and the load ratio specified in the aircraft's current task
+     * Returns the current number of passengers onboard.
      *
+     * @return number of passengers onboard
+     */
+    public int getNumPassengers() {
+        if (getStore() != null) {
+            return getStore().getPayload(getSlot());
+        }
+        return numPassengers;
+    }
+
+    /**
+     * Sets the current number of passengers onboard.
+     *
+     * @param numPassengers new number of passengers
+     */
+    private void setNumPassengers(int numPassengers) {
+        if (getStore() != null) {
+            getStore().setPayload(getSlot(), numPassengers);
+        } else {
+            this.numPassengers = numPassengers;
+        }
+    }
+
+    @Override
+    int getPayload() {
+        return getNumPassengers();
+    }
+
+    @Override
+    void restorePayload(int payload) {
+        setNumPassengers(payload);
+    }
+
+    /**
+     * Returns the number of passengers boarded on each tick of the aircraft's current LOAD task.
+     *
+     * @return passengers boarded per tick
+     */
+    private int getPassengersPerTick() {
+        return Kinetics.payloadPerTick(Kinetics.PASSENGER, getCharacteristics(),
+                getTaskList().getCurrentTask().getLoadPercent());
+    }
+
+    @Override
+    double fuelPerTick(int loadPercent) {
+        return Kinetics.fuelPerTick(Kinetics.PASSENGER, getCharacteristics(), loadPercent);
+    }
+
+    /**
+     * Returns the total number of passengers to be boarded by an aircraft of the given model
+     * loading to the given percentage of its passenger capacity.
      *
+     * @param characteristics model of the aircraft
+     * @param loadPercent     percentage of passenger capacity to load
      * @return total passengers to be boarded
      */
-    private int getTotalPassengersToBeLoaded() {
-        double loadPercentRatio = getTaskList().getCurrentTask().getLoadPercent() / 100.0;
-        return (int) Math.round(getCharacteristics().passengerCapacity * loadPercentRatio);
+    static int totalPassengersToBeLoaded(AircraftCharacteristics characteristics,
+                                         int loadPercent) {
+        double loadPercentRatio = loadPercent / 100.0;
+        return (int) Math.round(characteristics.passengerCapacity * loadPercentRatio);
     }
 
     /**
@@ -72,7 +125,17 @@ public class PassengerAircraft extends Aircraft implements
      * @return loading time in ticks
      */
     public int getLoadingTime() {
-        int passengersToBeLoaded = getTotalPassengersToBeLoaded();
+        return Kinetics.loadingTime(Kinetics.PASSENGER, getCharacteristics(),
+                getTaskList().getCurrentTask().getLoadPercent());
+    }
+
+    /**
+     * Returns the number of ticks required to board the given number of passengers.
+     *
+     * @param passengersToBeLoaded total passengers to be boarded
+     * @return loading time in ticks
+     */
+    static int loadingTime(int passengersToBeLoaded) {
         int passengerLoadingTime = (int) Math.round(Math.log10(passengersToBeLoaded));
 
         // tick time bound by 1, it must take at least 1 tick
@@ -90,34 +153,36 @@ public class PassengerAircraft extends Aircraft implements
      * @return occupancy level as a percentage
      */
     public int calculateOccupancyLevel() {
-        double passengerToCapacityRatio = numPassengers
+        double passengerToCapacityRatio = getNumPassengers()
                 / (double) getCharacteristics().passengerCapacity;
 
         return (int) Math.round(100 * passengerToCapacityRatio);
     }
 
     /**
-     * Updates the aircraft's state on each tick of the simulation.
+     * Returns whether ticking this aircraft in its current state would leave its state unchanged.
+     *
+     * @return true if a tick would not change this aircraft; false otherwise
      */
     @Override
-    public void tick() {
-        super.tick();
-
-        TaskType currentTask = getTaskList().getCurrentTask().getType();
-
-        if (currentTask == TaskType.LOAD) {
-            int totalPassengersToBeLoaded = getTotalPassengersToBeLoaded();
-            int passengerIncreasePerTick = (int) Math.round(totalPassengersToBeLoaded
-                    / (double) getLoadingTime());
-
-            // increases passengers by the per tick rate every time tick method is called
-            if (numPassengers + passengerIncreasePerTick
-                    <= getCharacteristics().passengerCapacity) {
-                numPassengers += passengerIncreasePerTick;
-            } else {
-                // sets passengers to capacity when a full tick increment would exceed capacity
-                numPassengers = getCharacteristics().passengerCapacity;
-            }
+    public boolean isQuiescent() {
+        if (!super.isQuiescent()) {
+            return false;
+        }
+        if (getTaskList().getCurrentTask().getType() == TaskType.LOAD) {
+            int capacity = getCharacteristics().passengerCapacity;
+            return payloadAfterLoad(getNumPassengers(), getPassengersPerTick(), capacity)
+                    == getNumPassengers();
+        }
+        return true;
+    }
+
+    @Override
+    void tickCargo(Task currentTask) {
+        // boards passengers at the per tick rate, up to the passenger capacity
+        if (currentTask.getType() == TaskType.LOAD) {
+            setNumPassengers(payloadAfterLoad(getNumPassengers(), getPassengersPerTick(),
+                    getCharacteristics().passengerCapacity));
         }
     }
 }
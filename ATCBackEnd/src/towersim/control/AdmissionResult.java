@@ -0,0 +1,22 @@
+package towersim.control;
+
+/** Represents the possible outcomes of asking a control tower to admit an aircraft. */
+public enum AdmissionResult {
+    /** The aircraft was admitted and parked at an unoccupied gate. */
+    PARKED,
+
+    /** The aircraft was admitted without needing a gate, as it is not at the airport. */
+    ADMITTED,
+
+    /** The aircraft was not admitted as it needs a gate and no suitable gate was unoccupied. */
+    NO_SUITABLE_GATE;
+
+    /**
+     * Returns whether the aircraft was admitted to the jurisdiction of the control tower.
+     *
+     * @return true if admitted; false otherwise
+     */
+    public boolean isAdmitted() {
+        return this != NO_SUITABLE_GATE;
+    }
+}
@@ -0,0 +1,730 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One process of a cluster of control towers spread over several JVMs, possibly on different
+ * machines. Each node hosts some of the towers of the cluster, and aircraft are handed from one
+ * tower to another while they are AWAY, as decided by a router, whether or not the two towers
+ * are hosted by the same node.
+ * <p>
+ * Towers are numbered across the whole cluster: node 0 hosts the first shards, node 1 the next,
+ * and so on. Every node is connected to every other node by a socket, over TCP or, for nodes on
+ * the same machine, Unix domain sockets. Towers tick in lockstep in the same way as in a
+ * Federation: on each tick, every node ticks its towers and removes the aircraft bound for
+ * another tower, then sends each other node a single message holding every aircraft handed to
+ * it on that tick, even if there are none. Receiving the message of every other node ends the
+ * tick, so the messages double as the tick barrier and each tick costs one message each way
+ * between each pair of nodes. Each tower then admits the aircraft handed to it in order of the
+ * sending tower, so a cluster gives the same results as a Federation of the same towers.
+ * <p>
+ * Aircraft are sent in the binary format of a TowerSnapshot, with task lists shared by aircraft
+ * in the same message sent once. Aircraft received from another node are new objects with the
+ * same state as those that were sent.
+ */
+public class ClusterNode implements Closeable {
+
+    /** Number sent at the start of each connection to identify a cluster node ("TWRC"). */
+    private static final int MAGIC = 0x54575243;
+
+    /** Length of the message a node introduces itself with, in bytes. */
+    private static final int HELLO_LENGTH = 4 + 4 + 4;
+
+    /** Length of the header of each tick message: body length, tick and message counts. */
+    private static final int HEADER_LENGTH = 4 + 8 + 4 + 4;
+
+    /** Bytes taken by each aircraft in a tick message besides its snapshot encoding. */
+    private static final int ROUTE_LENGTH = 4 + 4;
+
+    /** Time to wait between attempts to connect to a node that is not yet listening. */
+    private static final long RETRY_MILLIS = 10;
+
+    /** Default time to wait for every other node to connect, in milliseconds. */
+    public static final long DEFAULT_CONNECT_TIMEOUT = 30000;
+
+    /** Number of this node in the cluster. */
+    private final int node;
+
+    /** Control towers hosted by this node, indexed by shard number less firstShard. */
+    private final List<ControlTower> towers;
+
+    /** Decides which tower each AWAY aircraft should belong to. */
+    private final Federation.Router router;
+
+    /** Channel other nodes connect to this node through. */
+    private final ServerSocketChannel server;
+
+    /** Address this node listens on. */
+    private final SocketAddress address;
+
+    /** Connections to the other nodes, indexed by node number; null for this node. */
+    private final List<Peer> peers;
+
+    /** Selects the connections ready to be written to or read from while exchanging messages. */
+    private final Selector selector;
+
+    /** Shard number of the first tower of each node, with the total number of shards last. */
+    private final int[] firstShards;
+
+    /** Number of ticks simulated so far. */
+    private long tickCount;
+
+    /** Number of aircraft the towers of this node have handed over so far. */
+    private long handoffCount;
+
+    /** Whether an advance was cut short, leaving this node at a different tick to the rest. */
+    private boolean broken;
+
+    /**
+     * Creates the given node of a cluster whose nodes listen on the given addresses, hosting the
+     * given control towers, and connects it to every other node of the cluster, waiting for up
+     * to DEFAULT_CONNECT_TIMEOUT milliseconds for them to start.
+     *
+     * @param addresses address each node of the cluster listens on, indexed by node number
+     * @param node      number of this node
+     * @param towers    control towers hosted by this node
+     * @param router    decides which tower each AWAY aircraft should belong to, given shard
+     *                  numbers across the whole cluster
+     * @throws IOException if this node could not listen on its address, or could not connect to
+     * every other node in time
+     * @throws IllegalArgumentException if node is not the number of a node in addresses, or
+     * towers holds the same tower twice
+     */
+    public ClusterNode(List<? extends SocketAddress> addresses, int node,
+                       List<ControlTower> towers, Federation.Router router) throws IOException {
+        this(addresses, node, towers, router, DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Creates the given node of a cluster whose nodes listen on the given addresses, hosting the
+     * given control towers, and connects it to every other node of the cluster, waiting for up
+     * to the given time for them to start.
+     *
+     * @param addresses      address each node of the cluster listens on, indexed by node number
+     * @param node           number of this node
+     * @param towers         control towers hosted by this node
+     * @param router         decides which tower each AWAY aircraft should belong to, given
+     *                       shard numbers across the whole cluster
+     * @param connectTimeout time to wait for every other node to connect, in milliseconds
+     * @throws IOException if this node could not listen on its address, or could not connect to
+     * every other node in time
+     * @throws IllegalArgumentException if node is not the number of a node in addresses, or
+     * towers holds the same tower twice
+     */
+    public ClusterNode(List<? extends SocketAddress> addresses, int node,
+                       List<ControlTower> towers, Federation.Router router,
+                       long connectTimeout) throws IOException {
+        Map<ControlTower, Boolean> distinct = new IdentityHashMap<ControlTower, Boolean>();
+        for (ControlTower tower : towers) {
+            distinct.put(tower, Boolean.TRUE);
+        }
+        if (node < 0 || node >= addresses.size() || distinct.size() != towers.size()) {
+            throw new IllegalArgumentException();
+        }
+        this.node = node;
+        this.towers = Collections.unmodifiableList(new ArrayList<ControlTower>(towers));
+        this.router = router;
+        this.address = addresses.get(node);
+        this.peers = new ArrayList<Peer>(Collections.nCopies(addresses.size(), (Peer) null));
+        this.firstShards = new int[addresses.size() + 1];
+        this.tickCount = 0;
+        this.handoffCount = 0;
+        this.broken = false;
+
+        this.server = ServerSocketChannel.open(familyOf(address));
+        this.selector = Selector.open();
+        try {
+            server.bind(address);
+            connectPeers(addresses, System.currentTimeMillis() + connectTimeout);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        int[] towerCounts = new int[addresses.size()];
+        for (int i = 0; i < addresses.size(); i++) {
+            towerCounts[i] = i == node ? towers.size() : peers.get(i).towerCount;
+        }
+        for (int i = 0; i < towerCounts.length; i++) {
+            firstShards[i + 1] = firstShards[i] + towerCounts[i];
+        }
+    }
+
+    /**
+     * Returns the protocol family of sockets bound or connected to the given address.
+     *
+     * @param address address of a node
+     * @return UNIX for Unix domain socket addresses; INET otherwise
+     */
+    private static StandardProtocolFamily familyOf(SocketAddress address) {
+        return address instanceof UnixDomainSocketAddress
+                ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET;
+    }
+
+    /**
+     * Connects this node to every other node. Each node connects to the nodes numbered below it
+     * and accepts connections from the nodes numbered above it, so every pair of nodes shares
+     * exactly one connection.
+     *
+     * @param addresses address each node listens on, indexed by node number
+     * @param deadline  time by which every node must be connected, in milliseconds since epoch
+     * @throws IOException if a connection failed, or not every node connected by the deadline
+     */
+    private void connectPeers(List<? extends SocketAddress> addresses, long deadline)
+            throws IOException {
+        for (int other = 0; other < node; other++) {
+            SocketAddress remote = addresses.get(other);
+            SocketChannel channel = null;
+            while (channel == null) {
+                channel = SocketChannel.open(familyOf(remote));
+                try {
+                    channel.connect(remote);
+                } catch (SocketException e) {
+                    // the other node has not started listening yet, so there is no socket file
+                    // or port to connect to
+                    channel.close();
+                    channel = null;
+                    waitToRetry(deadline, e);
+                }
+            }
+            addPeer(channel, other);
+        }
+
+        server.configureBlocking(false);
+        SelectionKey accepting = server.register(selector, SelectionKey.OP_ACCEPT);
+        int remaining = addresses.size() - node - 1;
+        while (remaining > 0) {
+            long wait = deadline - System.currentTimeMillis();
+            if (wait <= 0) {
+                throw new IOException("Timed out waiting for nodes to connect");
+            }
+            selector.select(wait);
+            selector.selectedKeys().clear();
+            SocketChannel channel = server.accept();
+            while (channel != null) {
+                addPeer(channel, -1);
+                remaining--;
+                channel = server.accept();
+            }
+        }
+        accepting.cancel();
+        selector.selectNow();
+    }
+
+    /**
+     * Sleeps before another attempt to connect to a node, unless the deadline has passed.
+     *
+     * @param deadline time by which every node must be connected, in milliseconds since epoch
+     * @param cause    failure of the last attempt to connect
+     * @throws IOException if the deadline has passed, or the thread was interrupted
+     */
+    private static void waitToRetry(long deadline, IOException cause) throws IOException {
+        if (System.currentTimeMillis() + RETRY_MILLIS > deadline) {
+            throw cause;
+        }
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting to nodes", e);
+        }
+    }
+
+    /**
+     * Introduces this node over the given new connection, waits for the other node to introduce
+     * itself, and keeps the connection as the one to that node.
+     *
+     * @param channel  new connection, in blocking mode
+     * @param expected number of the node the connection was made to; or -1 if it was accepted
+     * @throws IOException if the other node could not be introduced to, or is not a node of this
+     * cluster that is not yet connected
+     */
+    private void addPeer(SocketChannel channel, int expected) throws IOException {
+        try {
+            if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+                // tick messages are written whole, so there is nothing to gain by waiting
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            ByteBuffer hello = ByteBuffer.allocate(HELLO_LENGTH);
+            hello.putInt(MAGIC).putInt(node).putInt(towers.size()).flip();
+            while (hello.hasRemaining()) {
+                channel.write(hello);
+            }
+            hello.clear();
+            while (hello.hasRemaining()) {
+                if (channel.read(hello) < 0) {
+                    throw new EOFException("Connection closed during introduction");
+                }
+            }
+            hello.flip();
+            int other = hello.getInt() == MAGIC ? hello.getInt() : -1;
+            int towerCount = hello.getInt();
+            if (other < 0 || other >= peers.size() || other == node || towerCount < 0
+                    || peers.get(other) != null || (expected >= 0 && other != expected)) {
+                throw new IOException("Unexpected cluster node " + other);
+            }
+            channel.configureBlocking(false);
+            Peer peer = new Peer(channel, towerCount);
+            peer.key = channel.register(selector, 0, peer);
+            peers.set(other, peer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of this node in the cluster.
+     *
+     * @return node number
+     */
+    public int getNode() {
+        return node;
+    }
+
+    /**
+     * Returns the number of control towers across the whole cluster.
+     *
+     * @return number of shards in the cluster
+     */
+    public int getShardCount() {
+        return firstShards[firstShards.length - 1];
+    }
+
+    /**
+     * Returns the shard number of the first control tower hosted by this node.
+     *
+     * @return shard number of the first tower of this node
+     */
+    public int getFirstShard() {
+        return firstShards[node];
+    }
+
+    /**
+     * Returns the control towers hosted by this node, the first of which has the shard number
+     * returned by getFirstShard().
+     *
+     * @return towers of this node
+     */
+    public List<ControlTower> getTowers() {
+        return towers;
+    }
+
+    /**
+     * Returns the number of ticks this node has simulated.
+     *
+     * @return number of ticks so far
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Returns the number of aircraft the control towers of this node have handed to another
+     * tower so far, whether or not that tower is hosted by this node.
+     *
+     * @return number of handoffs from this node
+     */
+    public long getHandoffCount() {
+        return handoffCount;
+    }
+
+    /**
+     * Advances every control tower in this node by the given number of ticks, in lockstep with
+     * every other node of the cluster, which must advance by the same number of ticks.
+     *
+     * @param ticks number of ticks to advance by
+     * @throws IOException if a message could not be sent to or received from another node, or
+     * was not valid
+     * @throws IllegalArgumentException if the router returns a shard number that does not exist
+     * @throws IllegalStateException if an earlier advance failed, as this node may then be at a
+     * different tick to the rest of the cluster
+     */
+    public void advance(long ticks) throws IOException {
+        if (broken) {
+            throw new IllegalStateException();
+        }
+        broken = true;
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+        broken = false;
+    }
+
+    /**
+     * Simulates one tick of every control tower of this node and exchanges the aircraft handed
+     * over during it with every other node.
+     *
+     * @throws IOException if a message could not be sent, received or decoded
+     */
+    private void tick() throws IOException {
+        List<Handoff> sent = new ArrayList<Handoff>();
+        List<Aircraft> leaving = new ArrayList<Aircraft>();
+        int firstShard = getFirstShard();
+        for (int local = 0; local < towers.size(); local++) {
+            ControlTower tower = towers.get(local);
+            int shard = firstShard + local;
+            tower.tick();
+
+            leaving.clear();
+            for (Aircraft aircraft : tower.getAircraftView()) {
+                if (aircraft.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+                    continue;
+                }
+                int target = router.route(shard, aircraft);
+                if (target != shard) {
+                    if (target < 0 || target >= getShardCount()) {
+                        throw new IllegalArgumentException("No shard " + target);
+                    }
+                    leaving.add(aircraft);
+                    sent.add(new Handoff(shard, target, aircraft));
+                }
+            }
+            tower.removeAircraft(leaving);
+            handoffCount += leaving.size();
+        }
+
+        List<Handoff> arriving = new ArrayList<Handoff>();
+        for (int other = 0; other < peers.size(); other++) {
+            if (other == node) {
+                for (Handoff handoff : sent) {
+                    if (nodeOf(handoff.target) == node) {
+                        arriving.add(handoff);
+                    }
+                }
+            } else {
+                List<Handoff> outgoing = new ArrayList<Handoff>();
+                for (Handoff handoff : sent) {
+                    if (nodeOf(handoff.target) == other) {
+                        outgoing.add(handoff);
+                    }
+                }
+                peers.get(other).outgoing = encode(outgoing);
+            }
+        }
+        exchange();
+        for (int other = 0; other < peers.size(); other++) {
+            if (other != node) {
+                arriving.addAll(decode(other, peers.get(other).received));
+            }
+        }
+        tickCount++;
+
+        // admits aircraft in order of the sending tower, as a Federation would
+        arriving.sort((first, second) -> Integer.compare(first.source, second.source));
+        for (Handoff handoff : arriving) {
+            towers.get(handoff.target - firstShard).tryAddAircraft(handoff.aircraft);
+        }
+    }
+
+    /**
+     * Returns the number of the node hosting the given shard.
+     *
+     * @param shard shard number, from 0 to the number of shards - 1
+     * @return number of the node hosting the shard
+     */
+    private int nodeOf(int shard) {
+        int low = 0;
+        int high = peers.size() - 1;
+        // finds the last node whose first shard is at or before the given shard
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (firstShards[middle] <= shard) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Encodes the message handing the given aircraft to another node on the current tick.
+     *
+     * @param handoffs aircraft handed to the node, in the order they were handed over
+     * @return message ready to be written
+     */
+    private ByteBuffer encode(List<Handoff> handoffs) {
+        List<Aircraft> aircraft = new ArrayList<Aircraft>(handoffs.size());
+        for (Handoff handoff : handoffs) {
+            aircraft.add(handoff.aircraft);
+        }
+        List<TaskList> taskLists = TowerSnapshot.taskListsOf(aircraft);
+        Map<TaskList, Integer> taskListIndexes = new IdentityHashMap<TaskList, Integer>();
+        List<byte[]> callsigns = new ArrayList<byte[]>(aircraft.size());
+        int length = HEADER_LENGTH;
+        for (TaskList taskList : taskLists) {
+            taskListIndexes.put(taskList, taskListIndexes.size());
+            length += TowerSnapshot.taskListLength(taskList);
+        }
+        for (Aircraft each : aircraft) {
+            byte[] callsign = each.getCallsign().getBytes(StandardCharsets.UTF_8);
+            callsigns.add(callsign);
+            length += ROUTE_LENGTH + TowerSnapshot.AIRCRAFT_LENGTH + callsign.length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.putInt(length - 4);
+        out.putLong(tickCount);
+        out.putInt(taskLists.size());
+        out.putInt(handoffs.size());
+        for (TaskList taskList : taskLists) {
+            TowerSnapshot.writeTaskList(out, taskList);
+        }
+        for (int i = 0; i < handoffs.size(); i++) {
+            Handoff handoff = handoffs.get(i);
+            out.putInt(handoff.source);
+            out.putInt(handoff.target);
+            TowerSnapshot.writeAircraft(out, handoff.aircraft, callsigns.get(i),
+                    taskListIndexes.get(handoff.aircraft.getTaskList()));
+        }
+        return out.flip();
+    }
+
+    /**
+     * Decodes the message received from the given node on the current tick.
+     *
+     * @param other number of the node that sent the message
+     * @param in    body of the message, not including its length
+     * @return aircraft handed to this node, in the order they were handed over
+     * @throws IOException if the message is not a valid message for the current tick
+     */
+    private List<Handoff> decode(int other, ByteBuffer in) throws IOException {
+        try {
+            long tick = in.getLong();
+            if (tick != tickCount) {
+                throw new IOException("Node " + other + " sent tick " + tick + " during tick "
+                        + tickCount);
+            }
+            List<TaskList> taskLists = new ArrayList<TaskList>();
+            int taskListCount = in.getInt();
+            int handoffCount = in.getInt();
+            for (int i = 0; i < taskListCount; i++) {
+                taskLists.add(TowerSnapshot.readTaskList(in));
+            }
+            List<Handoff> handoffs = new ArrayList<Handoff>(handoffCount);
+            for (int i = 0; i < handoffCount; i++) {
+                int source = in.getInt();
+                int target = in.getInt();
+                if (source < firstShards[other] || source >= firstShards[other + 1]
+                        || target < firstShards[node] || target >= firstShards[node + 1]) {
+                    throw new IOException("Node " + other + " sent an aircraft from shard "
+                            + source + " to shard " + target);
+                }
+                handoffs.add(new Handoff(source, target, TowerSnapshot.readAircraft(in,
+                        taskLists)));
+            }
+            return handoffs;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException e) {
+            throw new IOException("Invalid message from node " + other, e);
+        }
+    }
+
+    /**
+     * Writes the outgoing message of every other node while reading the message each of them
+     * sends, until every message has been written and read. Reading and writing at the same
+     * time means large messages cannot leave two nodes both waiting for the other to read.
+     *
+     * @throws IOException if a message could not be written or read
+     */
+    private void exchange() throws IOException {
+        int pending = 0;
+        for (Peer peer : peers) {
+            if (peer != null) {
+                peer.startMessage();
+                peer.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                pending++;
+            }
+        }
+        while (pending > 0) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                Peer peer = (Peer) key.attachment();
+                if (key.isWritable() && peer.write()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                }
+                if (key.isReadable() && peer.read()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                }
+                if (key.interestOps() == 0) {
+                    pending--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Closes the connections to every other node and stops listening. The control towers of
+     * this node are left as they are.
+     *
+     * @throws IOException if a connection could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        broken = true;
+        IOException failure = null;
+        boolean bound = server.isOpen() && server.getLocalAddress() != null;
+        List<Closeable> channels = new ArrayList<Closeable>();
+        for (Peer peer : peers) {
+            if (peer != null) {
+                channels.add(peer.channel);
+            }
+        }
+        channels.add(server);
+        channels.add(selector);
+        for (Closeable channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (bound && address instanceof UnixDomainSocketAddress) {
+            // unlike TCP ports, Unix domain sockets stay bound until their file is deleted
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * An aircraft being handed from one control tower to another.
+     */
+    private static class Handoff {
+
+        /** Shard number of the tower handing over the aircraft. */
+        private final int source;
+
+        /** Shard number of the tower the aircraft is handed to. */
+        private final int target;
+
+        /** Aircraft being handed over. */
+        private final Aircraft aircraft;
+
+        /**
+         * Creates a new Handoff of the given aircraft between the given towers.
+         *
+         * @param source   shard number of the tower handing over the aircraft
+         * @param target   shard number of the tower the aircraft is handed to
+         * @param aircraft aircraft being handed over
+         */
+        private Handoff(int source, int target, Aircraft aircraft) {
+            this.source = source;
+            this.target = target;
+            this.aircraft = aircraft;
+        }
+    }
+
+    /**
+     * Connection to another node of the cluster, with the message being written to it and the
+     * message being read from it on the current tick.
+     */
+    private static class Peer {
+
+        /** Connection to the node, in non-blocking mode. */
+        private final SocketChannel channel;
+
+        /** Number of control towers hosted by the node. */
+        private final int towerCount;
+
+        /** Registration of the connection with the selector of this node. */
+        private SelectionKey key;
+
+        /** Message to the node on the current tick, with the part not yet written remaining. */
+        private ByteBuffer outgoing;
+
+        /** Length of the message being read from the node. */
+        private final ByteBuffer length;
+
+        /** Body of the message being read from the node; or null while reading its length. */
+        private ByteBuffer received;
+
+        /**
+         * Creates a new Peer for the node on the other end of the given connection.
+         *
+         * @param channel    connection to the node
+         * @param towerCount number of control towers hosted by the node
+         */
+        private Peer(SocketChannel channel, int towerCount) {
+            this.channel = channel;
+            this.towerCount = towerCount;
+            this.length = ByteBuffer.allocate(4);
+        }
+
+        /**
+         * Prepares to read the next message from the node.
+         */
+        private void startMessage() {
+            length.clear();
+            received = null;
+        }
+
+        /**
+         * Writes as much of the outgoing message as the connection accepts without blocking.
+         *
+         * @return true if the whole message has been written; false otherwise
+         * @throws IOException if the message could not be written
+         */
+        private boolean write() throws IOException {
+            channel.write(outgoing);
+            return !outgoing.hasRemaining();
+        }
+
+        /**
+         * Reads as much of the incoming message as is available without blocking.
+         *
+         * @return true if the whole message has been read; false otherwise
+         * @throws IOException if the message could not be read, or the node closed the
+         * connection before sending all of it
+         */
+        private boolean read() throws IOException {
+            if (received == null) {
+                if (channel.read(length) < 0) {
+                    throw new EOFException("Cluster node closed the connection");
+                }
+                if (length.hasRemaining()) {
+                    return false;
+                }
+                int bodyLength = length.flip().getInt();
+                if (bodyLength < HEADER_LENGTH - 4) {
+                    throw new IOException("Invalid message length " + bodyLength);
+                }
+                received = ByteBuffer.allocate(bodyLength);
+            }
+            if (received.hasRemaining() && channel.read(received) < 0) {
+                throw new EOFException("Cluster node closed the connection");
+            }
+            if (received.hasRemaining()) {
+                return false;
+            }
+            received.flip();
+            return true;
+        }
+    }
+}
@@ -1,38 +1,159 @@
 package towersim.control;
 
 import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftStore;
 import towersim.aircraft.AircraftType;
-import towersim.ground.AirplaneTerminal;
 import towersim.ground.Gate;
-import towersim.ground.HelicopterTerminal;
 import towersim.ground.Terminal;
+import towersim.ground.TerminalActor;
+import towersim.jfr.GateSearchEvent;
+import towersim.jfr.TickEvent;
 import towersim.tasks.TaskType;
-import towersim.util.NoSpaceException;
+import towersim.util.EmergencyListener;
+import towersim.util.EmergencyState;
 import towersim.util.NoSuitableGateException;
+import towersim.util.OccupancyLevel;
 import towersim.util.Tickable;
+import towersim.util.TimingWheel;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Represents the control tower of an airport. The control tower is responsible for managing
  * the operations of the airport, including arrivals and departures in/out of the airport,
  * as well as aircraft that need to be loaded with cargo at gates in terminals.
  */
-public class ControlTower implements Tickable {
+public class ControlTower implements OccupancyLevel, Tickable {
+
+    /** Default fuel percentage remaining below which events report an aircraft low on fuel. */
+    public static final int DEFAULT_LOW_FUEL_PERCENT = 20;
 
     /** All aircraft that are part of the jurisdiction of this control tower. */
     private List<Aircraft> aircrafts;
 
+    /** Read-only live view of aircrafts, handed out so callers do not need a copy. */
+    private List<Aircraft> aircraftView;
+
     /** All terminals that are part of the jurisdiction of this control tower. */
     private List<Terminal> terminals;
 
+    /** Read-only live view of terminals, handed out so callers do not need a copy. */
+    private List<Terminal> terminalsView;
+
+    /**
+     * Aircraft admitted by other threads that have not yet been added to aircrafts. They are
+     * moved across by the thread that owns this control tower, before it next reads or ticks.
+     */
+    private Queue<Aircraft> pendingAircraft;
+
+    /** Index of terminals with unoccupied gates, used to find gates for aircraft. */
+    private GateAllocator gateAllocator;
+
+    /** Record of the gate each parked aircraft occupies, used to find the gate of an aircraft. */
+    private ParkingRegistry parkingRegistry;
+
+    /** Counts of occupied and total gates, used to calculate occupancy levels. */
+    private OccupancyCounters occupancyCounters;
+
+    /** Pool used to tick aircraft in parallel, or null if aircraft are ticked on one thread. */
+    private ForkJoinPool tickPool;
+
+    /** Columnar store holding the state of all aircraft, or null if each aircraft holds its own. */
+    private AircraftStore aircraftStore;
+
+    /** Ticks a range of aircraft, either held in aircrafts or in the columnar store. */
+    private ParallelTick.Range aircraftTick;
+
+    /** Ticks a range of aircraft in the same way as aircraftTick, except those in emergency. */
+    private ParallelTick.Range nonEmergencyTick;
+
+    /** Number of ticks simulated so far. */
+    private long tickCount;
+
+    /** Engine moving aircraft through their tasks, or null if tasks are moved on externally. */
+    private TaskLifecycle taskLifecycle;
+
+    /**
+     * Aircraft whose next tick may change their state, or null if every aircraft is ticked on
+     * every tick. Aircraft are compared by identity.
+     */
+    private Set<Aircraft> activeAircraft;
+
+    /** Timers scheduled to run after a number of ticks, kept in step with tickCount. */
+    private TimingWheel timers;
+
+    /** Listener set on every aircraft and terminal to hear about changes in emergency state. */
+    private EmergencyListener emergencyListener;
+
+    /** Log that every change to this control tower is written to, or null if not logged. */
+    private MutationLog mutationLog;
+
+    /** Metrics recorded as this control tower ticks and admits aircraft, or null if disabled. */
+    private TowerMetrics metrics;
+
+    /** Aircraft and terminals of this control tower that are in a state of emergency. */
+    private EmergencyRegistry emergencies;
+
+    /** Actor owning each terminal, by terminal identity, or null if terminals have no actors. */
+    private Map<Terminal, TerminalActor> terminalActors;
+
+    /** Runs the tasks that process the requests of terminal actors, or null if there are none. */
+    private Executor terminalExecutor;
+
+    /**
+     * Terminals whose emergency state was changed through their actor, possibly on another
+     * thread, and has not yet been recorded. They are recorded by the thread that owns this
+     * control tower, before it next reads or ticks.
+     */
+    private Queue<Terminal> pendingTerminalEmergencies;
+
+    /** Stream publishing the changes made during each tick, or null if events are disabled. */
+    private TowerEventStream eventStream;
+
     /**
      * Creates a new ControlTower.
      */
     public ControlTower() {
         this.aircrafts = new ArrayList<Aircraft>();
+        this.aircraftView = Collections.unmodifiableList(aircrafts);
+        this.pendingAircraft = new ConcurrentLinkedQueue<Aircraft>();
         this.terminals = new ArrayList<Terminal>();
+        this.terminalsView = Collections.unmodifiableList(terminals);
+        this.gateAllocator = new GateAllocator();
+        this.parkingRegistry = new ParkingRegistry();
+        this.occupancyCounters = new OccupancyCounters();
+        this.timers = new TimingWheel();
+        this.emergencyListener = this::emergencyChanged;
+        this.emergencies = new EmergencyRegistry();
+        this.pendingTerminalEmergencies = new ConcurrentLinkedQueue<Terminal>();
+        this.aircraftTick = (from, to) -> {
+            for (int i = from; i < to; i++) {
+                aircrafts.get(i).tick();
+            }
+        };
+        this.nonEmergencyTick = (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Aircraft aircraft = aircrafts.get(i);
+                if (!aircraft.hasEmergency()) {
+                    aircraft.tick();
+                }
+            }
+        };
     }
 
     /**
@@ -42,6 +163,25 @@ public class ControlTower implements Tickable {
      */
     public void addTerminal(Terminal terminal) {
         terminals.add(terminal);
+        gateAllocator.addTerminal(terminal);
+        parkingRegistry.addTerminal(terminal);
+        occupancyCounters.addTerminal(terminal);
+        terminal.setEmergencyListener(emergencyListener);
+        if (terminal.hasEmergency()) {
+            emergencies.update(terminal, true);
+        }
+        if (mutationLog != null) {
+            mutationLog.terminalAdded(terminal);
+        }
+        if (metrics != null) {
+            metrics.terminalAdded(terminal);
+        }
+        if (terminalActors != null) {
+            terminalActors.put(terminal, new TerminalActor(terminal, terminalExecutor));
+        }
+        if (eventStream != null) {
+            eventStream.terminalAdded(terminal);
+        }
     }
 
     /**
@@ -54,44 +194,453 @@ public class ControlTower implements Tickable {
         return new ArrayList<>(terminals);
     }
 
+    /**
+     * Returns a read-only view of all terminals managed by this control tower. Unlike
+     * getTerminals(), no copy is made, and the view reflects terminals added later on.
+     *
+     * @return read-only view of all terminals
+     */
+    public List<Terminal> getTerminalsView() {
+        return terminalsView;
+    }
+
     /**
      * Adds the given aircraft to the jurisdiction of this control tower.
      *
      * @param aircraft aircraft to add
      * @throws NoSuitableGateException if there is no suitable gate for an aircraft
      * with a current task type of WAIT or LOAD
+     * @throws IllegalArgumentException if this control tower uses a columnar store and the
+     * aircraft cannot be added to it
      */
     public void addAircraft(Aircraft aircraft) throws NoSuitableGateException {
+        if (tryAddAircraft(aircraft) == AdmissionResult.NO_SUITABLE_GATE) {
+            throw new NoSuitableGateException();
+        }
+    }
+
+    /**
+     * Attempts to add the given aircraft to the jurisdiction of this control tower, returning the
+     * outcome instead of throwing an exception if there is no suitable gate for the aircraft.
+     *
+     * @param aircraft aircraft to add
+     * @return PARKED if the aircraft was parked at a gate, ADMITTED if it was added without
+     * needing a gate, or NO_SUITABLE_GATE if it was not added
+     * @throws IllegalArgumentException if this control tower uses a columnar store and the
+     * aircraft cannot be added to it
+     */
+    public AdmissionResult tryAddAircraft(Aircraft aircraft) {
+        registerPendingAircraft();
+        checkStorable(aircraft);
+        AdmissionResult result = claimGate(aircraft);
+        if (result.isAdmitted()) {
+            register(aircraft);
+        }
+        return result;
+    }
 
+    /**
+     * Attempts to add every given aircraft to the jurisdiction of this control tower, returning
+     * the outcome for each aircraft instead of stopping at the first that has no suitable gate.
+     * <p>
+     * Aircraft that need a gate are grouped by aircraft type, and each group is given gates in a
+     * single pass over the unoccupied gates, so admitting the batch takes time proportional to
+     * the number of aircraft plus the number of gates, rather than their product. Within a group,
+     * aircraft in a state of emergency are given gates first, then the rest in the order given.
+     * Without emergencies, every aircraft gets the same gate as it would if the aircraft were
+     * added one at a time. Admitted aircraft are added in the order given.
+     *
+     * @param aircraft aircraft to add, each at most once
+     * @return outcome for each aircraft, in the order given: PARKED if it was parked at a gate,
+     * ADMITTED if it was added without needing a gate, or NO_SUITABLE_GATE if it was not added
+     * @throws IllegalArgumentException if this control tower uses a columnar store and an
+     * aircraft cannot be added to it
+     */
+    public List<AdmissionResult> addAircraft(Collection<? extends Aircraft> aircraft) {
+        registerPendingAircraft();
+        Aircraft[] batch = aircraft.toArray(new Aircraft[0]);
+        // the whole batch is checked before any gate is claimed, so nothing is left parked
+        for (Aircraft each : batch) {
+            checkStorable(each);
+        }
+        AdmissionResult[] results = new AdmissionResult[batch.length];
+        // groups aircraft needing a gate by type, then emergencies first, keeping the batch
+        // order within each group, with a counting sort over the batch positions
+        int groupCount = 2 * AircraftType.values().length;
+        int[] groupOf = new int[batch.length];
+        int[] groupStarts = new int[groupCount + 1];
+        for (int i = 0; i < batch.length; i++) {
+            if (needsGate(batch[i])) {
+                int group = 2 * batch[i].getCharacteristics().type.ordinal()
+                        + (batch[i].hasEmergency() ? 0 : 1);
+                groupOf[i] = group;
+                groupStarts[group + 1]++;
+            } else {
+                groupOf[i] = -1;
+                results[i] = AdmissionResult.ADMITTED;
+            }
+        }
+        for (int group = 0; group < groupCount; group++) {
+            groupStarts[group + 1] += groupStarts[group];
+        }
+        int[] positions = new int[groupStarts[groupCount]];
+        Aircraft[] toPark = new Aircraft[positions.length];
+        int[] next = Arrays.copyOf(groupStarts, groupCount);
+        for (int i = 0; i < batch.length; i++) {
+            if (groupOf[i] >= 0) {
+                int slot = next[groupOf[i]]++;
+                positions[slot] = i;
+                toPark[slot] = batch[i];
+            }
+        }
+
+        for (AircraftType type : AircraftType.values()) {
+            int from = groupStarts[2 * type.ordinal()];
+            int to = groupStarts[2 * type.ordinal() + 2];
+            int parkedTo = from + gateAllocator.parkInOrder(type, toPark, from, to);
+            for (int slot = from; slot < to; slot++) {
+                results[positions[slot]] = slot < parkedTo
+                        ? AdmissionResult.PARKED : AdmissionResult.NO_SUITABLE_GATE;
+                if (metrics != null) {
+                    metrics.gateAllocated(type, slot < parkedTo);
+                }
+            }
+        }
+        if (aircrafts instanceof ArrayList) {
+            ((ArrayList<Aircraft>) aircrafts).ensureCapacity(aircrafts.size() + batch.length);
+        }
+        for (int i = 0; i < batch.length; i++) {
+            if (results[i].isAdmitted()) {
+                register(batch[i]);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns whether the current task of the given aircraft requires it to be at a gate.
+     *
+     * @param aircraft aircraft being admitted
+     * @return true if the aircraft is in a WAIT or LOAD task; false otherwise
+     */
+    private static boolean needsGate(Aircraft aircraft) {
         TaskType currentTask = aircraft.getTaskList().getCurrentTask().getType();
+        return currentTask == TaskType.LOAD || currentTask == TaskType.WAIT;
+    }
+
+    /**
+     * Attempts to add the given aircraft to the jurisdiction of this control tower, in the same
+     * way as tryAddAircraft(Aircraft), but may be called by many threads at once. Gates are
+     * claimed with a single atomic operation, so no gate is ever given to two aircraft, and no
+     * lock is held while admitting. Aircraft admitted this way appear in the aircraft managed by
+     * this control tower the next time the thread that owns the tower reads or ticks it.
+     * <p>
+     * Terminals and gates must not be added while aircraft are being admitted concurrently.
+     *
+     * @param aircraft aircraft to add
+     * @return PARKED if the aircraft was parked at a gate, ADMITTED if it was added without
+     * needing a gate, or NO_SUITABLE_GATE if it was not added
+     * @throws IllegalArgumentException if this control tower uses a columnar store and the
+     * aircraft cannot be added to it
+     */
+    public AdmissionResult tryAddAircraftConcurrently(Aircraft aircraft) {
+        checkStorable(aircraft);
+        AdmissionResult result = claimGate(aircraft);
+        if (result.isAdmitted()) {
+            pendingAircraft.add(aircraft);
+        }
+        return result;
+    }
+
+    /**
+     * Attempts to add the given aircraft to the jurisdiction of this control tower by sending
+     * requests to terminal actors, without waiting for them. The actors of compatible terminals
+     * with an unoccupied gate are asked to park the aircraft one after another, in the order the
+     * terminals were added, until one of them does. Aircraft that do not need a gate are admitted
+     * straight away. Like tryAddAircraftConcurrently(Aircraft), this may be called by many threads
+     * at once, and admitted aircraft appear in the aircraft managed by this control tower the next
+     * time the thread that owns the tower reads or ticks it.
+     * <p>
+     * Terminals and gates must not be added while aircraft are being admitted this way.
+     *
+     * @param aircraft aircraft to add
+     * @return future completed with PARKED if the aircraft was parked at a gate, ADMITTED if it
+     * was added without needing a gate, or NO_SUITABLE_GATE if it was not added
+     * @throws IllegalStateException if terminal actors have not been enabled
+     * @throws IllegalArgumentException if this control tower uses a columnar store and the
+     * aircraft cannot be added to it
+     */
+    public CompletableFuture<AdmissionResult> addAircraftAsync(Aircraft aircraft) {
+        if (terminalActors == null) {
+            throw new IllegalStateException();
+        }
+        checkStorable(aircraft);
+        if (!needsGate(aircraft)) {
+            pendingAircraft.add(aircraft);
+            return CompletableFuture.completedFuture(AdmissionResult.ADMITTED);
+        }
+        return parkThroughActors(aircraft, terminals.iterator()).thenApply(parked -> {
+            if (metrics != null) {
+                metrics.gateAllocated(aircraft.getCharacteristics().type, parked);
+            }
+            if (!parked) {
+                return AdmissionResult.NO_SUITABLE_GATE;
+            }
+            pendingAircraft.add(aircraft);
+            return AdmissionResult.PARKED;
+        });
+    }
+
+    /**
+     * Asks the actor of each remaining compatible terminal with an unoccupied gate, in turn, to
+     * park the given aircraft, moving on to the next terminal only once the last has refused.
+     *
+     * @param aircraft  aircraft to park
+     * @param remaining terminals that have not yet been asked
+     * @return future completed with true once the aircraft is parked; or with false if every
+     * terminal refused
+     */
+    private CompletableFuture<Boolean> parkThroughActors(Aircraft aircraft,
+                                                         Iterator<Terminal> remaining) {
+        AircraftType type = aircraft.getCharacteristics().type;
+        while (remaining.hasNext()) {
+            Terminal terminal = remaining.next();
+            // terminals seen to be full are skipped without sending them a request
+            if (GateAllocator.aircraftTypeOf(terminal) == type && terminal.hasUnoccupiedGate()) {
+                return terminalActors.get(terminal).park(aircraft).thenCompose(gate -> gate != null
+                        ? CompletableFuture.completedFuture(true)
+                        : parkThroughActors(aircraft, remaining));
+            }
+        }
+        return CompletableFuture.completedFuture(false);
+    }
+
+    /**
+     * Checks that the given aircraft can be recorded by this control tower, before it is given a
+     * gate, so a rejected aircraft never keeps a gate the tower does not know about.
+     *
+     * @param aircraft aircraft being admitted
+     * @throws IllegalArgumentException if this control tower uses a columnar store and the
+     * aircraft cannot be added to it
+     */
+    private void checkStorable(Aircraft aircraft) {
+        if (aircraftStore != null && !aircraftStore.canAdd(aircraft)) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Parks the given aircraft at an unoccupied gate if its current task requires it to be at a
+     * gate.
+     *
+     * @param aircraft aircraft being admitted
+     * @return outcome of admitting the aircraft
+     */
+    private AdmissionResult claimGate(Aircraft aircraft) {
         // if aircraft is in load or wait task, then it finds and occupies a gate
         // before being added to the jurisdiction
-        if (currentTask == TaskType.LOAD || currentTask == TaskType.WAIT) {
-            try {
-                Gate aircraftGate = findUnoccupiedGate(aircraft);
-                aircraftGate.parkAircraft(aircraft);
-                aircrafts.add(aircraft);
-            } catch (NoSuitableGateException e) {
-                throw new NoSuitableGateException();
-            } catch (NoSpaceException e) {
-                // this exception should not occur as aircraft is being parked to an unoccupied gate
-                assert false;
+        if (needsGate(aircraft)) {
+            return parkAtUnoccupiedGate(aircraft)
+                    ? AdmissionResult.PARKED : AdmissionResult.NO_SUITABLE_GATE;
+        }
+        return AdmissionResult.ADMITTED;
+    }
+
+    /**
+     * Returns whether any compatible terminal may have an unoccupied gate for aircraft of the
+     * given type, without searching for one or counting it as a gate allocation.
+     *
+     * @param type type of aircraft to check for
+     * @return true if a gate may be found; false if every suitable gate is occupied
+     */
+    boolean hasUnoccupiedGate(AircraftType type) {
+        return gateAllocator.hasUnoccupiedGate(type);
+    }
+
+    /**
+     * Parks the given aircraft at an unoccupied gate in a compatible terminal. If another thread
+     * claims a gate first, the next unoccupied gate is tried instead.
+     *
+     * @param aircraft aircraft to park
+     * @return true if the aircraft was parked; false if no suitable gate was unoccupied
+     */
+    boolean parkAtUnoccupiedGate(Aircraft aircraft) {
+        boolean parked = false;
+        Gate aircraftGate = tryFindUnoccupiedGate(aircraft);
+        while (aircraftGate != null && !parked) {
+            parked = aircraftGate.tryParkAircraft(aircraft);
+            if (!parked) {
+                aircraftGate = tryFindUnoccupiedGate(aircraft);
             }
-        } else {
-            aircrafts.add(aircraft);
+        }
+        if (metrics != null) {
+            metrics.gateAllocated(aircraft.getCharacteristics().type, parked);
+        }
+        return parked;
+    }
+
+    /**
+     * Records every aircraft admitted concurrently since this method was last called, and every
+     * change in emergency state made through a terminal actor.
+     */
+    private void registerPendingAircraft() {
+        Aircraft aircraft = pendingAircraft.poll();
+        while (aircraft != null) {
+            register(aircraft);
+            aircraft = pendingAircraft.poll();
+        }
+        Terminal terminal = pendingTerminalEmergencies.poll();
+        while (terminal != null) {
+            // the terminal may have changed more than once, so only its latest state is recorded
+            boolean emergency = terminal.hasEmergency();
+            if (emergencies.getTerminals().contains(terminal) != emergency) {
+                recordEmergency(terminal, emergency);
+            }
+            terminal = pendingTerminalEmergencies.poll();
         }
     }
 
+    /**
+     * Records the given aircraft as part of the jurisdiction of this control tower.
+     *
+     * @param aircraft aircraft to record
+     */
+    private void register(Aircraft aircraft) {
+        if (aircraftStore != null) {
+            aircraftStore.add(aircraft);
+        }
+        aircrafts.add(aircraft);
+        aircraft.setEmergencyListener(emergencyListener);
+        if (aircraft.hasEmergency()) {
+            emergencies.update(aircraft, true);
+        }
+        if (mutationLog != null) {
+            mutationLog.aircraftAdded(aircraft);
+        }
+        if (metrics != null) {
+            metrics.aircraftAdded(aircraft);
+        }
+        wake(aircraft);
+        if (taskLifecycle != null) {
+            taskLifecycle.enroll(aircraft, tickCount);
+        }
+    }
+
+    /**
+     * Removes the given aircraft from the jurisdiction of this control tower, such as when it is
+     * handed over to another control tower while AWAY. If the aircraft is parked at a gate, it
+     * leaves the gate. Once removed, the aircraft holds its own state again and this control tower
+     * no longer listens for changes in its emergency state.
+     *
+     * @param aircraft aircraft to remove
+     * @return true if the aircraft was removed; false if it is not managed by this control tower
+     */
+    public boolean removeAircraft(Aircraft aircraft) {
+        return removeAircraft(Collections.singletonList(aircraft)) == 1;
+    }
+
+    /**
+     * Removes every given aircraft from the jurisdiction of this control tower, in the same way
+     * as removeAircraft(Aircraft). However many aircraft are given, the aircraft managed by this
+     * control tower are only visited once. Aircraft not managed by this control tower are ignored.
+     *
+     * @param aircraft aircraft to remove, compared by identity
+     * @return number of aircraft removed
+     */
+    public int removeAircraft(Collection<? extends Aircraft> aircraft) {
+        registerPendingAircraft();
+        Set<Aircraft> requested = newAircraftSet();
+        requested.addAll(aircraft);
+        List<Aircraft> removed = new ArrayList<Aircraft>();
+        aircrafts.removeIf(each -> requested.contains(each) && removed.add(each));
+        if (removed.isEmpty()) {
+            return 0;
+        }
+
+        Set<Aircraft> removedSet = newAircraftSet();
+        removedSet.addAll(removed);
+        if (aircraftStore != null) {
+            aircraftStore.removeIf(removedSet::contains);
+        }
+        if (activeAircraft != null) {
+            activeAircraft.removeAll(removedSet);
+        }
+        if (taskLifecycle != null) {
+            taskLifecycle.removeAll(removedSet);
+        }
+        for (Aircraft each : removed) {
+            Gate gate = parkingRegistry.getGate(each);
+            if (gate != null) {
+                gate.aircraftLeaves();
+            }
+            each.setEmergencyListener(null);
+            if (each.hasEmergency()) {
+                emergencies.update(each, false);
+            }
+            if (mutationLog != null) {
+                mutationLog.aircraftRemoved(each);
+            }
+            if (metrics != null) {
+                metrics.aircraftRemoved(each);
+            }
+        }
+        return removed.size();
+    }
+
+    /**
+     * Returns a new, empty set of aircraft, compared by identity.
+     *
+     * @return empty set of aircraft
+     */
+    private static Set<Aircraft> newAircraftSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Aircraft, Boolean>());
+    }
+
+    /**
+     * Adds the given aircraft to the jurisdiction of this control tower as it is, without looking
+     * for a gate. Used when restoring a control tower, where parked aircraft are already at their
+     * gates and other aircraft are away from the airport.
+     *
+     * @param aircraft aircraft to restore
+     */
+    void restoreAircraft(Aircraft aircraft) {
+        registerPendingAircraft();
+        register(aircraft);
+    }
+
+    /**
+     * Sets the number of ticks this control tower has simulated, when restoring a control tower
+     * that has not yet scheduled any timers.
+     *
+     * @param tickCount number of ticks simulated
+     */
+    void restoreTickCount(long tickCount) {
+        this.tickCount = tickCount;
+        timers.skipTo(tickCount);
+    }
+
     /**
      * Returns a list of all aircraft currently managed by this control tower.
      *
      * @return all aircraft
      */
     public List<Aircraft> getAircraft() {
+        registerPendingAircraft();
         // return new array so that adding and/or removing aircrafts does not effect original list
         return new ArrayList<Aircraft>(aircrafts);
     }
 
+    /**
+     * Returns a read-only view of all aircraft managed by this control tower. Unlike
+     * getAircraft(), no copy is made, and the view reflects aircraft added later on.
+     *
+     * @return read-only view of all aircraft
+     */
+    public List<Aircraft> getAircraftView() {
+        registerPendingAircraft();
+        return aircraftView;
+    }
+
     /**
      * Attempts to find an unoccupied gate in a compatible terminal for the given aircraft.
      *
@@ -100,31 +649,38 @@ public class ControlTower implements Tickable {
      * @throws NoSuitableGateException  if no suitable gate could be found
      */
     public Gate findUnoccupiedGate(Aircraft aircraft) throws NoSuitableGateException {
-        AircraftType aircraftType = aircraft.getCharacteristics().type;
-        Gate unoccupiedGate;
-
-        // every terminal is checked for a suitable gate for the aircraft to be parked at
-        for (Terminal terminal : getTerminals()) {
-            // checks for airplane suitable gates
-            if (terminal instanceof AirplaneTerminal && aircraftType == AircraftType.AIRPLANE) {
-                try {
-                    unoccupiedGate = terminal.findUnoccupiedGate();
-                    return unoccupiedGate;
-                } catch (NoSuitableGateException e) {
-                    // if exception occurs, then it will move to next terminal in getTerminals()
-                }
-                // checks for helicopter suitable gates
-            } else if (terminal instanceof HelicopterTerminal && aircraftType
-                    == AircraftType.HELICOPTER) {
-                try {
-                    unoccupiedGate = terminal.findUnoccupiedGate();
-                    return unoccupiedGate;
-                } catch (NoSuitableGateException e) {
-                    // if exception occurs, then it will move to next terminal in getTerminals()
-                }
-            }
+        Gate unoccupiedGate = tryFindUnoccupiedGate(aircraft);
+        if (unoccupiedGate == null) {
+            throw new NoSuitableGateException();
+        }
+        return unoccupiedGate;
+    }
+
+    /**
+     * Attempts to find an unoccupied gate in a compatible terminal for the given aircraft,
+     * returning null instead of throwing an exception if no suitable gate could be found.
+     *
+     * @param aircraft aircraft for which to find gate
+     * @return gate for given aircraft; or null if no suitable gate could be found
+     */
+    public Gate tryFindUnoccupiedGate(Aircraft aircraft) {
+        GateSearchEvent event = new GateSearchEvent();
+        event.begin();
+        long start = metrics == null ? 0 : System.nanoTime();
+        // terminals are checked in the order they were added, as indexed by the gate allocator
+        Gate gate = gateAllocator.findUnoccupiedGate(aircraft.getCharacteristics().type);
+        if (metrics != null) {
+            metrics.gateSearched(System.nanoTime() - start);
         }
-        throw new NoSuitableGateException();
+        event.end();
+        if (event.shouldCommit()) {
+            event.callsign = aircraft.getCallsign();
+            event.aircraftType = aircraft.getCharacteristics().type.name();
+            event.terminalNumber = gate == null ? -1 : gate.getTerminal().getTerminalNumber();
+            event.gateNumber = gate == null ? -1 : gate.getGateNumber();
+            event.commit();
+        }
+        return gate;
     }
 
     /**
@@ -135,23 +691,590 @@ public class ControlTower implements Tickable {
      * @return gate occupied by the given aircraft; or null if none exists
      */
     public Gate findGateOfAircraft(Aircraft aircraft) {
-        // every gate in every terminal is checked to identify the gate of aircraft
-        for (Terminal terminal : getTerminals()) {
-            for (Gate gate : terminal.getGates()) {
-                if (gate.getAircraftAtGate() == aircraft) {
-                    return gate;
+        return parkingRegistry.getGate(aircraft);
+    }
+
+    /**
+     * Returns a read-only view of every aircraft parked at a gate in any terminal of this control
+     * tower, mapped to the gate it occupies. The view is kept up to date as aircraft park and
+     * leave.
+     *
+     * @return parked aircraft and their gates
+     */
+    public Map<Aircraft, Gate> getParkedAircraft() {
+        return parkingRegistry.getParkedAircraft();
+    }
+
+    /**
+     * Returns the ratio of occupied gates to total gates across all terminals managed by this
+     * control tower, as a percentage from 0 to 100.
+     *
+     * @return percentage of occupied gates at the airport, 0 to 100
+     */
+    public int calculateOccupancyLevel() {
+        return occupancyCounters.calculateOccupancyLevel();
+    }
+
+    /**
+     * Returns the ratio of occupied gates to total gates across all terminals managed by this
+     * control tower that accommodate the given type of aircraft, as a percentage from 0 to 100.
+     * For example, the AIRPLANE occupancy level covers every airplane terminal.
+     *
+     * @param type type of aircraft accommodated by the terminals
+     * @return percentage of occupied gates in terminals for the aircraft type, 0 to 100
+     */
+    public int calculateOccupancyLevel(AircraftType type) {
+        return occupancyCounters.calculateOccupancyLevel(type);
+    }
+
+    /**
+     * Returns the number of occupied gates across all terminals managed by this control tower.
+     *
+     * @return number of occupied gates
+     */
+    public int getOccupiedGateCount() {
+        return occupancyCounters.getOccupiedGates();
+    }
+
+    /**
+     * Returns the number of gates across all terminals managed by this control tower.
+     *
+     * @return number of gates
+     */
+    public int getGateCount() {
+        return occupancyCounters.getTotalGates();
+    }
+
+    /**
+     * Sets the pool used to tick aircraft in parallel, or null to tick every aircraft on the
+     * calling thread. Parallel ticks give exactly the same results as ticking on one thread,
+     * provided each aircraft is only managed once by this control tower.
+     *
+     * @param tickPool pool to tick aircraft with; or null to tick on the calling thread
+     */
+    public void setTickPool(ForkJoinPool tickPool) {
+        this.tickPool = tickPool;
+    }
+
+    /**
+     * Moves the state of every aircraft managed by this control tower, and of every aircraft
+     * added later, into a columnar store, so ticks walk primitive arrays instead of objects.
+     * Only passenger and freight aircraft that are not already held in a store can be managed
+     * once the columnar store is in use.
+     *
+     * @throws IllegalArgumentException if any aircraft cannot be added to the store
+     */
+    public void useColumnarStore() {
+        registerPendingAircraft();
+        if (aircraftStore == null) {
+            AircraftStore store = new AircraftStore();
+            for (Aircraft aircraft : aircrafts) {
+                store.add(aircraft);
+            }
+            aircraftStore = store;
+            aircraftTick = store::tick;
+            nonEmergencyTick = (from, to) -> store.tick(from, to, true);
+        }
+    }
+
+    /**
+     * Starts moving every aircraft managed by this control tower through its task list as part of
+     * each tick. Aircraft that are AWAY or waiting at a gate move on after one tick, and loading
+     * aircraft move on once their loading time has passed. Aircraft waiting to land or take off
+     * are queued, with aircraft in emergency first and then those with the least fuel remaining;
+     * each tick one aircraft lands at an unoccupied gate and one aircraft takes off. Aircraft
+     * release their gate as soon as they move on to a TAKEOFF task.
+     * <p>
+     * Once enabled, each aircraft managed by this control tower must have its own task list.
+     */
+    public void enableTaskLifecycle() {
+        registerPendingAircraft();
+        if (taskLifecycle == null) {
+            taskLifecycle = new TaskLifecycle(this);
+            for (Aircraft aircraft : aircrafts) {
+                taskLifecycle.enroll(aircraft, tickCount);
+            }
+        }
+    }
+
+    /**
+     * Switches this control tower to event-driven ticks. Instead of ticking every aircraft on every
+     * tick, only aircraft whose state can still change are ticked: an AWAY aircraft is ticked until
+     * it runs out of fuel, and a loading aircraft until its fuel and cargo stop changing. Every
+     * other aircraft is left alone until its task changes, since ticking it would have no effect,
+     * so the results are exactly the same as ticking every aircraft.
+     * <p>
+     * Task changes made by the task lifecycle are tracked automatically. If the task of an
+     * aircraft is changed from outside this control tower, wake(Aircraft) must be called.
+     * In this mode aircraft are ticked on the calling thread, one at a time.
+     */
+    public void enableEventDrivenTicks() {
+        registerPendingAircraft();
+        if (activeAircraft == null) {
+            activeAircraft = newAircraftSet();
+            activeAircraft.addAll(aircrafts);
+        }
+    }
+
+    /**
+     * Tells this control tower that the state or task of the given aircraft has changed, so that
+     * it is ticked again in event-driven mode. Has no effect if ticks are not event-driven.
+     *
+     * @param aircraft aircraft that has changed
+     */
+    public void wake(Aircraft aircraft) {
+        if (activeAircraft != null) {
+            activeAircraft.add(aircraft);
+        }
+    }
+
+    /**
+     * Schedules the given task to run on the tick that is the given number of ticks from now.
+     * Tasks run on the thread calling tick(), after aircraft have been ticked and tasks moved on.
+     * Scheduling and cancelling take constant time however many timers are pending.
+     *
+     * @param ticks number of ticks to wait, at least 1
+     * @param task  task to run
+     * @return handle that can be used to cancel the task before it runs
+     * @throws IllegalArgumentException if ticks is less than 1
+     */
+    public TimingWheel.Timeout schedule(long ticks, Runnable task) {
+        return timers.schedule(ticks, task);
+    }
+
+    /**
+     * Returns the number of scheduled tasks that have not yet run or been cancelled.
+     *
+     * @return number of pending timers
+     */
+    public int getPendingTimerCount() {
+        return timers.size();
+    }
+
+    /**
+     * Gives every terminal of this control tower, and every terminal added later, an actor that
+     * owns its gates and processes requests to park, leave, change emergency state and report
+     * occupancy on tasks run by the given executor. Aircraft can then be admitted through the
+     * actors with addAircraftAsync(Aircraft). Changes in the emergency state of a terminal are
+     * recorded by the thread that owns this control tower, before it next reads or ticks.
+     * <p>
+     * Aircraft landing and taking off as part of each tick still park at and leave gates
+     * directly, which is safe since each is a single atomic operation on the gate. Has no effect
+     * if terminal actors are already enabled.
+     *
+     * @param executor runs the tasks that process the requests of terminal actors
+     */
+    public void enableTerminalActors(Executor executor) {
+        if (terminalActors == null) {
+            terminalExecutor = executor;
+            terminalActors = new IdentityHashMap<Terminal, TerminalActor>();
+            for (Terminal terminal : terminals) {
+                terminalActors.put(terminal, new TerminalActor(terminal, executor));
+            }
+        }
+    }
+
+    /**
+     * Returns the actor owning the given terminal of this control tower.
+     *
+     * @param terminal terminal to find the actor of
+     * @return actor of the terminal; or null if terminal actors are not enabled or the terminal
+     * is not part of this control tower
+     */
+    public TerminalActor getTerminalActor(Terminal terminal) {
+        return terminalActors == null ? null : terminalActors.get(terminal);
+    }
+
+    /**
+     * Starts writing every change to this control tower to the given log. The log first records
+     * a checkpoint of the current state of this control tower, so that it can be replayed from
+     * there. Terminals and gates must not be added by other threads while the log is attached.
+     *
+     * @param log log to write changes to
+     * @throws IOException if the checkpoint could not be written
+     * @throws IllegalStateException if this control tower already has a log, or the log is
+     * already attached to a control tower
+     */
+    public void attachMutationLog(MutationLog log) throws IOException {
+        registerPendingAircraft();
+        if (mutationLog != null) {
+            throw new IllegalStateException();
+        }
+        log.attach(this);
+        mutationLog = log;
+    }
+
+    /**
+     * Starts recording metrics of this control tower, covering tick durations, aircraft ticked,
+     * gate searches and allocations, terminal occupancy and active emergencies. Has no effect if
+     * metrics are already being recorded.
+     *
+     * @return metrics of this control tower, which can be registered with an MBeanServer
+     */
+    public TowerMetrics enableMetrics() {
+        registerPendingAircraft();
+        if (metrics == null) {
+            TowerMetrics newMetrics = new TowerMetrics();
+            for (Terminal terminal : terminals) {
+                newMetrics.terminalAdded(terminal);
+            }
+            for (Aircraft aircraft : aircrafts) {
+                newMetrics.aircraftAdded(aircraft);
+            }
+            metrics = newMetrics;
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of this control tower, or null if metrics are not being recorded.
+     *
+     * @return metrics of this control tower; or null if not enabled
+     */
+    public TowerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts publishing the changes made to this control tower, in the same way as
+     * enableEvents(Executor, int, int), delivering batches on the common pool with the default
+     * buffer size and DEFAULT_LOW_FUEL_PERCENT as the low fuel threshold.
+     *
+     * @return publisher of the batches of changes made during each tick
+     */
+    public Flow.Publisher<List<TowerEvent>> enableEvents() {
+        return enableEvents(ForkJoinPool.commonPool(), Flow.defaultBufferSize(),
+                DEFAULT_LOW_FUEL_PERCENT);
+    }
+
+    /**
+     * Starts publishing the changes made to this control tower: aircraft parking at and leaving
+     * gates, aircraft moving on to their next task, aircraft crossing the low fuel threshold,
+     * aircraft and terminals entering and leaving emergencies, and changes in the occupancy level
+     * of terminals. The changes made during each tick, and since the tick before, are published
+     * together as one batch at the end of the tick, so subscribers receive only what changed
+     * rather than comparing the whole tower between ticks. Ticks in which nothing changed
+     * publish nothing.
+     * <p>
+     * While there are no subscribers, changes are not collected at all. Each subscriber has its
+     * own buffer of batches; once it is full, the end of the next tick waits for the subscriber to
+     * request more. Tasks are only known to have moved on if moved by the task lifecycle. If
+     * events are already enabled, the existing publisher is returned and the arguments ignored.
+     *
+     * @param executor       runs the tasks delivering batches to subscribers
+     * @param bufferCapacity maximum number of batches buffered for each subscriber
+     * @param lowFuelPercent fuel percentage remaining below which an aircraft is low on fuel
+     * @return publisher of the batches of changes made during each tick
+     * @throws IllegalArgumentException if bufferCapacity is not positive
+     */
+    public Flow.Publisher<List<TowerEvent>> enableEvents(Executor executor, int bufferCapacity,
+                                                         int lowFuelPercent) {
+        registerPendingAircraft();
+        if (eventStream == null) {
+            eventStream = new TowerEventStream(executor, bufferCapacity, lowFuelPercent,
+                    tickCount + 1);
+            for (Terminal terminal : terminals) {
+                eventStream.terminalAdded(terminal);
+            }
+        }
+        return eventStream.getPublisher();
+    }
+
+    /**
+     * Returns the publisher of the changes made to this control tower, or null if events are
+     * not enabled.
+     *
+     * @return publisher of the batches of changes made during each tick; or null if not enabled
+     */
+    public Flow.Publisher<List<TowerEvent>> getEvents() {
+        return eventStream == null ? null : eventStream.getPublisher();
+    }
+
+    /**
+     * Tells this control tower that the given aircraft has moved on to its next task.
+     *
+     * @param aircraft aircraft that has moved on
+     */
+    void taskMoved(Aircraft aircraft) {
+        wake(aircraft);
+        if (mutationLog != null) {
+            mutationLog.taskMoved(aircraft);
+        }
+        if (eventStream != null) {
+            eventStream.taskMoved(aircraft);
+        }
+    }
+
+    /**
+     * Returns a read-only live view of the aircraft managed by this control tower that are in a
+     * state of emergency, in the order their emergencies were declared. The view is kept up to
+     * date as emergencies are declared and cleared, so its size is known without a scan.
+     *
+     * @return aircraft in emergency
+     */
+    public Set<Aircraft> getAircraftInEmergency() {
+        registerPendingAircraft();
+        return emergencies.getAircraft();
+    }
+
+    /**
+     * Returns a read-only live view of the terminals of this control tower that are in a state of
+     * emergency, in the order their emergencies were declared. No aircraft are sent to the gates
+     * of a terminal while it is in emergency.
+     *
+     * @return terminals in emergency
+     */
+    public Set<Terminal> getTerminalsInEmergency() {
+        registerPendingAircraft();
+        return emergencies.getTerminals();
+    }
+
+    /**
+     * Returns the number of aircraft and terminals of this control tower in a state of emergency.
+     *
+     * @return number of active emergencies
+     */
+    public int getEmergencyCount() {
+        registerPendingAircraft();
+        return emergencies.size();
+    }
+
+    /**
+     * Passes on a change in the emergency state of an aircraft or terminal of this control tower.
+     * Terminals in emergency stop being offered for gates, and aircraft waiting to land or take
+     * off move to their new place in the queue.
+     *
+     * @param source    aircraft or terminal whose emergency state changed
+     * @param emergency true if an emergency was declared; false if it was cleared
+     */
+    private void emergencyChanged(EmergencyState source, boolean emergency) {
+        if (source instanceof Terminal) {
+            gateAllocator.emergencyChanged((Terminal) source);
+            if (terminalActors != null) {
+                // may be running on the terminal's actor, so the rest is left to the owning thread
+                pendingTerminalEmergencies.add((Terminal) source);
+                return;
+            }
+        } else if (source instanceof Aircraft && taskLifecycle != null) {
+            taskLifecycle.emergencyChanged((Aircraft) source);
+        }
+        recordEmergency(source, emergency);
+    }
+
+    /**
+     * Records a change in the emergency state of an aircraft or terminal in the registry of
+     * emergencies, the mutation log and the metrics of this control tower.
+     *
+     * @param source    aircraft or terminal whose emergency state changed
+     * @param emergency true if an emergency was declared; false if it was cleared
+     */
+    private void recordEmergency(EmergencyState source, boolean emergency) {
+        emergencies.update(source, emergency);
+        if (mutationLog != null) {
+            mutationLog.emergencyChanged(source, emergency);
+        }
+        if (metrics != null) {
+            metrics.emergencyChanged(source, emergency);
+        }
+        if (eventStream != null) {
+            eventStream.emergencyChanged(source, emergency);
+        }
+    }
+
+    /**
+     * Advances the simulation by the given number of ticks. With event-driven ticks, stretches of
+     * ticks in which no aircraft can change and no timer is due are skipped over without visiting
+     * any aircraft, so the cost depends on the number of changes rather than the number of ticks.
+     *
+     * @param ticks number of ticks to advance by
+     */
+    public void advance(long ticks) {
+        long targetTick = tickCount + ticks;
+        while (tickCount < targetTick) {
+            // aircraft admitted from other threads must be active before deciding to skip ticks
+            registerPendingAircraft();
+            if (activeAircraft != null && activeAircraft.isEmpty()) {
+                long nextEventTick = taskLifecycle == null ? Long.MAX_VALUE
+                        : taskLifecycle.nextEventTick(tickCount);
+                nextEventTick = Math.min(nextEventTick, timers.nextEventTick());
+                // every tick before the next event would leave the simulation unchanged
+                long idleUntil = Math.min(targetTick, nextEventTick - 1);
+                if (idleUntil > tickCount) {
+                    tickCount = idleUntil;
+                    timers.skipTo(idleUntil);
+                    if (mutationLog != null) {
+                        mutationLog.ticksSkipped(idleUntil);
+                    }
+                    if (eventStream != null) {
+                        eventStream.ticksSkipped(idleUntil);
+                    }
+                    continue;
                 }
             }
+            tick();
         }
-        return null;
+    }
+
+    /**
+     * Returns the number of aircraft waiting to land, or 0 if the task lifecycle is not enabled.
+     *
+     * @return length of the landing queue
+     */
+    public int getLandingQueueLength() {
+        return taskLifecycle == null ? 0 : taskLifecycle.getLandingQueueLength();
+    }
+
+    /**
+     * Returns the number of aircraft waiting to take off, or 0 if the task lifecycle is not
+     * enabled.
+     *
+     * @return length of the takeoff queue
+     */
+    public int getTakeoffQueueLength() {
+        return taskLifecycle == null ? 0 : taskLifecycle.getTakeoffQueueLength();
+    }
+
+    /**
+     * Returns the number of ticks this control tower has simulated.
+     *
+     * @return number of ticks so far
+     */
+    public long getTickCount() {
+        return tickCount;
     }
 
     /**
      * Advances the simulation by one tick.
      */
     public void tick() {
-        for (Aircraft aircraft : getAircraft()) {
+        TickEvent event = new TickEvent();
+        event.begin();
+        // phases are only timed while the flight recorder is recording ticks
+        boolean timePhases = event.isEnabled();
+        long start = metrics == null && !timePhases ? 0 : System.nanoTime();
+        registerPendingAircraft();
+        tickCount++;
+        if (mutationLog != null) {
+            mutationLog.tickStarted(tickCount);
+        }
+
+        long phaseStart = timePhases ? System.nanoTime() : 0;
+        int aircraftTicked;
+        if (activeAircraft != null) {
+            aircraftTicked = tickActiveAircraft();
+        } else {
+            aircraftTicked = tickAllAircraft();
+        }
+        long aircraftEnd = timePhases ? System.nanoTime() : 0;
+
+        // tasks are moved on one aircraft at a time once every aircraft has been ticked, so
+        // gates are always assigned in the same order however the aircraft were ticked
+        if (taskLifecycle != null) {
+            taskLifecycle.tick(tickCount);
+        }
+        long lifecycleEnd = timePhases ? System.nanoTime() : 0;
+        timers.advance();
+        long timersEnd = timePhases ? System.nanoTime() : 0;
+
+        // everything that changed during the tick is made durable together
+        if (mutationLog != null) {
+            mutationLog.tickEnded();
+        }
+        if (eventStream != null) {
+            eventStream.tickEnded(tickCount);
+        }
+        if (metrics != null) {
+            metrics.tickCompleted(System.nanoTime() - start, aircraftTicked);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.tick = tickCount;
+            event.aircraftTicked = aircraftTicked;
+            event.aircraftNanos = aircraftEnd - phaseStart;
+            event.lifecycleNanos = lifecycleEnd - aircraftEnd;
+            event.timersNanos = timersEnd - lifecycleEnd;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ticks every aircraft managed by this control tower, in parallel if a tick pool is set.
+     * Aircraft in emergency are ticked first, one at a time.
+     *
+     * @return number of aircraft ticked
+     */
+    private int tickAllAircraft() {
+        // fuel crossings are found afterwards, as aircraft may be ticked on other threads
+        boolean trackFuel = eventStream != null && eventStream.isActive();
+        if (trackFuel) {
+            eventStream.recordFuel(aircrafts);
+        }
+        ParallelTick.Range range = aircraftTick;
+        if (!emergencies.getAircraft().isEmpty()) {
+            for (Aircraft aircraft : emergencies.getAircraft()) {
+                aircraft.tick();
+            }
+            range = nonEmergencyTick;
+        }
+        // small fleets are not worth handing off to the pool
+        if (tickPool != null && aircrafts.size() > ParallelTick.CHUNK_SIZE) {
+            tickPool.invoke(new ParallelTick(range, 0, aircrafts.size()));
+        } else {
+            range.tick(0, aircrafts.size());
+        }
+        if (trackFuel) {
+            eventStream.findFuelCrossings(aircrafts);
+        }
+        return aircrafts.size();
+    }
+
+    /**
+     * Ticks the aircraft whose state can still change, and stops ticking those that will not
+     * change again until their task changes.
+     *
+     * @return number of aircraft ticked
+     */
+    private int tickActiveAircraft() {
+        int ticked = activeAircraft.size();
+        TowerEventStream fuelEvents = eventStream != null && eventStream.isActive()
+                ? eventStream : null;
+        // aircraft in emergency are ticked first, and passed over below
+        for (Aircraft aircraft : emergencies.getAircraft()) {
+            if (activeAircraft.contains(aircraft)) {
+                tickActive(aircraft, fuelEvents);
+                if (aircraft.isQuiescent()) {
+                    activeAircraft.remove(aircraft);
+                }
+            }
+        }
+        Iterator<Aircraft> iterator = activeAircraft.iterator();
+        while (iterator.hasNext()) {
+            Aircraft aircraft = iterator.next();
+            if (aircraft.hasEmergency()) {
+                continue;
+            }
+            tickActive(aircraft, fuelEvents);
+            if (aircraft.isQuiescent()) {
+                iterator.remove();
+            }
+        }
+        return ticked;
+    }
+
+    /**
+     * Ticks the given active aircraft, reporting any crossing of the low fuel threshold to the
+     * given event stream.
+     *
+     * @param aircraft   aircraft to tick
+     * @param fuelEvents event stream with subscribers; or null if fuel is not being tracked
+     */
+    private static void tickActive(Aircraft aircraft, TowerEventStream fuelEvents) {
+        if (fuelEvents == null) {
+            aircraft.tick();
+        } else {
+            int fuelPercentBefore = aircraft.getFuelPercentRemaining();
             aircraft.tick();
+            fuelEvents.aircraftTicked(aircraft, fuelPercentBefore);
         }
     }
 }
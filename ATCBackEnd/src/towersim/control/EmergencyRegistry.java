@@ -0,0 +1,99 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Terminal;
+import towersim.util.EmergencyState;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Live record of the aircraft and terminals of a control tower that are in a state of emergency.
+ * The record is updated as emergencies are declared and cleared, so counting or listing the
+ * entities in emergency never requires visiting those that are not. Entities are listed in the
+ * order their emergencies were declared. Aircraft and terminals do not override equals, so
+ * membership is by identity.
+ */
+class EmergencyRegistry {
+
+    /** Aircraft in emergency, in the order their emergencies were declared. */
+    private final Set<Aircraft> aircraft;
+
+    /** Read-only live view of aircraft. */
+    private final Set<Aircraft> aircraftView;
+
+    /** Terminals in emergency, in the order their emergencies were declared. */
+    private final Set<Terminal> terminals;
+
+    /** Read-only live view of terminals. */
+    private final Set<Terminal> terminalsView;
+
+    /**
+     * Creates a new EmergencyRegistry with nothing in emergency.
+     */
+    EmergencyRegistry() {
+        this.aircraft = new LinkedHashSet<Aircraft>();
+        this.aircraftView = Collections.unmodifiableSet(aircraft);
+        this.terminals = new LinkedHashSet<Terminal>();
+        this.terminalsView = Collections.unmodifiableSet(terminals);
+    }
+
+    /**
+     * Records that the given aircraft or terminal has entered or left a state of emergency.
+     * Sources that are neither aircraft nor terminals are ignored.
+     *
+     * @param source    aircraft or terminal whose emergency state changed
+     * @param emergency true if in emergency; false otherwise
+     */
+    void update(EmergencyState source, boolean emergency) {
+        if (source instanceof Aircraft) {
+            update(aircraft, (Aircraft) source, emergency);
+        } else if (source instanceof Terminal) {
+            update(terminals, (Terminal) source, emergency);
+        }
+    }
+
+    /**
+     * Adds the given entity to, or removes it from, the given set.
+     *
+     * @param entities  set of entities in emergency
+     * @param entity    entity whose emergency state changed
+     * @param emergency true to add the entity; false to remove it
+     * @param <T>       type of entity
+     */
+    private static <T> void update(Set<T> entities, T entity, boolean emergency) {
+        if (emergency) {
+            entities.add(entity);
+        } else {
+            entities.remove(entity);
+        }
+    }
+
+    /**
+     * Returns a read-only live view of the aircraft in emergency.
+     *
+     * @return aircraft in emergency
+     */
+    Set<Aircraft> getAircraft() {
+        return aircraftView;
+    }
+
+    /**
+     * Returns a read-only live view of the terminals in emergency.
+     *
+     * @return terminals in emergency
+     */
+    Set<Terminal> getTerminals() {
+        return terminalsView;
+    }
+
+    /**
+     * Returns the number of aircraft and terminals in emergency.
+     *
+     * @return number of entities in emergency
+     */
+    int size() {
+        return aircraft.size() + terminals.size();
+    }
+}
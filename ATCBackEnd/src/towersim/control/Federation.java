@@ -0,0 +1,284 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.tasks.TaskType;
+import towersim.util.SpscQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Federation of control towers, one per airport of a region, that are simulated side by side
+ * with each tower on its own thread. Aircraft are handed from one tower to another while they are
+ * AWAY, as decided by a router.
+ * <p>
+ * Every tower ticks in lockstep. On each tick, every tower first ticks on its own thread, then
+ * asks the router where each of its AWAY aircraft should be, and removes those bound for another
+ * tower, posting them to that tower's mailbox. Once every tower has reached the end of the tick,
+ * each tower admits the aircraft posted to it, in order of the sending tower. There is one
+ * single-producer, single-consumer mailbox per pair of towers, so towers never contend with each
+ * other, and mailboxes alternate between even and odd ticks, so a tower running ahead never
+ * posts into a mailbox that is still being emptied. The results are therefore the same however
+ * the threads are scheduled, and towers only wait for each other once per tick.
+ * <p>
+ * The towers must not be used by other threads while the federation is advancing.
+ */
+public class Federation {
+
+    /** Control towers of the federation, indexed by shard number. */
+    private final List<ControlTower> shards;
+
+    /** Decides which tower each AWAY aircraft should belong to. */
+    private final Router router;
+
+    /** Creates the thread each tower is simulated on. */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Mailboxes holding aircraft in transit between towers, indexed by tick parity, then sending
+     * shard, then receiving shard.
+     */
+    private final List<SpscQueue<Aircraft>> mailboxes;
+
+    /** Number of aircraft each tower has handed over, written only by that tower's thread. */
+    private final long[] handoffs;
+
+    /** Number of ticks simulated so far. */
+    private long tickCount;
+
+    /** Whether an advance was cut short, leaving the towers at different ticks. */
+    private boolean broken;
+
+    /**
+     * Creates a new Federation of the given control towers, which are simulated on threads
+     * created by the default thread factory.
+     *
+     * @param shards control towers to federate, one per shard
+     * @param router decides which tower each AWAY aircraft should belong to
+     * @throws IllegalArgumentException if shards is empty or holds the same tower twice
+     */
+    public Federation(List<ControlTower> shards, Router router) {
+        this(shards, router, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Creates a new Federation of the given control towers, which are simulated on threads
+     * created by the given factory.
+     *
+     * @param shards        control towers to federate, one per shard
+     * @param router        decides which tower each AWAY aircraft should belong to
+     * @param threadFactory creates the thread each tower is simulated on
+     * @throws IllegalArgumentException if shards is empty or holds the same tower twice
+     */
+    public Federation(List<ControlTower> shards, Router router, ThreadFactory threadFactory) {
+        Map<ControlTower, Boolean> distinct = new IdentityHashMap<ControlTower, Boolean>();
+        for (ControlTower shard : shards) {
+            distinct.put(shard, Boolean.TRUE);
+        }
+        if (shards.isEmpty() || distinct.size() != shards.size()) {
+            throw new IllegalArgumentException();
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<ControlTower>(shards));
+        this.router = router;
+        this.threadFactory = threadFactory;
+        int count = shards.size();
+        this.mailboxes = new ArrayList<SpscQueue<Aircraft>>(2 * count * count);
+        for (int i = 0; i < 2 * count * count; i++) {
+            mailboxes.add(new SpscQueue<Aircraft>());
+        }
+        this.handoffs = new long[count];
+        this.tickCount = 0;
+        this.broken = false;
+    }
+
+    /**
+     * Returns the number of control towers in this federation.
+     *
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the control tower of the given shard.
+     *
+     * @param shard shard number, from 0 to the number of shards - 1
+     * @return control tower of the shard
+     */
+    public ControlTower getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    /**
+     * Returns the number of ticks this federation has simulated.
+     *
+     * @return number of ticks so far
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Returns the number of aircraft handed from one control tower to another so far.
+     *
+     * @return number of handoffs
+     */
+    public long getHandoffCount() {
+        long total = 0;
+        for (long count : handoffs) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Advances every control tower in this federation by the given number of ticks, each on its
+     * own thread, handing aircraft between towers at the end of each tick. Returns once every
+     * tower has finished and every aircraft in transit has been admitted.
+     *
+     * @param ticks number of ticks to advance by
+     * @throws InterruptedException if interrupted while waiting for the towers, which then stop
+     * at the end of their current tick
+     * @throws IllegalArgumentException if the router returns a shard number that does not exist
+     * @throws IllegalStateException if an earlier advance was interrupted or failed, as the
+     * towers may then have stopped at different ticks with aircraft still in transit
+     */
+    public void advance(long ticks) throws InterruptedException {
+        if (broken) {
+            throw new IllegalStateException();
+        }
+        if (ticks <= 0) {
+            return;
+        }
+        Phaser tickBarrier = new Phaser(shards.size());
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int shardNumber = shard;
+            threads.add(threadFactory.newThread(() -> {
+                try {
+                    runShard(shardNumber, ticks, tickBarrier);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    // releases the other towers from the barrier so they stop too
+                    tickBarrier.forceTermination();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    tickBarrier.forceTermination();
+                }
+            }
+        }
+        Throwable cause = failure.get();
+        broken = interrupted || cause != null;
+        if (interrupted) {
+            throw new InterruptedException();
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        tickCount += ticks;
+    }
+
+    /**
+     * Simulates the given number of ticks of one control tower, on the calling thread.
+     *
+     * @param shard       shard number of the tower
+     * @param ticks       number of ticks to simulate
+     * @param tickBarrier barrier every tower arrives at once it has handed over its aircraft
+     */
+    private void runShard(int shard, long ticks, Phaser tickBarrier) {
+        ControlTower tower = shards.get(shard);
+        List<Aircraft> leaving = new ArrayList<Aircraft>();
+        List<SpscQueue<Aircraft>> destinations = new ArrayList<SpscQueue<Aircraft>>();
+        for (long i = 1; i <= ticks; i++) {
+            int parity = (int) ((tickCount + i) & 1);
+            tower.tick();
+
+            leaving.clear();
+            destinations.clear();
+            for (Aircraft aircraft : tower.getAircraftView()) {
+                if (aircraft.getTaskList().getCurrentTask().getType() != TaskType.AWAY) {
+                    continue;
+                }
+                int target = router.route(shard, aircraft);
+                if (target != shard) {
+                    if (target < 0 || target >= shards.size()) {
+                        throw new IllegalArgumentException("No shard " + target);
+                    }
+                    leaving.add(aircraft);
+                    destinations.add(mailbox(parity, shard, target));
+                }
+            }
+            tower.removeAircraft(leaving);
+            for (int j = 0; j < leaving.size(); j++) {
+                destinations.get(j).offer(leaving.get(j));
+            }
+            handoffs[shard] += leaving.size();
+
+            if (tickBarrier.arriveAndAwaitAdvance() < 0) {
+                return;
+            }
+            for (int from = 0; from < shards.size(); from++) {
+                SpscQueue<Aircraft> inbox = mailbox(parity, from, shard);
+                Aircraft arriving = inbox.poll();
+                while (arriving != null) {
+                    tower.tryAddAircraft(arriving);
+                    arriving = inbox.poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the mailbox carrying aircraft between the given towers on ticks of the given parity.
+     *
+     * @param parity 0 for even ticks; 1 for odd ticks
+     * @param from   shard number of the sending tower
+     * @param to     shard number of the receiving tower
+     * @return mailbox between the towers
+     */
+    private SpscQueue<Aircraft> mailbox(int parity, int from, int to) {
+        int count = shards.size();
+        return mailboxes.get((parity * count + from) * count + to);
+    }
+
+    /**
+     * Decides which control tower of a federation each AWAY aircraft should belong to. The router
+     * is called from every tower's thread at once, so it must be safe to call concurrently.
+     */
+    @FunctionalInterface
+    public interface Router {
+
+        /**
+         * Returns the shard number of the control tower the given AWAY aircraft should belong to
+         * from the next tick on.
+         *
+         * @param shard    shard number of the tower the aircraft currently belongs to
+         * @param aircraft aircraft that is AWAY
+         * @return shard number of the tower the aircraft should belong to; or shard to stay
+         */
+        int route(int shard, Aircraft aircraft);
+    }
+}
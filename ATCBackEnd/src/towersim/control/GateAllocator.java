@@ -0,0 +1,281 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftType;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.GateListener;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Index of the terminals of a control tower that currently have an unoccupied gate, kept per
+ * aircraft type. The index is updated by the terminals themselves whenever an aircraft parks at
+ * or leaves one of their gates, so finding a gate never requires scanning every gate.
+ * <p>
+ * Terminals in a state of emergency are left out of the index until their emergency is cleared,
+ * so no aircraft is sent to them. The control tower passes on changes in emergency state through
+ * emergencyChanged(Terminal).
+ * <p>
+ * The index is a bit set per aircraft type, held in words that are updated with compare-and-set,
+ * so gates can be found and claimed by several threads at once without locking. Terminals must
+ * not be added while aircraft are being admitted.
+ */
+class GateAllocator {
+
+    /** Number of terminals the index has room for when created. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Number of terminals registered with this allocator. */
+    private int size;
+
+    /** All terminals registered with this allocator, in the order they were added. */
+    private volatile Terminal[] terminals;
+
+    /**
+     * For each aircraft type, indexed by ordinal, a bit set of the positions in terminals of
+     * compatible terminals that have at least one unoccupied gate.
+     */
+    private volatile AtomicLongArray[] terminalsWithUnoccupiedGates;
+
+    /** Index entry of each terminal that accommodates an aircraft type, by terminal identity. */
+    private final Map<Terminal, TerminalSlot> slots;
+
+    /**
+     * Creates a new, empty GateAllocator.
+     */
+    GateAllocator() {
+        this.size = 0;
+        this.terminals = new Terminal[INITIAL_CAPACITY];
+        this.terminalsWithUnoccupiedGates = new AtomicLongArray[AircraftType.values().length];
+        for (int i = 0; i < terminalsWithUnoccupiedGates.length; i++) {
+            terminalsWithUnoccupiedGates[i] = new AtomicLongArray(INITIAL_CAPACITY / 64);
+        }
+        this.slots = new IdentityHashMap<Terminal, TerminalSlot>();
+    }
+
+    /**
+     * Returns the type of aircraft that can park at the given terminal,
+     * or null if the terminal cannot accommodate any aircraft type.
+     *
+     * @param terminal terminal to check
+     * @return aircraft type accommodated by the terminal
+     */
+    static AircraftType aircraftTypeOf(Terminal terminal) {
+        if (terminal instanceof AirplaneTerminal) {
+            return AircraftType.AIRPLANE;
+        } else if (terminal instanceof HelicopterTerminal) {
+            return AircraftType.HELICOPTER;
+        }
+        return null;
+    }
+
+    /**
+     * Adds the given terminal to this allocator and starts tracking its gates.
+     *
+     * @param terminal terminal to add
+     */
+    synchronized void addTerminal(Terminal terminal) {
+        if (size == terminals.length) {
+            grow();
+        }
+        int position = size++;
+        Terminal[] newTerminals = terminals;
+        newTerminals[position] = terminal;
+        // written again so that other threads reading the index also see the new terminal
+        terminals = newTerminals;
+
+        AircraftType type = aircraftTypeOf(terminal);
+        if (type != null) {
+            TerminalSlot slot = new TerminalSlot(terminal, type.ordinal(), position);
+            slots.put(terminal, slot);
+            terminal.addGateListener(slot);
+            slot.update();
+        }
+    }
+
+    /**
+     * Updates the index entry of the given terminal after it has entered or left a state of
+     * emergency. Has no effect if the terminal has not been added to this allocator.
+     *
+     * @param terminal terminal whose emergency state changed
+     */
+    synchronized void emergencyChanged(Terminal terminal) {
+        TerminalSlot slot = slots.get(terminal);
+        if (slot != null) {
+            // gate changes are reported under the terminal's lock, so updating under it too
+            // stops a concurrent park or departure from undoing this update
+            synchronized (terminal) {
+                slot.update();
+            }
+        }
+    }
+
+    /**
+     * Doubles the number of terminals the index has room for, keeping the existing entries.
+     */
+    private void grow() {
+        int capacity = terminals.length * 2;
+        AtomicLongArray[] newIndex = new AtomicLongArray[terminalsWithUnoccupiedGates.length];
+        for (int i = 0; i < newIndex.length; i++) {
+            AtomicLongArray words = terminalsWithUnoccupiedGates[i];
+            newIndex[i] = new AtomicLongArray(capacity / 64);
+            for (int word = 0; word < words.length(); word++) {
+                newIndex[i].set(word, words.get(word));
+            }
+        }
+        terminalsWithUnoccupiedGates = newIndex;
+        terminals = Arrays.copyOf(terminals, capacity);
+    }
+
+    /**
+     * Returns whether any terminal accepting the given aircraft type has an unoccupied gate, as
+     * far as the index knows, without searching any terminal.
+     *
+     * @param type type of aircraft to check for
+     * @return true if a gate may be found for the aircraft type; false if none can be
+     */
+    boolean hasUnoccupiedGate(AircraftType type) {
+        AtomicLongArray words = terminalsWithUnoccupiedGates[type.ordinal()];
+        for (int word = 0; word < words.length(); word++) {
+            if (words.get(word) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first unoccupied gate, in order of terminals then gates, that can accommodate
+     * the given aircraft type, or null if every such gate is occupied. When several threads are
+     * admitting aircraft, the returned gate may be claimed by another thread before it is used.
+     *
+     * @param type type of aircraft to find a gate for
+     * @return first unoccupied gate for the aircraft type; or null if none exists
+     */
+    Gate findUnoccupiedGate(AircraftType type) {
+        AtomicLongArray words = terminalsWithUnoccupiedGates[type.ordinal()];
+        Terminal[] candidates = terminals;
+        for (int word = 0; word < words.length(); word++) {
+            long bits = words.get(word);
+            while (bits != 0L) {
+                int position = word * 64 + Long.numberOfTrailingZeros(bits);
+                Gate gate = candidates[position].tryFindUnoccupiedGate();
+                if (gate != null) {
+                    return gate;
+                }
+                // the terminal filled up after the word was read, so move on to the next one
+                bits &= bits - 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parks as many of the given aircraft as possible at unoccupied gates that can accommodate the
+     * given aircraft type, in a single pass over the terminals and gates in order. Each aircraft
+     * is given the first gate left unoccupied by those before it, so the gates are the same as if
+     * each aircraft were parked in turn at the gate found by findUnoccupiedGate(AircraftType).
+     * Gates claimed by other threads during the pass are skipped.
+     *
+     * @param type     type of the aircraft
+     * @param aircraft aircraft to park, in the order they should be given gates
+     * @param from     position of the first aircraft to park
+     * @param to       position after the last aircraft to park
+     * @return number of aircraft parked, which are the first of the aircraft from position from
+     */
+    int parkInOrder(AircraftType type, Aircraft[] aircraft, int from, int to) {
+        AtomicLongArray words = terminalsWithUnoccupiedGates[type.ordinal()];
+        Terminal[] candidates = terminals;
+        int next = from;
+        for (int word = 0; word < words.length() && next < to; word++) {
+            long bits = words.get(word);
+            while (bits != 0L && next < to) {
+                Terminal terminal = candidates[word * 64 + Long.numberOfTrailingZeros(bits)];
+                for (Gate gate : terminal.getGatesView()) {
+                    if (next < to && !gate.isOccupied() && gate.tryParkAircraft(aircraft[next])) {
+                        next++;
+                    }
+                }
+                bits &= bits - 1;
+            }
+        }
+        return next - from;
+    }
+
+    /**
+     * Sets or clears the bit for the given terminal position in the index for an aircraft type.
+     *
+     * @param typeOrdinal ordinal of the aircraft type
+     * @param position    position of the terminal
+     * @param value       true to set the bit; false to clear it
+     */
+    private void setBit(int typeOrdinal, int position, boolean value) {
+        AtomicLongArray words = terminalsWithUnoccupiedGates[typeOrdinal];
+        int word = position / 64;
+        long mask = 1L << position;
+        long oldBits;
+        long newBits;
+        do {
+            oldBits = words.get(word);
+            newBits = value ? oldBits | mask : oldBits & ~mask;
+        } while (oldBits != newBits && !words.compareAndSet(word, oldBits, newBits));
+    }
+
+    /**
+     * Keeps the index entry of a single terminal up to date as its gates change. The terminal
+     * notifies its listeners while holding its own lock, so updates for one terminal never race.
+     */
+    private class TerminalSlot implements GateListener {
+
+        /** The terminal being tracked. */
+        private final Terminal terminal;
+
+        /** The ordinal of the aircraft type accommodated by the terminal. */
+        private final int typeOrdinal;
+
+        /** The position of the terminal in the index. */
+        private final int position;
+
+        /**
+         * Creates a new TerminalSlot tracking the given terminal at the given index position.
+         *
+         * @param terminal    terminal to track
+         * @param typeOrdinal ordinal of the aircraft type accommodated by the terminal
+         * @param position    position of the terminal in the index
+         */
+        TerminalSlot(Terminal terminal, int typeOrdinal, int position) {
+            this.terminal = terminal;
+            this.typeOrdinal = typeOrdinal;
+            this.position = position;
+        }
+
+        /**
+         * Updates the index entry to reflect whether the terminal has an unoccupied gate that
+         * aircraft may be sent to.
+         */
+        void update() {
+            setBit(typeOrdinal, position, terminal.hasUnoccupiedGate() && !terminal.hasEmergency());
+        }
+
+        @Override
+        public void gateAdded(Terminal terminal, Gate gate) {
+            update();
+        }
+
+        @Override
+        public void aircraftParked(Gate gate, Aircraft aircraft) {
+            update();
+        }
+
+        @Override
+        public void aircraftLeft(Gate gate, Aircraft aircraft) {
+            update();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package towersim.control;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values, such as durations in nanoseconds, grouped into buckets whose
+ * bounds are powers of two. Bucket 0 counts zero, and bucket i counts values from 2^(i-1) to
+ * 2^i - 1, so recording a value is a bit count and an increment. Buckets are striped counters,
+ * so many threads may record at once without contending.
+ */
+class Log2Histogram {
+
+    /** Number of buckets, enough for every non-negative long. */
+    static final int BUCKETS = 64;
+
+    /** Number of values recorded in each bucket. */
+    private final LongAdder[] counts;
+
+    /** Sum of all values recorded. */
+    private final LongAdder sum;
+
+    /**
+     * Creates a new, empty Log2Histogram.
+     */
+    Log2Histogram() {
+        this.counts = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Returns the bucket counting the given value. Negative values are counted as zero.
+     *
+     * @param value value to count
+     * @return index of the bucket
+     */
+    static int bucketOf(long value) {
+        if (value <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Returns the largest value counted by the given bucket.
+     *
+     * @param bucket index of the bucket
+     * @return upper bound of the bucket, inclusive
+     */
+    static long upperBoundOf(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Records the given value.
+     *
+     * @param value value to record
+     */
+    void record(long value) {
+        counts[bucketOf(value)].increment();
+        sum.add(Math.max(0, value));
+    }
+
+    /**
+     * Returns the number of values recorded in each bucket.
+     *
+     * @return count of each bucket, indexed by bucket
+     */
+    long[] getCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return number of values
+     */
+    long getCount() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     *
+     * @return sum of values
+     */
+    long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded, or 0 if none have been recorded.
+     *
+     * @return mean value
+     */
+    double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : sum.sum() / (double) count;
+    }
+
+    /**
+     * Returns an upper bound on the given percentile of the values recorded: the upper bound of
+     * the bucket holding that percentile, which is at most twice the true value.
+     *
+     * @param percentile percentile to find, from 0 to 100
+     * @return upper bound of the percentile; or 0 if no values have been recorded
+     * @throws IllegalArgumentException if percentile is not between 0 and 100
+     */
+    long getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException();
+        }
+        long[] snapshot = getCounts();
+        long count = 0;
+        for (long bucketCount : snapshot) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+}
@@ -0,0 +1,821 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Gate;
+import towersim.ground.GateListener;
+import towersim.ground.Terminal;
+import towersim.tasks.TaskList;
+import towersim.util.EmergencyState;
+import towersim.util.NoSpaceException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of every change made to a control tower, from which the tower can be rebuilt
+ * as it was at the end of any tick.
+ * <p>
+ * Each change is written as a small binary record: terminals, gates and aircraft being added,
+ * aircraft parking at and leaving gates, emergencies being declared and cleared, aircraft moving
+ * on to their next task, and the start of each tick. Changes made by ticking aircraft are not
+ * logged, since replaying the tick recreates them. Records are collected in memory and written
+ * out together at the end of each tick, or sooner if the buffer fills up.
+ * <p>
+ * The log is kept in a directory as a series of numbered segment files. A new segment is started
+ * once the current one grows past the segment size. A checkpoint saves a snapshot of the tower
+ * and deletes every segment before it, so the log only holds changes since the last checkpoint.
+ * Only changes made through the tower are logged: task lists must be moved on by the task
+ * lifecycle rather than directly.
+ */
+public class MutationLog implements Closeable {
+
+    /** Record of a terminal added to the tower, followed by records for each of its gates. */
+    private static final byte TERMINAL = 1;
+
+    /** Record of a gate added to a logged terminal. */
+    private static final byte GATE = 2;
+
+    /** Record defining a task list, which is given the next task list index. */
+    private static final byte TASK_LIST = 3;
+
+    /** Record defining an aircraft, which is given the next aircraft index. */
+    private static final byte AIRCRAFT = 4;
+
+    /** Record of a defined aircraft being added to the jurisdiction of the tower. */
+    private static final byte ADD_AIRCRAFT = 5;
+
+    /** Record of a defined aircraft parking at a gate. */
+    private static final byte PARK = 6;
+
+    /** Record of the aircraft at a gate leaving it. */
+    private static final byte LEAVE = 7;
+
+    /** Record of the emergency state of an aircraft changing. */
+    private static final byte AIRCRAFT_EMERGENCY = 8;
+
+    /** Record of the emergency state of a terminal changing. */
+    private static final byte TERMINAL_EMERGENCY = 9;
+
+    /** Record of an aircraft moving on to its next task. */
+    private static final byte TASK_MOVED = 10;
+
+    /** Record of a tick starting, before any aircraft are ticked. */
+    private static final byte TICK = 11;
+
+    /** Record of ticks being skipped over because nothing could change during them. */
+    private static final byte SKIP = 12;
+
+    /** Record of an aircraft leaving the jurisdiction of the tower. */
+    private static final byte REMOVE_AIRCRAFT = 13;
+
+    /** Default size past which a new segment is started, in bytes. */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    /** Size of the buffer records are collected in before being written, in bytes. */
+    private static final int BUFFER_SIZE = 64 << 10;
+
+    /** Prefix of the names of segment files. */
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    /** Prefix of the names of checkpoint files. */
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+
+    /** Directory holding the segments and checkpoints of this log. */
+    private final Path directory;
+
+    /** Size past which a new segment is started, in bytes. */
+    private final long segmentSize;
+
+    /** Whether each commit waits until the records reach the storage device. */
+    private final boolean forceOnCommit;
+
+    /** Records that have not yet been written to the current segment. */
+    private ByteBuffer buffer;
+
+    /** Channel writing to the current segment, or null before the first checkpoint. */
+    private FileChannel segment;
+
+    /** Number of bytes written to the current segment. */
+    private long segmentLength;
+
+    /** Number of the next segment to be started. */
+    private long nextSegmentNumber;
+
+    /** Control tower whose changes are logged, or null if not yet attached. */
+    private ControlTower tower;
+
+    /** Index of each logged terminal, which is its position in the terminals of the tower. */
+    private Map<Terminal, Integer> terminalIndexes;
+
+    /** Index of each aircraft defined in the log since the last checkpoint. */
+    private Map<Aircraft, Integer> aircraftIndexes;
+
+    /** Index of each task list defined in the log since the last checkpoint. */
+    private Map<TaskList, Integer> taskListIndexes;
+
+    /** Number of indexed aircraft using each indexed task list, by task list identity. */
+    private Map<TaskList, Integer> taskListUsers;
+
+    /**
+     * Number of aircraft defined since the last checkpoint, which is the index of the next one.
+     * Removed aircraft keep their index, so this can exceed the number of indexed aircraft.
+     */
+    private int aircraftDefined;
+
+    /** Number of task lists defined since the last checkpoint, which is the next index. */
+    private int taskListsDefined;
+
+    /** Listener on every logged terminal, logging gates being added and used. */
+    private final GateListener gateListener;
+
+    /**
+     * Creates a new MutationLog in the given directory, with the default segment size and
+     * without forcing each commit to the storage device.
+     *
+     * @param directory directory to keep the log in, created if it does not exist
+     * @throws IOException if the directory could not be created or read
+     */
+    public MutationLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * Creates a new MutationLog in the given directory. Any segments already in the directory are
+     * left alone until the log is attached to a control tower, which starts a new checkpoint.
+     *
+     * @param directory     directory to keep the log in, created if it does not exist
+     * @param segmentSize   size past which a new segment is started, in bytes
+     * @param forceOnCommit whether each commit waits until the records reach the storage device
+     * @throws IOException if the directory could not be created or read
+     * @throws IllegalArgumentException if segmentSize is not positive
+     */
+    public MutationLog(Path directory, long segmentSize, boolean forceOnCommit)
+            throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceOnCommit = forceOnCommit;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.gateListener = new LoggingGateListener();
+
+        Files.createDirectories(directory);
+        long highest = -1;
+        for (long number : numbersOf(directory, SEGMENT_PREFIX)) {
+            highest = Math.max(highest, number);
+        }
+        for (long number : numbersOf(directory, CHECKPOINT_PREFIX)) {
+            highest = Math.max(highest, number);
+        }
+        this.nextSegmentNumber = highest + 1;
+    }
+
+    /**
+     * Starts logging the changes made to the given control tower, beginning with a checkpoint of
+     * its current state.
+     *
+     * @param tower control tower to log
+     * @throws IOException if the checkpoint could not be written
+     * @throws IllegalStateException if this log is already attached to a control tower
+     */
+    void attach(ControlTower tower) throws IOException {
+        synchronized (this) {
+            if (this.tower != null) {
+                throw new IllegalStateException();
+            }
+            this.tower = tower;
+        }
+        checkpoint();
+        // registered outside the lock, since terminals call listeners while holding their own
+        for (Terminal terminal : tower.getTerminalsView()) {
+            terminal.addGateListener(gateListener);
+        }
+    }
+
+    /**
+     * Saves a snapshot of the control tower, then deletes every segment and checkpoint before
+     * it. Changes from then on are logged to a new segment. Should be called between ticks, on
+     * the thread that ticks the tower.
+     *
+     * @throws IOException if the snapshot could not be written, or old segments deleted
+     * @throws IllegalStateException if this log is not attached to a control tower
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (tower == null) {
+            throw new IllegalStateException();
+        }
+        // aircraft admitted by other threads are added now, so they are logged before the
+        // checkpoint rather than after it
+        tower.getAircraftView();
+        long number = nextSegmentNumber;
+        startSegment();
+
+        // the snapshot only replaces older checkpoints once it has been completely written
+        Path temporary = directory.resolve(CHECKPOINT_PREFIX + "new");
+        TowerSnapshot.write(tower, temporary, false);
+        Files.move(temporary, fileOf(CHECKPOINT_PREFIX, number),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long old : numbersOf(directory, SEGMENT_PREFIX)) {
+            if (old < number) {
+                Files.delete(fileOf(SEGMENT_PREFIX, old));
+            }
+        }
+        for (long old : numbersOf(directory, CHECKPOINT_PREFIX)) {
+            if (old < number) {
+                Files.delete(fileOf(CHECKPOINT_PREFIX, old));
+            }
+        }
+
+        // indexes start again from the order the snapshot was written in
+        terminalIndexes = new IdentityHashMap<Terminal, Integer>();
+        for (Terminal terminal : tower.getTerminalsView()) {
+            terminalIndexes.put(terminal, terminalIndexes.size());
+        }
+        List<Aircraft> aircraft = TowerSnapshot.aircraftOf(tower);
+        aircraftIndexes = new IdentityHashMap<Aircraft, Integer>();
+        for (Aircraft each : aircraft) {
+            aircraftIndexes.put(each, aircraftIndexes.size());
+        }
+        aircraftDefined = aircraftIndexes.size();
+        taskListIndexes = new IdentityHashMap<TaskList, Integer>();
+        for (TaskList taskList : TowerSnapshot.taskListsOf(aircraft)) {
+            taskListIndexes.put(taskList, taskListIndexes.size());
+        }
+        taskListsDefined = taskListIndexes.size();
+        taskListUsers = new IdentityHashMap<TaskList, Integer>();
+        for (Aircraft each : aircraft) {
+            taskListUsers.merge(each.getTaskList(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Writes every buffered record to the current segment, and starts a new segment if the
+     * current one has grown past the segment size.
+     *
+     * @throws IOException if the records could not be written
+     */
+    public synchronized void commit() throws IOException {
+        flush();
+        if (segment != null) {
+            if (forceOnCommit) {
+                segment.force(false);
+            }
+            if (segmentLength >= segmentSize) {
+                startSegment();
+            }
+        }
+    }
+
+    /**
+     * Commits every buffered record and closes the current segment.
+     *
+     * @throws IOException if the records could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+            segment = null;
+        }
+    }
+
+    /**
+     * Logs a terminal added to the control tower, along with its gates and the aircraft parked
+     * at them.
+     *
+     * @param terminal terminal that was added
+     */
+    void terminalAdded(Terminal terminal) {
+        synchronized (this) {
+            terminalIndexes.put(terminal, terminalIndexes.size());
+            ensure(1 + TowerSnapshot.TERMINAL_LENGTH);
+            buffer.put(TERMINAL);
+            TowerSnapshot.writeTerminal(buffer, terminal);
+            for (Gate gate : terminal.getGatesView()) {
+                logGate(terminal, gate);
+                Aircraft occupant = gate.getAircraftAtGate();
+                if (occupant != null) {
+                    logPark(gate, occupant);
+                }
+            }
+        }
+        terminal.addGateListener(gateListener);
+    }
+
+    /**
+     * Logs an aircraft added to the jurisdiction of the control tower.
+     *
+     * @param aircraft aircraft that was added
+     */
+    synchronized void aircraftAdded(Aircraft aircraft) {
+        int index = define(aircraft);
+        ensure(1 + 4);
+        buffer.put(ADD_AIRCRAFT);
+        buffer.putInt(index);
+    }
+
+    /**
+     * Logs an aircraft leaving the jurisdiction of the control tower. The aircraft is forgotten,
+     * so if it comes back it is defined again with its state at that time. Its task list is only
+     * forgotten once no other logged aircraft shares it, so aircraft sharing a list on replay
+     * keep sharing it.
+     *
+     * @param aircraft aircraft that was removed
+     */
+    synchronized void aircraftRemoved(Aircraft aircraft) {
+        int index = define(aircraft);
+        ensure(1 + 4);
+        buffer.put(REMOVE_AIRCRAFT);
+        buffer.putInt(index);
+        aircraftIndexes.remove(aircraft);
+        TaskList taskList = aircraft.getTaskList();
+        if (taskListUsers.merge(taskList, -1, Integer::sum) == 0) {
+            taskListUsers.remove(taskList);
+            taskListIndexes.remove(taskList);
+        }
+    }
+
+    /**
+     * Logs an aircraft moving on to its next task.
+     *
+     * @param aircraft aircraft that moved on
+     */
+    synchronized void taskMoved(Aircraft aircraft) {
+        int index = define(aircraft);
+        ensure(1 + 4);
+        buffer.put(TASK_MOVED);
+        buffer.putInt(index);
+    }
+
+    /**
+     * Logs a change in the emergency state of an aircraft or terminal of the control tower.
+     *
+     * @param source    aircraft or terminal whose emergency state changed
+     * @param emergency true if an emergency was declared; false if it was cleared
+     */
+    synchronized void emergencyChanged(EmergencyState source, boolean emergency) {
+        if (source instanceof Aircraft) {
+            int index = define((Aircraft) source);
+            ensure(1 + 4 + 1);
+            buffer.put(AIRCRAFT_EMERGENCY);
+            buffer.putInt(index);
+        } else {
+            Integer index = terminalIndexes.get(source);
+            if (index == null) {
+                return;
+            }
+            ensure(1 + 4 + 1);
+            buffer.put(TERMINAL_EMERGENCY);
+            buffer.putInt(index);
+        }
+        buffer.put((byte) (emergency ? 1 : 0));
+    }
+
+    /**
+     * Logs the start of a tick, before any aircraft are ticked.
+     *
+     * @param tick number of the tick starting
+     */
+    synchronized void tickStarted(long tick) {
+        ensure(1 + 8);
+        buffer.put(TICK);
+        buffer.putLong(tick);
+    }
+
+    /**
+     * Logs ticks being skipped over because nothing could change during them.
+     *
+     * @param tick number of the last tick skipped
+     */
+    synchronized void ticksSkipped(long tick) {
+        ensure(1 + 8);
+        buffer.put(SKIP);
+        buffer.putLong(tick);
+    }
+
+    /**
+     * Commits every change made during the tick that has just ended.
+     */
+    void tickEnded() {
+        try {
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Logs a gate added to a logged terminal.
+     *
+     * @param terminal terminal the gate was added to
+     * @param gate     gate that was added
+     */
+    private void logGate(Terminal terminal, Gate gate) {
+        ensure(1 + 4 + 4);
+        buffer.put(GATE);
+        buffer.putInt(terminalIndexes.get(terminal));
+        buffer.putInt(gate.getGateNumber());
+    }
+
+    /**
+     * Logs an aircraft parking at a gate of a logged terminal.
+     *
+     * @param gate     gate the aircraft parked at
+     * @param aircraft aircraft that parked
+     */
+    private void logPark(Gate gate, Aircraft aircraft) {
+        int index = define(aircraft);
+        Terminal terminal = gate.getTerminal();
+        ensure(1 + 4 + 4 + 4);
+        buffer.put(PARK);
+        buffer.putInt(index);
+        buffer.putInt(terminalIndexes.get(terminal));
+        buffer.putInt(terminal.getGatesView().indexOf(gate));
+    }
+
+    /**
+     * Logs the aircraft at a gate of a logged terminal leaving it.
+     *
+     * @param gate gate the aircraft left
+     */
+    private void logLeave(Gate gate) {
+        Terminal terminal = gate.getTerminal();
+        ensure(1 + 4 + 4);
+        buffer.put(LEAVE);
+        buffer.putInt(terminalIndexes.get(terminal));
+        buffer.putInt(terminal.getGatesView().indexOf(gate));
+    }
+
+    /**
+     * Returns the index of the given aircraft, first logging its current state and task list if
+     * it has not been seen before.
+     *
+     * @param aircraft aircraft to find the index of
+     * @return index of the aircraft
+     */
+    private int define(Aircraft aircraft) {
+        Integer index = aircraftIndexes.get(aircraft);
+        if (index != null) {
+            return index;
+        }
+        TaskList taskList = aircraft.getTaskList();
+        Integer taskListIndex = taskListIndexes.get(taskList);
+        if (taskListIndex == null) {
+            taskListIndex = taskListsDefined++;
+            taskListIndexes.put(taskList, taskListIndex);
+            ensure(1 + TowerSnapshot.taskListLength(taskList));
+            buffer.put(TASK_LIST);
+            TowerSnapshot.writeTaskList(buffer, taskList);
+        }
+        byte[] callsign = aircraft.getCallsign().getBytes(StandardCharsets.UTF_8);
+        ensure(1 + TowerSnapshot.AIRCRAFT_LENGTH + callsign.length);
+        buffer.put(AIRCRAFT);
+        TowerSnapshot.writeAircraft(buffer, aircraft, callsign, taskListIndex);
+
+        index = aircraftDefined++;
+        aircraftIndexes.put(aircraft, index);
+        taskListUsers.merge(taskList, 1, Integer::sum);
+        return index;
+    }
+
+    /**
+     * Makes room in the buffer for a record of the given length, writing out the buffered records
+     * if they would not leave enough room.
+     *
+     * @param bytes length of the record about to be written
+     */
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+    }
+
+    /**
+     * Writes every buffered record to the current segment.
+     *
+     * @throws IOException if the records could not be written
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentLength += segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes out the buffered records and closes the current segment, if any, then starts the
+     * next segment.
+     *
+     * @throws IOException if the segments could not be written or created
+     */
+    private void startSegment() throws IOException {
+        if (segment != null) {
+            flush();
+            segment.force(false);
+            segment.close();
+        }
+        segment = FileChannel.open(fileOf(SEGMENT_PREFIX, nextSegmentNumber),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentLength = 0;
+        nextSegmentNumber++;
+    }
+
+    /**
+     * Returns the file in this log's directory with the given prefix and number.
+     *
+     * @param prefix prefix of the file name
+     * @param number number of the segment or checkpoint
+     * @return path of the file
+     */
+    private Path fileOf(String prefix, long number) {
+        return directory.resolve(String.format("%s%020d", prefix, number));
+    }
+
+    /**
+     * Returns the numbers of every file in the given directory with the given prefix, in order.
+     *
+     * @param directory directory to look in
+     * @param prefix    prefix of the file names
+     * @return numbers of the files, from lowest to highest
+     * @throws IOException if the directory could not be read
+     */
+    private static List<Long> numbersOf(Path directory, String prefix) throws IOException {
+        List<Long> numbers = new ArrayList<Long>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                try {
+                    numbers.add(Long.parseLong(suffix));
+                } catch (NumberFormatException e) {
+                    // not a complete segment or checkpoint, such as an unfinished snapshot
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Rebuilds the control tower logged in the given directory, as it was at the end of the last
+     * logged tick.
+     *
+     * @param directory directory holding the log
+     * @return rebuilt control tower
+     * @throws IOException if the log could not be read or is corrupt
+     */
+    public static ControlTower replay(Path directory) throws IOException {
+        return replay(directory, Long.MAX_VALUE);
+    }
+
+    /**
+     * Rebuilds the control tower logged in the given directory, as it was at the end of the given
+     * tick. Replay starts from the latest checkpoint, so ticks before it cannot be rebuilt. If the
+     * log ends before the given tick, the tower is rebuilt as it was at the end of the log; a
+     * record cut short at the end of the log, such as by a crash while writing it, is ignored.
+     * <p>
+     * The rebuilt tower has none of the modes of the logged tower enabled.
+     *
+     * @param directory directory holding the log
+     * @param tick      tick to rebuild the tower at the end of
+     * @return rebuilt control tower
+     * @throws IOException if the log could not be read or is corrupt
+     * @throws IllegalArgumentException if tick is before the latest checkpoint
+     */
+    public static ControlTower replay(Path directory, long tick) throws IOException {
+        List<Long> checkpoints = numbersOf(directory, CHECKPOINT_PREFIX);
+        long firstSegment = 0;
+        ControlTower tower;
+        if (checkpoints.isEmpty()) {
+            tower = new ControlTower();
+        } else {
+            firstSegment = checkpoints.get(checkpoints.size() - 1);
+            tower = TowerSnapshot.read(directory.resolve(
+                    String.format("%s%020d", CHECKPOINT_PREFIX, firstSegment)));
+        }
+        if (tick < tower.getTickCount()) {
+            throw new IllegalArgumentException();
+        }
+
+        Replay replay = new Replay(tower, tick);
+        for (long number : numbersOf(directory, SEGMENT_PREFIX)) {
+            if (number < firstSegment) {
+                continue;
+            }
+            Path file = directory.resolve(String.format("%s%020d", SEGMENT_PREFIX, number));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size());
+                if (!replay.apply(records)) {
+                    break;
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException
+                    | NegativeArraySizeException | NoSpaceException e) {
+                throw new IOException("Corrupt mutation log: " + file, e);
+            }
+        }
+        return tower;
+    }
+
+    /**
+     * State kept while replaying the records of a log onto a control tower.
+     */
+    private static class Replay {
+
+        /** Control tower being rebuilt. */
+        private final ControlTower tower;
+
+        /** Tick to stop replaying at the end of. */
+        private final long lastTick;
+
+        /** Aircraft defined so far, by index. */
+        private final List<Aircraft> aircraft;
+
+        /** Task lists defined so far, by index. */
+        private final List<TaskList> taskLists;
+
+        /**
+         * Creates a new Replay onto the given control tower, restored from the latest checkpoint.
+         *
+         * @param tower    control tower to rebuild
+         * @param lastTick tick to stop replaying at the end of
+         */
+        private Replay(ControlTower tower, long lastTick) {
+            this.tower = tower;
+            this.lastTick = lastTick;
+            this.aircraft = TowerSnapshot.aircraftOf(tower);
+            this.taskLists = TowerSnapshot.taskListsOf(aircraft);
+        }
+
+        /**
+         * Applies every record in the given segment to the control tower.
+         *
+         * @param records records of a segment
+         * @return true if replay should go on to the next segment; false if it has reached the
+         * last tick or a record cut short
+         * @throws NoSpaceException if a gate or aircraft could not be added where it was logged
+         */
+        private boolean apply(ByteBuffer records) throws NoSpaceException {
+            while (records.hasRemaining()) {
+                int start = records.position();
+                try {
+                    if (!applyRecord(records)) {
+                        return false;
+                    }
+                } catch (BufferUnderflowException e) {
+                    // a record cut short marks the end of what was written before a crash
+                    records.position(start);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Applies the next record in the given buffer to the control tower.
+         *
+         * @param in buffer positioned at the start of a record
+         * @return true if replay should go on; false if it has reached the last tick
+         * @throws NoSpaceException if a gate or aircraft could not be added where it was logged
+         */
+        private boolean applyRecord(ByteBuffer in) throws NoSpaceException {
+            byte type = in.get();
+            switch (type) {
+                case TERMINAL:
+                    tower.addTerminal(TowerSnapshot.readTerminal(in));
+                    break;
+                case GATE:
+                    Terminal terminal = tower.getTerminalsView().get(in.getInt());
+                    terminal.addGate(new Gate(in.getInt()));
+                    break;
+                case TASK_LIST:
+                    taskLists.add(TowerSnapshot.readTaskList(in));
+                    break;
+                case AIRCRAFT:
+                    aircraft.add(TowerSnapshot.readAircraft(in, taskLists));
+                    break;
+                case ADD_AIRCRAFT:
+                    tower.restoreAircraft(aircraft.get(in.getInt()));
+                    break;
+                case REMOVE_AIRCRAFT:
+                    tower.removeAircraft(aircraft.get(in.getInt()));
+                    break;
+                case PARK:
+                    Aircraft parked = aircraft.get(in.getInt());
+                    gateAt(in).parkAircraft(parked);
+                    break;
+                case LEAVE:
+                    gateAt(in).aircraftLeaves();
+                    break;
+                case AIRCRAFT_EMERGENCY:
+                    setEmergency(aircraft.get(in.getInt()), in.get() != 0);
+                    break;
+                case TERMINAL_EMERGENCY:
+                    setEmergency(tower.getTerminalsView().get(in.getInt()), in.get() != 0);
+                    break;
+                case TASK_MOVED:
+                    aircraft.get(in.getInt()).getTaskList().moveToNextTask();
+                    break;
+                case TICK:
+                    long tick = in.getLong();
+                    if (tick > lastTick) {
+                        return false;
+                    }
+                    if (tick - 1 > tower.getTickCount()) {
+                        tower.restoreTickCount(tick - 1);
+                    }
+                    tower.tick();
+                    break;
+                case SKIP:
+                    tower.restoreTickCount(Math.min(in.getLong(), lastTick));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown record type " + type);
+            }
+            return true;
+        }
+
+        /**
+         * Reads a terminal index and gate position, and returns the gate they refer to.
+         *
+         * @param in buffer positioned at the terminal index
+         * @return gate referred to
+         */
+        private Gate gateAt(ByteBuffer in) {
+            Terminal terminal = tower.getTerminalsView().get(in.getInt());
+            return terminal.getGatesView().get(in.getInt());
+        }
+
+        /**
+         * Declares or clears an emergency on the given aircraft or terminal.
+         *
+         * @param target    aircraft or terminal to change
+         * @param emergency true to declare an emergency; false to clear it
+         */
+        private static void setEmergency(EmergencyState target, boolean emergency) {
+            if (emergency) {
+                target.declareEmergency();
+            } else {
+                target.clearEmergency();
+            }
+        }
+    }
+
+    /**
+     * Logs gates being added to, and aircraft parking at and leaving, logged terminals.
+     */
+    private class LoggingGateListener implements GateListener {
+
+        @Override
+        public void gateAdded(Terminal terminal, Gate gate) {
+            synchronized (MutationLog.this) {
+                logGate(terminal, gate);
+                // gates may already have an aircraft parked when added, which fires no event
+                Aircraft occupant = gate.getAircraftAtGate();
+                if (occupant != null) {
+                    logPark(gate, occupant);
+                }
+            }
+        }
+
+        @Override
+        public void aircraftParked(Gate gate, Aircraft aircraft) {
+            synchronized (MutationLog.this) {
+                logPark(gate, aircraft);
+            }
+        }
+
+        @Override
+        public void aircraftLeft(Gate gate, Aircraft aircraft) {
+            synchronized (MutationLog.this) {
+                logLeave(gate);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftType;
+import towersim.ground.Gate;
+import towersim.ground.GateListener;
+import towersim.ground.Terminal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts the occupied and total gates across all terminals of a control tower, both overall and
+ * for each type of terminal. The counts are kept up to date by the terminals themselves as gates
+ * are added and aircraft park and leave, so occupancy never requires visiting every gate.
+ * The counters are atomic, as aircraft may park at the gates of different terminals at once.
+ */
+class OccupancyCounters {
+
+    /** Number of occupied gates in terminals for each aircraft type, indexed by ordinal. */
+    private final AtomicIntegerArray occupiedGates;
+
+    /** Number of gates in terminals for each aircraft type, indexed by ordinal. */
+    private final AtomicIntegerArray totalGates;
+
+    /** Number of occupied gates in all terminals. */
+    private final AtomicInteger allOccupiedGates;
+
+    /** Number of gates in all terminals. */
+    private final AtomicInteger allTotalGates;
+
+    /**
+     * Creates a new OccupancyCounters with no gates counted.
+     */
+    OccupancyCounters() {
+        this.occupiedGates = new AtomicIntegerArray(AircraftType.values().length);
+        this.totalGates = new AtomicIntegerArray(AircraftType.values().length);
+        this.allOccupiedGates = new AtomicInteger();
+        this.allTotalGates = new AtomicInteger();
+    }
+
+    /**
+     * Starts counting the gates of the given terminal, including any already occupied.
+     *
+     * @param terminal terminal to count
+     */
+    void addTerminal(Terminal terminal) {
+        TerminalCounter counter = new TerminalCounter(GateAllocator.aircraftTypeOf(terminal));
+        terminal.addGateListener(counter);
+        for (Gate gate : terminal.getGatesView()) {
+            counter.gateAdded(terminal, gate);
+        }
+    }
+
+    /**
+     * Returns the ratio of occupied gates to total gates across all terminals,
+     * as a percentage from 0 to 100.
+     *
+     * @return percentage of occupied gates, 0 to 100
+     */
+    int calculateOccupancyLevel() {
+        return percentage(allOccupiedGates.get(), allTotalGates.get());
+    }
+
+    /**
+     * Returns the ratio of occupied gates to total gates across all terminals that accommodate
+     * the given aircraft type, as a percentage from 0 to 100.
+     *
+     * @param type type of aircraft accommodated by the terminals
+     * @return percentage of occupied gates, 0 to 100
+     */
+    int calculateOccupancyLevel(AircraftType type) {
+        return percentage(occupiedGates.get(type.ordinal()), totalGates.get(type.ordinal()));
+    }
+
+    /**
+     * Returns the number of occupied gates across all terminals.
+     *
+     * @return number of occupied gates
+     */
+    int getOccupiedGates() {
+        return allOccupiedGates.get();
+    }
+
+    /**
+     * Returns the number of gates across all terminals.
+     *
+     * @return number of gates
+     */
+    int getTotalGates() {
+        return allTotalGates.get();
+    }
+
+    /**
+     * Returns the given number of occupied gates as a rounded percentage of the total gates,
+     * in the same way as a terminal calculates its occupancy level.
+     *
+     * @param occupied number of occupied gates
+     * @param total    total number of gates
+     * @return percentage of occupied gates, 0 to 100
+     */
+    private static int percentage(int occupied, int total) {
+        if (total == 0) {
+            return 0;
+        }
+        return (int) Math.round(100 * (occupied / (double) total));
+    }
+
+    /**
+     * Updates the counters as the gates of a single terminal change.
+     */
+    private class TerminalCounter implements GateListener {
+
+        /** The type of aircraft accommodated by the terminal, or null if none. */
+        private final AircraftType type;
+
+        /**
+         * Creates a new TerminalCounter for a terminal accommodating the given aircraft type.
+         *
+         * @param type type of aircraft accommodated by the terminal, or null if none
+         */
+        TerminalCounter(AircraftType type) {
+            this.type = type;
+        }
+
+        /**
+         * Adds the given amounts to the overall counters and those of this terminal's type.
+         *
+         * @param occupied change in number of occupied gates
+         * @param total    change in total number of gates
+         */
+        private void add(int occupied, int total) {
+            allOccupiedGates.addAndGet(occupied);
+            allTotalGates.addAndGet(total);
+            if (type != null) {
+                occupiedGates.addAndGet(type.ordinal(), occupied);
+                totalGates.addAndGet(type.ordinal(), total);
+            }
+        }
+
+        @Override
+        public void gateAdded(Terminal terminal, Gate gate) {
+            add(gate.isOccupied() ? 1 : 0, 1);
+        }
+
+        @Override
+        public void aircraftParked(Gate gate, Aircraft aircraft) {
+            add(1, 0);
+        }
+
+        @Override
+        public void aircraftLeft(Gate gate, Aircraft aircraft) {
+            add(-1, 0);
+        }
+    }
+}
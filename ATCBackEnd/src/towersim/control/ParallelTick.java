@@ -0,0 +1,66 @@
+package towersim.control;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ticks a range of aircraft by splitting it into fixed-size chunks that are ticked in parallel.
+ * Each aircraft's tick only changes the state of that aircraft, so the result is the same as
+ * ticking every aircraft one after the other, regardless of how the chunks are scheduled.
+ */
+class ParallelTick extends RecursiveAction {
+
+    /** Version of the serialized form, which ForkJoinTask inherits from Serializable. */
+    private static final long serialVersionUID = 1L;
+
+    /** Number of aircraft below which a range is ticked on the current thread. */
+    static final int CHUNK_SIZE = 1024;
+
+    /** Action that ticks every aircraft in a range. */
+    private final Range range;
+
+    /** Index of the first aircraft in the range to tick, inclusive. */
+    private final int from;
+
+    /** Index of the last aircraft in the range to tick, exclusive. */
+    private final int to;
+
+    /**
+     * Creates a new ParallelTick for the aircraft in the given range.
+     *
+     * @param range action that ticks a range of aircraft
+     * @param from  index of the first aircraft to tick, inclusive
+     * @param to    index of the last aircraft to tick, exclusive
+     */
+    ParallelTick(Range range, int from, int to) {
+        this.range = range;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= CHUNK_SIZE) {
+            range.tick(from, to);
+        } else {
+            // split on a chunk boundary so the chunks are the same however deep the split goes
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            int middle = from + (chunks / 2) * CHUNK_SIZE;
+            invokeAll(new ParallelTick(range, from, middle),
+                    new ParallelTick(range, middle, to));
+        }
+    }
+
+    /**
+     * Ticks every aircraft in a range of indices.
+     */
+    interface Range {
+
+        /**
+         * Advances the aircraft in the given range by one tick.
+         *
+         * @param from index of the first aircraft to tick, inclusive
+         * @param to   index of the last aircraft to tick, exclusive
+         */
+        void tick(int from, int to);
+    }
+}
@@ -0,0 +1,85 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Gate;
+import towersim.ground.GateListener;
+import towersim.ground.Terminal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the gate at which each aircraft is parked, across all terminals of a control tower.
+ * The registry listens to every terminal so it is kept up to date as aircraft park and leave,
+ * and may be updated by several threads at once.
+ */
+class ParkingRegistry implements GateListener {
+
+    /**
+     * The gate each parked aircraft occupies. Aircraft are compared with equals, which Aircraft
+     * does not override, so two aircraft are only the same key if they are the same object.
+     */
+    private final Map<Aircraft, Gate> gatesByAircraft;
+
+    /** Read-only view of gatesByAircraft handed out to callers. */
+    private final Map<Aircraft, Gate> view;
+
+    /**
+     * Creates a new, empty ParkingRegistry.
+     */
+    ParkingRegistry() {
+        this.gatesByAircraft = new ConcurrentHashMap<Aircraft, Gate>();
+        this.view = Collections.unmodifiableMap(gatesByAircraft);
+    }
+
+    /**
+     * Starts tracking the gates of the given terminal, including any aircraft already parked.
+     *
+     * @param terminal terminal to track
+     */
+    void addTerminal(Terminal terminal) {
+        terminal.addGateListener(this);
+        for (Gate gate : terminal.getGatesView()) {
+            gateAdded(terminal, gate);
+        }
+    }
+
+    /**
+     * Returns the gate the given aircraft is parked at, or null if it is not parked.
+     *
+     * @param aircraft aircraft whose gate to find
+     * @return gate occupied by the aircraft; or null if none
+     */
+    Gate getGate(Aircraft aircraft) {
+        return gatesByAircraft.get(aircraft);
+    }
+
+    /**
+     * Returns a read-only live view of every parked aircraft and the gate it occupies.
+     *
+     * @return map of parked aircraft to their gates
+     */
+    Map<Aircraft, Gate> getParkedAircraft() {
+        return view;
+    }
+
+    @Override
+    public void gateAdded(Terminal terminal, Gate gate) {
+        Aircraft aircraft = gate.getAircraftAtGate();
+        if (aircraft != null) {
+            gatesByAircraft.put(aircraft, gate);
+        }
+    }
+
+    @Override
+    public void aircraftParked(Gate gate, Aircraft aircraft) {
+        gatesByAircraft.put(aircraft, gate);
+    }
+
+    @Override
+    public void aircraftLeft(Gate gate, Aircraft aircraft) {
+        // only forget the aircraft if it has not since been recorded at another gate
+        gatesByAircraft.remove(aircraft, gate);
+    }
+}
@@ -0,0 +1,526 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskCycle;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedScenarioException;
+import towersim.util.NoSpaceException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads an airport and its fleet from a scenario file into a new control tower.
+ * <p>
+ * A scenario file is plain UTF-8 text with one definition per line. Blank lines are ignored, as
+ * is anything after a '#'. Each line is one of:
+ * <pre>
+ * terminal (airplane|helicopter) NUMBER [emergency]
+ * gate TERMINAL_NUMBER GATE_NUMBER
+ * passenger CALLSIGN MODEL FUEL PASSENGERS TASKS [emergency]
+ * freight CALLSIGN MODEL FUEL FREIGHT TASKS [emergency]
+ * </pre>
+ * where MODEL is the name of an AircraftCharacteristics constant, and TASKS is a comma-separated
+ * list of task types in which loading tasks may give a load percentage, such as
+ * {@code AWAY,LAND,WAIT,LOAD@60,TAKEOFF}. Terminals must be defined before their gates. Every
+ * aircraft is given its own task list over a shared cycle, starting on the first task listed.
+ * <p>
+ * The file is split into chunks at line boundaries, which are read through memory-mapped
+ * regions and parsed in parallel. The parsed terminals, gates and aircraft are then added to
+ * the control tower in file order, on the calling thread. Aircraft are parked before any terminal
+ * emergencies are declared, so a scenario may place aircraft at a terminal in emergency.
+ */
+public class ScenarioLoader {
+
+    /** Default number of bytes in each chunk of the file parsed as one task. */
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    /** Number of bytes read at a time when looking for the end of a chunk. */
+    private static final int PROBE_SIZE = 256;
+
+    /** Pool that chunks are parsed in. */
+    private final ForkJoinPool pool;
+
+    /** Number of bytes in each chunk, before extending it to the end of its last line. */
+    private final int chunkSize;
+
+    /**
+     * Creates a new ScenarioLoader that parses chunks of the default size in the common pool.
+     */
+    public ScenarioLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new ScenarioLoader that parses chunks of the given size in the given pool.
+     *
+     * @param pool      pool to parse chunks in
+     * @param chunkSize number of bytes in each chunk
+     * @throws IllegalArgumentException if chunkSize is not positive
+     */
+    public ScenarioLoader(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads the scenario in the given file into a new control tower.
+     *
+     * @param file scenario file to load
+     * @return control tower managing the terminals and aircraft of the scenario
+     * @throws IOException if the file could not be read
+     * @throws MalformedScenarioException if the file is not a valid scenario, or an aircraft
+     * that should be at a gate cannot be given one
+     */
+    public ControlTower load(Path file) throws IOException, MalformedScenarioException {
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<ForkJoinTask<Chunk>>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = endOfLine(channel, Math.min(size, start + chunkSize), size);
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        end - start);
+                tasks.add(pool.submit(() -> parse(region)));
+                start = end;
+            }
+        }
+
+        List<Chunk> chunks = new ArrayList<Chunk>(tasks.size());
+        int firstLine = 1;
+        for (ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk = task.join();
+            chunk.firstLine = firstLine;
+            firstLine += chunk.numLines;
+            chunks.add(chunk);
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) {
+                throw chunk.malformed(chunk.errorLine, chunk.error);
+            }
+        }
+        return build(chunks);
+    }
+
+    /**
+     * Returns the position just after the end of the line containing the given position.
+     *
+     * @param channel  channel reading the file
+     * @param position position within the file
+     * @param size     size of the file
+     * @return position of the start of the next line, or the size of the file if there is none
+     * @throws IOException if the file could not be read
+     */
+    private static long endOfLine(FileChannel channel, long position, long size)
+            throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        // the chunk already ends on a line boundary if the byte before it is a line break
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        long next = position - 1;
+        while (next < size) {
+            probe.clear();
+            int read = channel.read(probe, next);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return next + i + 1;
+                }
+            }
+            next += read;
+        }
+        return size;
+    }
+
+    /**
+     * Adds the parsed terminals, gates and aircraft to a new control tower, in file order.
+     *
+     * @param chunks parsed chunks of the file, in order
+     * @return control tower managing the terminals and aircraft
+     * @throws MalformedScenarioException if a gate refers to an unknown terminal, a terminal
+     * number is repeated, a terminal has too many gates, or an aircraft cannot be given a gate
+     */
+    private static ControlTower build(List<Chunk> chunks) throws MalformedScenarioException {
+        List<Terminal> terminals = new ArrayList<Terminal>();
+        Map<Integer, Terminal> terminalsByNumber = new HashMap<Integer, Terminal>();
+        for (Chunk chunk : chunks) {
+            for (Definition definition : chunk.definitions) {
+                if (definition.terminal != null) {
+                    Terminal terminal = definition.terminal;
+                    if (terminalsByNumber.putIfAbsent(terminal.getTerminalNumber(),
+                            terminal) != null) {
+                        throw chunk.malformed(definition.line, "Terminal "
+                                + terminal.getTerminalNumber() + " is already defined");
+                    }
+                    terminals.add(terminal);
+                } else if (definition.gate != null) {
+                    Terminal terminal = terminalsByNumber.get(definition.terminalNumber);
+                    if (terminal == null) {
+                        throw chunk.malformed(definition.line, "Terminal "
+                                + definition.terminalNumber + " is not defined");
+                    }
+                    try {
+                        terminal.addGate(definition.gate);
+                    } catch (NoSpaceException e) {
+                        throw chunk.malformed(definition.line, "Terminal "
+                                + definition.terminalNumber + " has too many gates");
+                    }
+                }
+            }
+        }
+
+        // terminals are added once all their gates are in place so they are indexed in one go
+        ControlTower tower = new ControlTower();
+        List<Terminal> terminalsInEmergency = new ArrayList<Terminal>();
+        for (Terminal terminal : terminals) {
+            if (terminal.hasEmergency()) {
+                terminal.clearEmergency();
+                terminalsInEmergency.add(terminal);
+            }
+            tower.addTerminal(terminal);
+        }
+        for (Chunk chunk : chunks) {
+            for (Definition definition : chunk.definitions) {
+                if (definition.aircraft != null
+                        && !tower.tryAddAircraft(definition.aircraft).isAdmitted()) {
+                    throw chunk.malformed(definition.line, "No suitable gate for aircraft "
+                            + definition.aircraft.getCallsign());
+                }
+            }
+        }
+        // emergencies are declared once the fleet is in place, as a terminal in emergency would
+        // turn away the aircraft the scenario has parked there
+        for (Terminal terminal : terminalsInEmergency) {
+            terminal.declareEmergency();
+        }
+        return tower;
+    }
+
+    /**
+     * Parses the lines in the given region of a scenario file. Parsing stops at the first line
+     * that is not valid, which is recorded in the returned chunk.
+     *
+     * @param region region of the file, starting at the start of a line
+     * @return parsed definitions of the region
+     */
+    private static Chunk parse(ByteBuffer region) {
+        String text = StandardCharsets.UTF_8.decode(region).toString();
+        Chunk chunk = new Chunk();
+        // cycles already seen in this chunk are looked up by their text rather than interned again
+        Map<String, TaskCycle> cycles = new HashMap<String, TaskCycle>();
+        List<String> tokens = new ArrayList<String>();
+
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            int line = chunk.numLines++;
+            tokenize(text, start, end, tokens);
+            start = end + 1;
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            try {
+                chunk.definitions.add(parseLine(tokens, line, cycles));
+            } catch (IllegalArgumentException e) {
+                chunk.error = e.getMessage();
+                chunk.errorLine = line;
+                break;
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Splits the given line into whitespace-separated tokens, ignoring any comment.
+     *
+     * @param text   text holding the line
+     * @param start  index of the start of the line
+     * @param end    index of the end of the line
+     * @param tokens list to fill with the tokens, emptied first
+     */
+    private static void tokenize(String text, int start, int end, List<String> tokens) {
+        tokens.clear();
+        int tokenStart = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '#') {
+                end = i;
+                break;
+            }
+            if (Character.isWhitespace(c)) {
+                if (tokenStart >= 0) {
+                    tokens.add(text.substring(tokenStart, i));
+                    tokenStart = -1;
+                }
+            } else if (tokenStart < 0) {
+                tokenStart = i;
+            }
+        }
+        if (tokenStart >= 0) {
+            tokens.add(text.substring(tokenStart, end));
+        }
+    }
+
+    /**
+     * Parses a single line of a scenario file.
+     *
+     * @param tokens tokens of the line
+     * @param line   number of the line within its chunk, counting from 0
+     * @param cycles task cycles parsed so far in the chunk, by their text
+     * @return definition on the line
+     * @throws IllegalArgumentException if the line is not valid, with a message explaining why
+     */
+    private static Definition parseLine(List<String> tokens, int line,
+                                        Map<String, TaskCycle> cycles) {
+        Definition definition = new Definition(line);
+        switch (tokens.get(0)) {
+            case "terminal":
+                expectTokens(tokens, 3, 4);
+                int terminalNumber = parseInt(tokens.get(2));
+                if ("airplane".equals(tokens.get(1))) {
+                    definition.terminal = new AirplaneTerminal(terminalNumber);
+                } else if ("helicopter".equals(tokens.get(1))) {
+                    definition.terminal = new HelicopterTerminal(terminalNumber);
+                } else {
+                    throw new IllegalArgumentException("Unknown terminal type " + tokens.get(1));
+                }
+                if (parseEmergency(tokens, 3)) {
+                    definition.terminal.declareEmergency();
+                }
+                break;
+            case "gate":
+                expectTokens(tokens, 3, 3);
+                definition.terminalNumber = parseInt(tokens.get(1));
+                definition.gate = new Gate(parseInt(tokens.get(2)));
+                break;
+            case "passenger":
+            case "freight":
+                expectTokens(tokens, 6, 7);
+                definition.aircraft = parseAircraft(tokens, cycles);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown definition " + tokens.get(0));
+        }
+        return definition;
+    }
+
+    /**
+     * Parses an aircraft definition, checking its fuel and cargo against the limits of its model.
+     *
+     * @param tokens tokens of the line
+     * @param cycles task cycles parsed so far in the chunk, by their text
+     * @return new aircraft
+     * @throws IllegalArgumentException if the definition is not valid
+     */
+    private static Aircraft parseAircraft(List<String> tokens, Map<String, TaskCycle> cycles) {
+        boolean passenger = "passenger".equals(tokens.get(0));
+        String callsign = tokens.get(1);
+        AircraftCharacteristics model;
+        try {
+            model = AircraftCharacteristics.valueOf(tokens.get(2));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown aircraft model " + tokens.get(2));
+        }
+        double fuelAmount;
+        try {
+            fuelAmount = Double.parseDouble(tokens.get(3));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid fuel amount " + tokens.get(3));
+        }
+        int payload = parseInt(tokens.get(4));
+
+        if (!(fuelAmount >= 0 && fuelAmount <= model.fuelCapacity)) {
+            throw new IllegalArgumentException("Fuel amount " + tokens.get(3)
+                    + " is outside the capacity of " + model);
+        }
+        int capacity = passenger ? model.passengerCapacity : model.freightCapacity;
+        if (capacity == 0) {
+            throw new IllegalArgumentException(model + " cannot carry " + tokens.get(0));
+        }
+        if (payload < 0 || payload > capacity) {
+            throw new IllegalArgumentException("Cargo " + payload
+                    + " is outside the capacity of " + model);
+        }
+
+        TaskCycle cycle = cycles.get(tokens.get(5));
+        if (cycle == null) {
+            cycle = TaskCycle.of(parseTasks(tokens.get(5)));
+            cycles.put(tokens.get(5), cycle);
+        }
+        Aircraft aircraft = passenger
+                ? new PassengerAircraft(callsign, model, new TaskList(cycle), fuelAmount, payload)
+                : new FreightAircraft(callsign, model, new TaskList(cycle), fuelAmount, payload);
+        if (parseEmergency(tokens, 6)) {
+            aircraft.declareEmergency();
+        }
+        return aircraft;
+    }
+
+    /**
+     * Parses a comma-separated list of tasks.
+     *
+     * @param text list of tasks
+     * @return parsed tasks
+     * @throws IllegalArgumentException if a task is not valid
+     */
+    private static List<Task> parseTasks(String text) {
+        List<Task> tasks = new ArrayList<Task>();
+        for (String token : text.split(",")) {
+            int at = token.indexOf('@');
+            String name = at < 0 ? token : token.substring(0, at);
+            TaskType type;
+            try {
+                type = TaskType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown task " + name);
+            }
+            if (at < 0) {
+                tasks.add(Task.of(type));
+                continue;
+            }
+            int loadPercent = parseInt(token.substring(at + 1));
+            if (type != TaskType.LOAD || loadPercent < 0 || loadPercent > 100) {
+                throw new IllegalArgumentException("Invalid load percentage in " + token);
+            }
+            tasks.add(Task.of(type, loadPercent));
+        }
+        return tasks;
+    }
+
+    /**
+     * Checks that the line has between the given numbers of tokens.
+     *
+     * @param tokens tokens of the line
+     * @param min    fewest tokens allowed
+     * @param max    most tokens allowed
+     * @throws IllegalArgumentException if the line has too few or too many tokens
+     */
+    private static void expectTokens(List<String> tokens, int min, int max) {
+        if (tokens.size() < min || tokens.size() > max) {
+            throw new IllegalArgumentException("Wrong number of fields for " + tokens.get(0));
+        }
+    }
+
+    /**
+     * Returns whether the optional emergency flag at the given index is present.
+     *
+     * @param tokens tokens of the line
+     * @param index  index of the optional flag
+     * @return true if the flag is present; false if the line ends before it
+     * @throws IllegalArgumentException if a token other than the flag is at the index
+     */
+    private static boolean parseEmergency(List<String> tokens, int index) {
+        if (tokens.size() <= index) {
+            return false;
+        }
+        if (!"emergency".equals(tokens.get(index))) {
+            throw new IllegalArgumentException("Unknown flag " + tokens.get(index));
+        }
+        return true;
+    }
+
+    /**
+     * Parses a whole number.
+     *
+     * @param token text of the number
+     * @return parsed number
+     * @throws IllegalArgumentException if the token is not a whole number
+     */
+    private static int parseInt(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + token);
+        }
+    }
+
+    /**
+     * The definitions parsed from one chunk of a scenario file.
+     */
+    private static class Chunk {
+
+        /** Definitions in the chunk, in order. */
+        private final List<Definition> definitions = new ArrayList<Definition>();
+
+        /** Number of lines in the chunk. */
+        private int numLines;
+
+        /** Number of the first line of the chunk within the file, counting from 1. */
+        private int firstLine;
+
+        /** Reason the first invalid line in the chunk is not valid, or null if all are valid. */
+        private String error;
+
+        /** Number of the first invalid line within the chunk, counting from 0. */
+        private int errorLine;
+
+        /**
+         * Returns an exception reporting a problem on the given line of this chunk.
+         *
+         * @param line    number of the line within the chunk, counting from 0
+         * @param message description of the problem
+         * @return exception to throw
+         */
+        private MalformedScenarioException malformed(int line, String message) {
+            return new MalformedScenarioException("Line " + (firstLine + line) + ": " + message);
+        }
+    }
+
+    /**
+     * A single terminal, gate or aircraft parsed from a line of a scenario file.
+     */
+    private static class Definition {
+
+        /** Number of the line within its chunk, counting from 0. */
+        private final int line;
+
+        /** Terminal defined on the line, or null. */
+        private Terminal terminal;
+
+        /** Gate defined on the line, or null. */
+        private Gate gate;
+
+        /** Number of the terminal the gate belongs to. */
+        private int terminalNumber;
+
+        /** Aircraft defined on the line, or null. */
+        private Aircraft aircraft;
+
+        /**
+         * Creates a new, empty Definition for the given line.
+         *
+         * @param line number of the line within its chunk, counting from 0
+         */
+        private Definition(int line) {
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftType;
+import towersim.ground.Gate;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moves the aircraft of a control tower through their task lists as the simulation ticks.
+ * <p>
+ * Aircraft that are AWAY or waiting at a gate move on to their next task after one tick, and
+ * aircraft loading at a gate move on once their loading time has passed; these are kept in a
+ * queue ordered by the tick they are due. Aircraft waiting to land or take off are kept in
+ * landing and takeoff queues, ordered so that aircraft in emergency go first, followed by those
+ * with the least fuel remaining. There is a landing queue for each aircraft type, so an aircraft
+ * waiting for a gate of its type never holds up aircraft of another type. Each tick, the first
+ * aircraft in landing order that has a suitable gate unoccupied lands, and one aircraft takes
+ * off. Gates are assigned on landing and released as soon as an aircraft moves on to its TAKEOFF
+ * task.
+ * <p>
+ * Every step only touches the aircraft it changes, so a tick costs O(log n) per aircraft that
+ * changes task rather than a scan of every aircraft. The landing and takeoff queues are sorted
+ * sets indexed by aircraft, so an aircraft declaring or clearing an emergency is moved to its new
+ * place in O(log n) as well. Each aircraft managed by the lifecycle must
+ * have its own task list, since moving to the next task changes the list.
+ */
+class TaskLifecycle {
+
+    /**
+     * Orders aircraft waiting to land or take off: emergencies, then lowest fuel, then FIFO. No
+     * two entries share a sequence number, so no two entries in a queue are ever equal.
+     */
+    private static final Comparator<Entry> RUNWAY_ORDER =
+            Comparator.comparing((Entry entry) -> !entry.emergency)
+                    .thenComparingDouble(entry -> entry.fuelRatio)
+                    .thenComparingLong(entry -> entry.sequence);
+
+    /** Orders aircraft by the tick they are due to move on, then in the order they were added. */
+    private static final Comparator<Entry> DUE_ORDER =
+            Comparator.comparingLong((Entry entry) -> entry.dueTick)
+                    .thenComparingLong(entry -> entry.sequence);
+
+    /** The control tower whose aircraft are being managed. */
+    private final ControlTower tower;
+
+    /** Aircraft that will move on to their next task at a known tick. */
+    private final PriorityQueue<Entry> dueQueue;
+
+    /** Aircraft circling the airport waiting to land, by ordinal of their aircraft type. */
+    private final List<NavigableSet<Entry>> landingQueues;
+
+    /** Front of each landing queue, gathered each tick to be tried in landing order. */
+    private final Entry[] landingHeads;
+
+    /** Aircraft on the taxiways waiting to take off. */
+    private final NavigableSet<Entry> takeoffQueue;
+
+    /** Entry of each aircraft waiting to land or take off, by aircraft identity. */
+    private final Map<Aircraft, Entry> runwayEntries;
+
+    /** Number of entries created so far, used to keep queue order stable. */
+    private long sequence;
+
+    /**
+     * Creates a new TaskLifecycle for the aircraft of the given control tower.
+     *
+     * @param tower control tower whose aircraft to manage
+     */
+    TaskLifecycle(ControlTower tower) {
+        this.tower = tower;
+        this.dueQueue = new PriorityQueue<Entry>(DUE_ORDER);
+        this.landingQueues = new ArrayList<NavigableSet<Entry>>();
+        for (AircraftType type : AircraftType.values()) {
+            landingQueues.add(new TreeSet<Entry>(RUNWAY_ORDER));
+        }
+        this.landingHeads = new Entry[landingQueues.size()];
+        this.takeoffQueue = new TreeSet<Entry>(RUNWAY_ORDER);
+        this.runwayEntries = new IdentityHashMap<Aircraft, Entry>();
+        this.sequence = 0;
+    }
+
+    /**
+     * Starts managing the given aircraft, placing it according to its current task.
+     *
+     * @param aircraft    aircraft to manage
+     * @param currentTick number of the current tick
+     */
+    void enroll(Aircraft aircraft, long currentTick) {
+        Entry entry = new Entry(aircraft, sequence++);
+        TaskType currentTask = aircraft.getTaskList().getCurrentTask().getType();
+        switch (currentTask) {
+            case AWAY:
+            case WAIT:
+                entry.dueTick = currentTick + 1;
+                dueQueue.add(entry);
+                break;
+            case LOAD:
+                entry.dueTick = currentTick + aircraft.getLoadingTime();
+                dueQueue.add(entry);
+                break;
+            case LAND:
+                landingQueueOf(aircraft).add(entry);
+                runwayEntries.put(aircraft, entry);
+                break;
+            case TAKEOFF:
+                takeoffQueue.add(entry);
+                runwayEntries.put(aircraft, entry);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Stops managing the given aircraft, taking them out of every queue in one pass per queue.
+     *
+     * @param removed aircraft to stop managing, compared by identity
+     */
+    void removeAll(Set<Aircraft> removed) {
+        dueQueue.removeIf(entry -> removed.contains(entry.aircraft));
+        for (NavigableSet<Entry> landingQueue : landingQueues) {
+            landingQueue.removeIf(entry -> removed.contains(entry.aircraft));
+        }
+        takeoffQueue.removeIf(entry -> removed.contains(entry.aircraft));
+        runwayEntries.keySet().removeIf(removed::contains);
+    }
+
+    /**
+     * Moves the given aircraft to its new place in the landing or takeoff queue after it has
+     * entered or left a state of emergency. Its place among aircraft with the same emergency
+     * state is kept. Has no effect if the aircraft is not waiting to land or take off.
+     *
+     * @param aircraft aircraft whose emergency state changed
+     */
+    void emergencyChanged(Aircraft aircraft) {
+        Entry entry = runwayEntries.get(aircraft);
+        if (entry == null) {
+            return;
+        }
+        // the entry's keys have not changed since it was queued, so it can be found by them
+        NavigableSet<Entry> queue = landingQueueOf(aircraft);
+        if (!queue.remove(entry)) {
+            queue = takeoffQueue;
+            queue.remove(entry);
+        }
+        Entry requeued = new Entry(aircraft, entry.sequence);
+        queue.add(requeued);
+        runwayEntries.put(aircraft, requeued);
+    }
+
+    /**
+     * Moves aircraft through their tasks for the given tick. This is called once the aircraft
+     * themselves have been ticked.
+     *
+     * @param currentTick number of the tick that has just been simulated
+     */
+    void tick(long currentTick) {
+        Entry due = dueQueue.peek();
+        while (due != null && due.dueTick <= currentTick) {
+            dueQueue.poll();
+            moveToNextTask(due.aircraft, currentTick);
+            due = dueQueue.peek();
+        }
+
+        // the aircraft at the front of each landing queue waits until a suitable gate is free,
+        // and the first of them in landing order that can park lands; queues with no free gate
+        // are passed over, so waiting is not counted as a failed allocation every tick
+        int waiting = 0;
+        for (AircraftType type : AircraftType.values()) {
+            NavigableSet<Entry> landingQueue = landingQueues.get(type.ordinal());
+            if (!landingQueue.isEmpty() && tower.hasUnoccupiedGate(type)) {
+                landingHeads[waiting++] = landingQueue.first();
+            }
+        }
+        Arrays.sort(landingHeads, 0, waiting, RUNWAY_ORDER);
+        for (int i = 0; i < waiting; i++) {
+            Entry landing = landingHeads[i];
+            if (tower.parkAtUnoccupiedGate(landing.aircraft)) {
+                landingQueueOf(landing.aircraft).pollFirst();
+                runwayEntries.remove(landing.aircraft);
+                moveToNextTask(landing.aircraft, currentTick);
+                break;
+            }
+        }
+        Arrays.fill(landingHeads, null);
+
+        Entry takeoff = takeoffQueue.pollFirst();
+        if (takeoff != null) {
+            runwayEntries.remove(takeoff.aircraft);
+            moveToNextTask(takeoff.aircraft, currentTick);
+        }
+    }
+
+    /**
+     * Moves the given aircraft on to its next task, releasing its gate if it is about to take off,
+     * and places it according to its new task.
+     *
+     * @param aircraft    aircraft to move on
+     * @param currentTick number of the current tick
+     */
+    private void moveToNextTask(Aircraft aircraft, long currentTick) {
+        TaskList tasks = aircraft.getTaskList();
+        tasks.moveToNextTask();
+        tower.taskMoved(aircraft);
+
+        if (tasks.getCurrentTask().getType() == TaskType.TAKEOFF) {
+            Gate gate = tower.findGateOfAircraft(aircraft);
+            if (gate != null) {
+                gate.aircraftLeaves();
+            }
+        }
+        enroll(aircraft, currentTick);
+    }
+
+    /**
+     * Returns the first tick after the given tick at which this lifecycle will change the task of
+     * an aircraft, assuming no aircraft or gates are changed from outside in the meantime.
+     *
+     * @param currentTick number of the current tick
+     * @return next tick at which a task changes; or Long.MAX_VALUE if none is pending
+     */
+    long nextEventTick(long currentTick) {
+        if (!takeoffQueue.isEmpty()) {
+            return currentTick + 1;
+        }
+        // an aircraft waiting to land can only land once a gate is free for it
+        for (NavigableSet<Entry> landingQueue : landingQueues) {
+            if (!landingQueue.isEmpty()
+                    && tower.tryFindUnoccupiedGate(landingQueue.first().aircraft) != null) {
+                return currentTick + 1;
+            }
+        }
+        Entry due = dueQueue.peek();
+        if (due != null) {
+            return Math.max(due.dueTick, currentTick + 1);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the landing queue for aircraft of the same type as the given aircraft.
+     *
+     * @param aircraft aircraft waiting to land
+     * @return landing queue for the aircraft's type
+     */
+    private NavigableSet<Entry> landingQueueOf(Aircraft aircraft) {
+        return landingQueues.get(aircraft.getCharacteristics().type.ordinal());
+    }
+
+    /**
+     * Returns the number of aircraft waiting to land, of every aircraft type.
+     *
+     * @return total length of the landing queues
+     */
+    int getLandingQueueLength() {
+        int length = 0;
+        for (NavigableSet<Entry> landingQueue : landingQueues) {
+            length += landingQueue.size();
+        }
+        return length;
+    }
+
+    /**
+     * Returns the number of aircraft waiting to take off.
+     *
+     * @return length of the takeoff queue
+     */
+    int getTakeoffQueueLength() {
+        return takeoffQueue.size();
+    }
+
+    /**
+     * An aircraft's place in one of the lifecycle queues. The keys used to order the queues are
+     * captured when the entry is created, so they do not change while the entry is queued.
+     */
+    private static class Entry {
+
+        /** The aircraft this entry is for. */
+        private final Aircraft aircraft;
+
+        /** Whether the aircraft was in emergency when queued. */
+        private final boolean emergency;
+
+        /** Ratio of fuel remaining to fuel capacity when queued. */
+        private final double fuelRatio;
+
+        /** Order in which this entry was created. */
+        private final long sequence;
+
+        /** Tick at which the aircraft is due to move on, if it is in the due queue. */
+        private long dueTick;
+
+        /**
+         * Creates a new Entry for the given aircraft.
+         *
+         * @param aircraft aircraft to queue
+         * @param sequence order in which this entry was created
+         */
+        Entry(Aircraft aircraft, long sequence) {
+            this.aircraft = aircraft;
+            this.emergency = aircraft.hasEmergency();
+            this.fuelRatio = aircraft.getFuelAmount() / aircraft.getCharacteristics().fuelCapacity;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+
+/**
+ * A change to a control tower, published to the subscribers of its event stream in a batch with
+ * every other change made during the same tick.
+ */
+public class TowerEvent {
+
+    /**
+     * Kinds of change a TowerEvent can describe.
+     */
+    public enum Kind {
+        /** An aircraft parked at a gate. */
+        AIRCRAFT_PARKED,
+
+        /** An aircraft left a gate. */
+        AIRCRAFT_LEFT,
+
+        /** An aircraft moved on to the next task in its task list. */
+        TASK_MOVED,
+
+        /** The fuel of an aircraft fell below the low fuel threshold. */
+        FUEL_LOW,
+
+        /** The fuel of an aircraft rose back to or above the low fuel threshold. */
+        FUEL_RESTORED,
+
+        /** An aircraft or terminal entered a state of emergency. */
+        EMERGENCY_DECLARED,
+
+        /** An aircraft or terminal left a state of emergency. */
+        EMERGENCY_CLEARED,
+
+        /** The occupancy level of a terminal changed. */
+        OCCUPANCY_CHANGED
+    }
+
+    /** The event's kind of change. */
+    private final Kind kind;
+
+    /** The number of the tick the change was published at the end of. */
+    private final long tick;
+
+    /** The aircraft that changed, or null if the change was to a terminal. */
+    private final Aircraft aircraft;
+
+    /** The terminal that changed or holds the gate that changed, or null. */
+    private final Terminal terminal;
+
+    /** The gate the change was made at, or null. */
+    private final Gate gate;
+
+    /** The new fuel percentage or occupancy level, or 0 if the kind has no value. */
+    private final int value;
+
+    /**
+     * Creates a new TowerEvent describing the given change.
+     *
+     * @param kind     kind of change
+     * @param tick     number of the tick the change is published at the end of
+     * @param aircraft aircraft that changed, or null
+     * @param terminal terminal that changed or holds the gate that changed, or null
+     * @param gate     gate the change was made at, or null
+     * @param value    new fuel percentage or occupancy level, or 0
+     */
+    TowerEvent(Kind kind, long tick, Aircraft aircraft, Terminal terminal, Gate gate, int value) {
+        this.kind = kind;
+        this.tick = tick;
+        this.aircraft = aircraft;
+        this.terminal = terminal;
+        this.gate = gate;
+        this.value = value;
+    }
+
+    /**
+     * Returns the kind of change this event describes.
+     *
+     * @return kind of change
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the number of the tick this event was published at the end of. Changes made
+     * between two ticks are published with the later tick.
+     *
+     * @return tick number
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the aircraft that parked, left, moved on, crossed the fuel threshold, or entered or
+     * left an emergency.
+     *
+     * @return aircraft that changed; or null if the change was to a terminal
+     */
+    public Aircraft getAircraft() {
+        return aircraft;
+    }
+
+    /**
+     * Returns the terminal whose occupancy changed or which entered or left an emergency, or the
+     * terminal of the gate an aircraft parked at or left.
+     *
+     * @return terminal that changed; or null if no terminal was involved
+     */
+    public Terminal getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Returns the gate an aircraft parked at or left.
+     *
+     * @return gate of the change; or null if no gate was involved
+     */
+    public Gate getGate() {
+        return gate;
+    }
+
+    /**
+     * Returns the fuel percentage remaining of the aircraft for FUEL_LOW and FUEL_RESTORED events,
+     * or the occupancy level of the terminal for OCCUPANCY_CHANGED events.
+     *
+     * @return new value; or 0 for other kinds of event
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the human-readable string representation of this event.
+     *
+     * @return string representation of this event
+     */
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        description.append("tick ").append(tick).append(' ').append(kind);
+        if (aircraft != null) {
+            description.append(' ').append(aircraft.getCallsign());
+        }
+        if (terminal != null) {
+            description.append(" terminal ").append(terminal.getTerminalNumber());
+        }
+        if (gate != null) {
+            description.append(" gate ").append(gate.getGateNumber());
+        }
+        if (kind == Kind.FUEL_LOW || kind == Kind.FUEL_RESTORED
+                || kind == Kind.OCCUPANCY_CHANGED) {
+            description.append(' ').append(value).append('%');
+        }
+        return description.toString();
+    }
+}
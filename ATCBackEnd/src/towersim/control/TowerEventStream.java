@@ -0,0 +1,276 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Gate;
+import towersim.ground.GateListener;
+import towersim.ground.Terminal;
+import towersim.util.EmergencyState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Collects the changes made to a control tower during each tick and publishes them to
+ * subscribers as a single batch at the end of the tick. Gate changes are heard as a listener on
+ * every terminal; the other changes are passed on by the control tower.
+ * <p>
+ * Nothing is collected while there are no subscribers, so every hook returns after a single
+ * check. Fuel only changes when an aircraft is ticked, so crossings of the low fuel threshold are
+ * found by comparing the fuel of each ticked aircraft before and after its tick. Aircraft that
+ * are not ticked cost nothing, so event-driven ticks stay proportional to the active aircraft.
+ * <p>
+ * Batches are published through a SubmissionPublisher, which gives each subscriber its own
+ * buffer. Once a subscriber's buffer is full, the end of the next tick waits until the
+ * subscriber has requested more, so slow subscribers hold back the simulation rather than
+ * missing changes.
+ */
+class TowerEventStream implements GateListener {
+
+    /** Publishes each batch of events to every subscriber. */
+    private final SubmissionPublisher<List<TowerEvent>> publisher;
+
+    /** Fuel percentage remaining below which an aircraft is low on fuel. */
+    private final int lowFuelPercent;
+
+    /** Gate changes made since the last batch, which may be made by several threads at once. */
+    private final List<TowerEvent> gateEvents;
+
+    /** Other changes made since the last batch, made by the thread that owns the tower. */
+    private final List<TowerEvent> events;
+
+    /** Terminals with a gate change since the last batch, in the order they changed. */
+    private final Set<Terminal> changedTerminals;
+
+    /** Occupancy level of each terminal as last published, by terminal identity. */
+    private final Map<Terminal, Integer> occupancyLevels;
+
+    /** Fuel percentage of each aircraft before a tick of every aircraft, in list order. */
+    private int[] fuelPercentsBefore;
+
+    /** Number of the tick the next batch is published at the end of. */
+    private volatile long nextTick;
+
+    /**
+     * Creates a new TowerEventStream publishing batches on tasks run by the given executor.
+     *
+     * @param executor       runs the tasks delivering batches to subscribers
+     * @param bufferCapacity maximum number of batches buffered for each subscriber
+     * @param lowFuelPercent fuel percentage remaining below which an aircraft is low on fuel
+     * @param nextTick       number of the tick the first batch is published at the end of
+     * @throws IllegalArgumentException if bufferCapacity is not positive
+     */
+    TowerEventStream(Executor executor, int bufferCapacity, int lowFuelPercent, long nextTick) {
+        this.publisher = new SubmissionPublisher<List<TowerEvent>>(executor, bufferCapacity);
+        this.lowFuelPercent = lowFuelPercent;
+        this.gateEvents = new ArrayList<TowerEvent>();
+        this.events = new ArrayList<TowerEvent>();
+        this.changedTerminals = new LinkedHashSet<Terminal>();
+        this.occupancyLevels = new IdentityHashMap<Terminal, Integer>();
+        this.fuelPercentsBefore = new int[0];
+        this.nextTick = nextTick;
+    }
+
+    /**
+     * Returns the publisher of the batches of events.
+     *
+     * @return publisher of this stream
+     */
+    SubmissionPublisher<List<TowerEvent>> getPublisher() {
+        return publisher;
+    }
+
+    /**
+     * Returns whether changes are being collected, which is only while there are subscribers.
+     *
+     * @return true if there are subscribers; false otherwise
+     */
+    boolean isActive() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * Starts tracking the occupancy level of the given terminal.
+     *
+     * @param terminal terminal added to the control tower
+     */
+    synchronized void terminalAdded(Terminal terminal) {
+        occupancyLevels.put(terminal, terminal.calculateOccupancyLevel());
+        terminal.addGateListener(this);
+    }
+
+    @Override
+    public synchronized void gateAdded(Terminal terminal, Gate gate) {
+        // adding a gate changes the occupancy level of a terminal
+        changedTerminals.add(terminal);
+    }
+
+    @Override
+    public void aircraftParked(Gate gate, Aircraft aircraft) {
+        gateChanged(TowerEvent.Kind.AIRCRAFT_PARKED, gate, aircraft);
+    }
+
+    @Override
+    public void aircraftLeft(Gate gate, Aircraft aircraft) {
+        gateChanged(TowerEvent.Kind.AIRCRAFT_LEFT, gate, aircraft);
+    }
+
+    /**
+     * Records that an aircraft parked at or left the given gate.
+     *
+     * @param kind     AIRCRAFT_PARKED or AIRCRAFT_LEFT
+     * @param gate     gate that changed
+     * @param aircraft aircraft that parked or left
+     */
+    private void gateChanged(TowerEvent.Kind kind, Gate gate, Aircraft aircraft) {
+        if (!isActive()) {
+            return;
+        }
+        synchronized (this) {
+            gateEvents.add(new TowerEvent(kind, nextTick, aircraft, gate.getTerminal(), gate,
+                    0));
+            changedTerminals.add(gate.getTerminal());
+        }
+    }
+
+    /**
+     * Records that the given aircraft moved on to its next task.
+     *
+     * @param aircraft aircraft that moved on
+     */
+    void taskMoved(Aircraft aircraft) {
+        if (isActive()) {
+            events.add(new TowerEvent(TowerEvent.Kind.TASK_MOVED, nextTick, aircraft, null,
+                    null, 0));
+        }
+    }
+
+    /**
+     * Records that an aircraft or terminal entered or left a state of emergency.
+     *
+     * @param source    aircraft or terminal whose emergency state changed
+     * @param emergency true if an emergency was declared; false if it was cleared
+     */
+    void emergencyChanged(EmergencyState source, boolean emergency) {
+        if (!isActive()) {
+            return;
+        }
+        TowerEvent.Kind kind = emergency
+                ? TowerEvent.Kind.EMERGENCY_DECLARED : TowerEvent.Kind.EMERGENCY_CLEARED;
+        if (source instanceof Aircraft) {
+            events.add(new TowerEvent(kind, nextTick, (Aircraft) source, null, null, 0));
+        } else if (source instanceof Terminal) {
+            events.add(new TowerEvent(kind, nextTick, null, (Terminal) source, null, 0));
+        }
+    }
+
+    /**
+     * Records that the given aircraft has been ticked, adding an event if its fuel crossed the
+     * low fuel threshold during the tick.
+     *
+     * @param aircraft          aircraft that was ticked
+     * @param fuelPercentBefore fuel percentage remaining of the aircraft before the tick
+     */
+    void aircraftTicked(Aircraft aircraft, int fuelPercentBefore) {
+        int fuelPercent = aircraft.getFuelPercentRemaining();
+        boolean low = fuelPercent < lowFuelPercent;
+        if (low != fuelPercentBefore < lowFuelPercent) {
+            TowerEvent.Kind kind = low ? TowerEvent.Kind.FUEL_LOW : TowerEvent.Kind.FUEL_RESTORED;
+            events.add(new TowerEvent(kind, nextTick, aircraft, null, null, fuelPercent));
+        }
+    }
+
+    /**
+     * Records the fuel of every given aircraft before they are all ticked together, such as on
+     * parallel ticks, where aircraft cannot be reported one at a time.
+     *
+     * @param aircraft every aircraft about to be ticked
+     */
+    void recordFuel(List<Aircraft> aircraft) {
+        if (fuelPercentsBefore.length < aircraft.size()) {
+            fuelPercentsBefore = Arrays.copyOf(fuelPercentsBefore,
+                    Math.max(aircraft.size(), 2 * fuelPercentsBefore.length));
+        }
+        for (int i = 0; i < aircraft.size(); i++) {
+            fuelPercentsBefore[i] = aircraft.get(i).getFuelPercentRemaining();
+        }
+    }
+
+    /**
+     * Adds an event for each of the given aircraft whose fuel crossed the low fuel threshold
+     * since recordFuel(List) was called with the same aircraft.
+     *
+     * @param aircraft every aircraft that has been ticked
+     */
+    void findFuelCrossings(List<Aircraft> aircraft) {
+        for (int i = 0; i < aircraft.size(); i++) {
+            aircraftTicked(aircraft.get(i), fuelPercentsBefore[i]);
+        }
+    }
+
+    /**
+     * Records that the control tower skipped ahead to the given tick without visiting any
+     * aircraft. Changes made before the skip are published for the first skipped tick, as they
+     * would have been had that tick been simulated, and changes made afterwards belong to the
+     * tick after the given tick.
+     *
+     * @param tick number of the last tick skipped
+     */
+    void ticksSkipped(long tick) {
+        tickEnded(nextTick);
+        nextTick = tick + 1;
+    }
+
+    /**
+     * Publishes every change made since the last batch as a single batch for the given tick,
+     * after finding the terminals whose occupancy level changed. Nothing is published if nothing
+     * changed.
+     *
+     * @param tick number of the tick that has just ended
+     */
+    void tickEnded(long tick) {
+        nextTick = tick + 1;
+        if (!isActive()) {
+            synchronized (this) {
+                gateEvents.clear();
+                changedTerminals.clear();
+            }
+            events.clear();
+            return;
+        }
+        List<TowerEvent> batch = new ArrayList<TowerEvent>();
+        synchronized (this) {
+            batch.addAll(gateEvents);
+            gateEvents.clear();
+            for (Terminal terminal : changedTerminals) {
+                int level = terminal.calculateOccupancyLevel();
+                Integer lastLevel = occupancyLevels.put(terminal, level);
+                if (lastLevel == null || lastLevel != level) {
+                    batch.add(new TowerEvent(TowerEvent.Kind.OCCUPANCY_CHANGED, tick, null,
+                            terminal, null, level));
+                }
+            }
+            changedTerminals.clear();
+        }
+        batch.addAll(events);
+        events.clear();
+
+        if (!batch.isEmpty()) {
+            publisher.submit(Collections.unmodifiableList(batch));
+        }
+    }
+
+    /**
+     * Stops publishing, completing every subscription.
+     */
+    void close() {
+        publisher.close();
+    }
+}
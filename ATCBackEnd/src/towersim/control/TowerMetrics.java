@@ -0,0 +1,290 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftType;
+import towersim.ground.Terminal;
+import towersim.util.EmergencyState;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a control tower, recorded as it ticks and admits aircraft, and exposed through JMX.
+ * Every counter is striped, so recording costs an uncontended increment on whichever thread
+ * does the work, and reading the metrics never blocks the tower.
+ * <p>
+ * Metrics are created by ControlTower.enableMetrics(), and can then be registered with an
+ * MBeanServer using register(MBeanServer, String).
+ */
+public class TowerMetrics implements TowerMetricsMXBean {
+
+    /** All aircraft types, indexed by ordinal. */
+    private static final AircraftType[] TYPES = AircraftType.values();
+
+    /** Durations of ticks, in nanoseconds. */
+    private final Log2Histogram tickDurations;
+
+    /** Durations of searches for an unoccupied gate, in nanoseconds. */
+    private final Log2Histogram gateSearches;
+
+    /** Number of times an aircraft has been ticked. */
+    private final LongAdder aircraftTicked;
+
+    /** Gate allocation attempts for each aircraft type, indexed by ordinal. */
+    private final LongAdder[] allocationAttempts;
+
+    /** Successful gate allocations for each aircraft type, indexed by ordinal. */
+    private final LongAdder[] allocationSuccesses;
+
+    /** Number of aircraft in a state of emergency. */
+    private final LongAdder aircraftEmergencies;
+
+    /** Number of terminals in a state of emergency. */
+    private final LongAdder terminalEmergencies;
+
+    /** Terminals of the control tower, copied on write so they can be read from any thread. */
+    private final List<Terminal> terminals;
+
+    /**
+     * Creates a new TowerMetrics with nothing recorded.
+     */
+    TowerMetrics() {
+        this.tickDurations = new Log2Histogram();
+        this.gateSearches = new Log2Histogram();
+        this.aircraftTicked = new LongAdder();
+        this.allocationAttempts = newAdders(TYPES.length);
+        this.allocationSuccesses = newAdders(TYPES.length);
+        this.aircraftEmergencies = new LongAdder();
+        this.terminalEmergencies = new LongAdder();
+        this.terminals = new CopyOnWriteArrayList<Terminal>();
+    }
+
+    /**
+     * Returns the given number of new counters.
+     *
+     * @param count number of counters
+     * @return counters starting at zero
+     */
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Registers these metrics with the given MBeanServer, under the name
+     * towersim:type=ControlTower,name=towerName.
+     *
+     * @param server    server to register with, such as the platform MBeanServer
+     * @param towerName name identifying the control tower
+     * @return name the metrics were registered under
+     * @throws JMException if the metrics could not be registered, for example because the name
+     * is already in use
+     */
+    public ObjectName register(MBeanServer server, String towerName) throws JMException {
+        ObjectName name = new ObjectName("towersim:type=ControlTower,name="
+                + ObjectName.quote(towerName));
+        return server.registerMBean(this, name).getObjectName();
+    }
+
+    /**
+     * Records a tick that took the given time and ticked the given number of aircraft.
+     *
+     * @param nanos          duration of the tick, in nanoseconds
+     * @param aircraftInTick  number of aircraft ticked
+     */
+    void tickCompleted(long nanos, int aircraftInTick) {
+        tickDurations.record(nanos);
+        aircraftTicked.add(aircraftInTick);
+    }
+
+    /**
+     * Records a search for an unoccupied gate that took the given time.
+     *
+     * @param nanos duration of the search, in nanoseconds
+     */
+    void gateSearched(long nanos) {
+        gateSearches.record(nanos);
+    }
+
+    /**
+     * Records an attempt to park an aircraft of the given type at an unoccupied gate.
+     *
+     * @param type   type of the aircraft
+     * @param parked true if the aircraft was parked; false if no gate could be found
+     */
+    void gateAllocated(AircraftType type, boolean parked) {
+        allocationAttempts[type.ordinal()].increment();
+        if (parked) {
+            allocationSuccesses[type.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Starts tracking the given terminal, which may already be in emergency.
+     *
+     * @param terminal terminal added to the control tower
+     */
+    void terminalAdded(Terminal terminal) {
+        terminals.add(terminal);
+        if (terminal.hasEmergency()) {
+            terminalEmergencies.increment();
+        }
+    }
+
+    /**
+     * Starts tracking the given aircraft, which may already be in emergency.
+     *
+     * @param aircraft aircraft added to the control tower
+     */
+    void aircraftAdded(Aircraft aircraft) {
+        if (aircraft.hasEmergency()) {
+            aircraftEmergencies.increment();
+        }
+    }
+
+    /**
+     * Stops tracking the given aircraft, which may still be in emergency.
+     *
+     * @param aircraft aircraft removed from the control tower
+     */
+    void aircraftRemoved(Aircraft aircraft) {
+        if (aircraft.hasEmergency()) {
+            aircraftEmergencies.decrement();
+        }
+    }
+
+    /**
+     * Records a change in the emergency state of an aircraft or terminal.
+     *
+     * @param source    aircraft or terminal whose emergency state changed
+     * @param emergency true if an emergency was declared; false if it was cleared
+     */
+    void emergencyChanged(EmergencyState source, boolean emergency) {
+        LongAdder counter = source instanceof Terminal ? terminalEmergencies : aircraftEmergencies;
+        counter.add(emergency ? 1 : -1);
+    }
+
+    /**
+     * Returns the sum of each of the given counters, keyed by aircraft type.
+     *
+     * @param counters counters indexed by aircraft type ordinal
+     * @return sums keyed by aircraft type name
+     */
+    private static Map<String, Long> byType(LongAdder[] counters) {
+        Map<String, Long> sums = new LinkedHashMap<String, Long>();
+        for (AircraftType type : TYPES) {
+            sums.put(type.name(), counters[type.ordinal()].sum());
+        }
+        return sums;
+    }
+
+    @Override
+    public long getTicks() {
+        return tickDurations.getCount();
+    }
+
+    @Override
+    public long getAircraftTicked() {
+        return aircraftTicked.sum();
+    }
+
+    @Override
+    public double getAircraftTickedPerSecond() {
+        long tickNanos = tickDurations.getSum();
+        if (tickNanos == 0) {
+            return 0;
+        }
+        return aircraftTicked.sum() * (double) TimeUnit.SECONDS.toNanos(1) / tickNanos;
+    }
+
+    @Override
+    public long[] getTickDurationHistogram() {
+        return tickDurations.getCounts();
+    }
+
+    @Override
+    public double getTickDurationMeanNanos() {
+        return tickDurations.getMean();
+    }
+
+    @Override
+    public long getTickDurationP50Nanos() {
+        return tickDurations.getPercentile(50);
+    }
+
+    @Override
+    public long getTickDurationP99Nanos() {
+        return tickDurations.getPercentile(99);
+    }
+
+    @Override
+    public long[] getGateSearchHistogram() {
+        return gateSearches.getCounts();
+    }
+
+    @Override
+    public long getGateSearchP50Nanos() {
+        return gateSearches.getPercentile(50);
+    }
+
+    @Override
+    public long getGateSearchP99Nanos() {
+        return gateSearches.getPercentile(99);
+    }
+
+    @Override
+    public Map<String, Long> getGateAllocationAttempts() {
+        return byType(allocationAttempts);
+    }
+
+    @Override
+    public Map<String, Long> getGateAllocationSuccesses() {
+        return byType(allocationSuccesses);
+    }
+
+    @Override
+    public Map<String, Long> getGateAllocationFailures() {
+        Map<String, Long> failures = new LinkedHashMap<String, Long>();
+        for (AircraftType type : TYPES) {
+            // successes are read first, so a concurrent attempt can never make failures negative
+            long successes = allocationSuccesses[type.ordinal()].sum();
+            failures.put(type.name(), allocationAttempts[type.ordinal()].sum() - successes);
+        }
+        return failures;
+    }
+
+    @Override
+    public Map<String, Integer> getTerminalOccupancyLevels() {
+        Map<String, Integer> levels = new LinkedHashMap<String, Integer>();
+        for (Terminal terminal : terminals) {
+            levels.put(terminal.getClass().getSimpleName() + " " + terminal.getTerminalNumber(),
+                    terminal.calculateOccupancyLevel());
+        }
+        return levels;
+    }
+
+    @Override
+    public long getAircraftEmergencies() {
+        return aircraftEmergencies.sum();
+    }
+
+    @Override
+    public long getTerminalEmergencies() {
+        return terminalEmergencies.sum();
+    }
+
+    @Override
+    public long getActiveEmergencies() {
+        return getAircraftEmergencies() + getTerminalEmergencies();
+    }
+}
@@ -0,0 +1,130 @@
+package towersim.control;
+
+import java.util.Map;
+
+/**
+ * Management interface of the metrics of a control tower, as seen through JMX. Durations are in
+ * nanoseconds, and histograms count values in buckets bounded by powers of two: bucket 0 counts
+ * zero, and bucket i counts values from 2^(i-1) to 2^i - 1.
+ */
+public interface TowerMetricsMXBean {
+
+    /**
+     * Returns the number of ticks simulated since metrics were enabled.
+     *
+     * @return number of ticks
+     */
+    long getTicks();
+
+    /**
+     * Returns the number of times an aircraft has been ticked since metrics were enabled.
+     *
+     * @return number of aircraft ticks
+     */
+    long getAircraftTicked();
+
+    /**
+     * Returns the number of aircraft ticked for each second spent simulating ticks.
+     *
+     * @return aircraft ticked per second of tick time; or 0 if no ticks have been simulated
+     */
+    double getAircraftTickedPerSecond();
+
+    /**
+     * Returns the number of ticks that took each range of durations.
+     *
+     * @return tick count of each bucket of durations
+     */
+    long[] getTickDurationHistogram();
+
+    /**
+     * Returns the mean duration of a tick.
+     *
+     * @return mean tick duration, in nanoseconds
+     */
+    double getTickDurationMeanNanos();
+
+    /**
+     * Returns an upper bound on the median duration of a tick.
+     *
+     * @return median tick duration, at most twice the true value, in nanoseconds
+     */
+    long getTickDurationP50Nanos();
+
+    /**
+     * Returns an upper bound on the 99th percentile duration of a tick.
+     *
+     * @return 99th percentile tick duration, at most twice the true value, in nanoseconds
+     */
+    long getTickDurationP99Nanos();
+
+    /**
+     * Returns the number of searches for an unoccupied gate that took each range of durations.
+     *
+     * @return search count of each bucket of durations
+     */
+    long[] getGateSearchHistogram();
+
+    /**
+     * Returns an upper bound on the median duration of a search for an unoccupied gate.
+     *
+     * @return median search duration, at most twice the true value, in nanoseconds
+     */
+    long getGateSearchP50Nanos();
+
+    /**
+     * Returns an upper bound on the 99th percentile duration of a search for an unoccupied gate.
+     *
+     * @return 99th percentile search duration, at most twice the true value, in nanoseconds
+     */
+    long getGateSearchP99Nanos();
+
+    /**
+     * Returns the number of times a gate was sought to park an aircraft, for each aircraft type.
+     *
+     * @return gate allocation attempts, keyed by aircraft type
+     */
+    Map<String, Long> getGateAllocationAttempts();
+
+    /**
+     * Returns the number of times an aircraft was parked at a gate, for each aircraft type.
+     *
+     * @return successful gate allocations, keyed by aircraft type
+     */
+    Map<String, Long> getGateAllocationSuccesses();
+
+    /**
+     * Returns the number of times no gate could be found for an aircraft, for each aircraft type.
+     *
+     * @return failed gate allocations, keyed by aircraft type
+     */
+    Map<String, Long> getGateAllocationFailures();
+
+    /**
+     * Returns the occupancy level of each terminal, as a percentage from 0 to 100.
+     *
+     * @return occupancy levels, keyed by terminal type and number, such as "AirplaneTerminal 1"
+     */
+    Map<String, Integer> getTerminalOccupancyLevels();
+
+    /**
+     * Returns the number of aircraft currently in a state of emergency.
+     *
+     * @return number of aircraft in emergency
+     */
+    long getAircraftEmergencies();
+
+    /**
+     * Returns the number of terminals currently in a state of emergency.
+     *
+     * @return number of terminals in emergency
+     */
+    long getTerminalEmergencies();
+
+    /**
+     * Returns the number of aircraft and terminals currently in a state of emergency.
+     *
+     * @return number of active emergencies
+     */
+    long getActiveEmergencies();
+}
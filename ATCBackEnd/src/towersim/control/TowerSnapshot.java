@@ -0,0 +1,558 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes binary snapshots of the full state of a control tower: its terminals and
+ * their gates, which aircraft are parked at each gate, and every aircraft with its fuel, cargo,
+ * emergency state and position in its task list. Task lists shared between aircraft are written
+ * once and are shared again when restored.
+ * <p>
+ * A snapshot starts with a header holding a magic number, the format version and whether the
+ * body is compressed. Compressed bodies are split into independently deflated blocks. Snapshots
+ * are written and read through memory-mapped files.
+ * <p>
+ * Only the state of the airport is captured. Modes such as the task lifecycle or event-driven
+ * ticks, and any scheduled timers, are not, and must be set up again on the restored tower.
+ */
+public class TowerSnapshot {
+
+    /** Number identifying a file as a control tower snapshot ("TWRS"). */
+    private static final int MAGIC = 0x54575253;
+
+    /** Version of the snapshot format written by this class. */
+    public static final int VERSION = 1;
+
+    /** Header flag set when the body is compressed. */
+    private static final int COMPRESSED = 1;
+
+    /** Length of the header, in bytes: magic, version, flags and body length. */
+    private static final int HEADER_LENGTH = 4 + 4 + 4 + 8;
+
+    /** Number of uncompressed body bytes in each compressed block. */
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    /** Kind written for passenger aircraft and airplane terminals. */
+    private static final byte PASSENGER_OR_AIRPLANE = 0;
+
+    /** Kind written for freight aircraft and helicopter terminals. */
+    private static final byte FREIGHT_OR_HELICOPTER = 1;
+
+    /** Number of bytes reserved for each aircraft when sizing the body buffer. */
+    private static final int BYTES_PER_AIRCRAFT = 32;
+
+    /** Length of an encoded aircraft, in bytes, not counting its callsign. */
+    static final int AIRCRAFT_LENGTH = 1 + 1 + 4 + 8 + 4 + 1 + 4;
+
+    /** Length of an encoded terminal, in bytes, not counting its gates. */
+    static final int TERMINAL_LENGTH = 1 + 4 + 1;
+
+    /** All possible aircraft models, indexed by ordinal. */
+    private static final AircraftCharacteristics[] MODELS = AircraftCharacteristics.values();
+
+    /** All possible task types, indexed by ordinal. */
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    /**
+     * TowerSnapshot only provides static methods and cannot be created.
+     */
+    private TowerSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the given control tower to the given file, replacing its contents.
+     *
+     * @param tower    control tower to save
+     * @param file     file to write to
+     * @param compress whether to compress the body of the snapshot
+     * @throws IOException if the file could not be written
+     * @throws IllegalArgumentException if the tower manages an aircraft or terminal whose class
+     * is not known to the snapshot format
+     */
+    public static void write(ControlTower tower, Path file, boolean compress) throws IOException {
+        ByteBuffer body = encode(tower);
+        body.flip();
+        long bodyLength = body.remaining();
+        if (compress) {
+            body = deflate(body);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_LENGTH + body.remaining());
+            mapped.putInt(MAGIC);
+            mapped.putInt(VERSION);
+            mapped.putInt(compress ? COMPRESSED : 0);
+            mapped.putLong(bodyLength);
+            mapped.put(body);
+            mapped.force();
+        }
+    }
+
+    /**
+     * Restores a control tower from the snapshot in the given file.
+     *
+     * @param file file to read from
+     * @return new control tower with the state saved in the snapshot
+     * @throws IOException if the file could not be read, is not a snapshot, was written in an
+     * unsupported version of the format, or is corrupt
+     */
+    public static ControlTower read(Path file) throws IOException {
+        ByteBuffer body;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            if (mapped.remaining() < HEADER_LENGTH || mapped.getInt() != MAGIC) {
+                throw new IOException("Not a control tower snapshot: " + file);
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int flags = mapped.getInt();
+            long bodyLength = mapped.getLong();
+            if (bodyLength < 0 || bodyLength > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot body length " + bodyLength);
+            }
+            body = (flags & COMPRESSED) != 0 ? inflate(mapped, (int) bodyLength) : mapped;
+        }
+
+        try {
+            return decode(body);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException | NoSpaceException e) {
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Encodes the state of the given control tower into a new buffer.
+     *
+     * @param tower control tower to encode
+     * @return buffer holding the encoded body, positioned after its last byte
+     */
+    private static ByteBuffer encode(ControlTower tower) {
+        List<Aircraft> managed = tower.getAircraftView();
+        List<Terminal> terminals = tower.getTerminalsView();
+
+        List<Aircraft> aircraft = aircraftOf(tower);
+        Map<Aircraft, Integer> aircraftIndexes = new IdentityHashMap<Aircraft, Integer>();
+        for (Aircraft each : aircraft) {
+            aircraftIndexes.put(each, aircraftIndexes.size());
+        }
+
+        List<TaskList> taskLists = taskListsOf(aircraft);
+        Map<TaskList, Integer> taskListIndexes = new IdentityHashMap<TaskList, Integer>();
+        for (TaskList taskList : taskLists) {
+            taskListIndexes.put(taskList, taskListIndexes.size());
+        }
+
+        Encoder out = new Encoder(1024 + aircraft.size() * BYTES_PER_AIRCRAFT);
+        out.ensure(8 + 4);
+        out.buffer.putLong(tower.getTickCount());
+        out.buffer.putInt(taskLists.size());
+        for (TaskList taskList : taskLists) {
+            out.ensure(taskListLength(taskList));
+            writeTaskList(out.buffer, taskList);
+        }
+
+        out.ensure(8);
+        out.buffer.putInt(aircraft.size());
+        out.buffer.putInt(managed.size());
+        for (Aircraft each : aircraft) {
+            byte[] callsign = each.getCallsign().getBytes(StandardCharsets.UTF_8);
+            out.ensure(AIRCRAFT_LENGTH + callsign.length);
+            writeAircraft(out.buffer, each, callsign, taskListIndexes.get(each.getTaskList()));
+        }
+
+        out.ensure(4);
+        out.buffer.putInt(terminals.size());
+        for (Terminal terminal : terminals) {
+            List<Gate> gates = terminal.getGatesView();
+            out.ensure(TERMINAL_LENGTH + 4 + gates.size() * 8);
+            writeTerminal(out.buffer, terminal);
+            out.buffer.putInt(gates.size());
+            for (Gate gate : gates) {
+                Aircraft occupant = gate.getAircraftAtGate();
+                out.buffer.putInt(gate.getGateNumber());
+                out.buffer.putInt(occupant == null ? -1 : aircraftIndexes.get(occupant));
+            }
+        }
+        return out.buffer;
+    }
+
+    /**
+     * Returns the number of bytes taken to encode the given task list.
+     *
+     * @param taskList task list to encode
+     * @return length of the encoded task list, in bytes
+     */
+    static int taskListLength(TaskList taskList) {
+        return 8 + taskList.getTasks().size() * 5;
+    }
+
+    /**
+     * Encodes the tasks of the given task list and its position in them.
+     *
+     * @param out      buffer to write to, with at least taskListLength(taskList) bytes remaining
+     * @param taskList task list to encode
+     */
+    static void writeTaskList(ByteBuffer out, TaskList taskList) {
+        List<Task> tasks = taskList.getTasks();
+        out.putInt(tasks.size());
+        out.putInt(taskList.getCurrentTaskPosition());
+        for (Task task : tasks) {
+            out.put((byte) task.getType().ordinal());
+            out.putInt(task.getLoadPercent());
+        }
+    }
+
+    /**
+     * Decodes a task list written by writeTaskList(ByteBuffer, TaskList).
+     *
+     * @param in buffer positioned at the start of the encoded task list
+     * @return new task list
+     */
+    static TaskList readTaskList(ByteBuffer in) {
+        int numTasks = in.getInt();
+        int currentTaskPosition = in.getInt();
+        List<Task> tasks = new ArrayList<Task>(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            TaskType type = TASK_TYPES[in.get()];
+            tasks.add(new Task(type, in.getInt()));
+        }
+        return new TaskList(tasks, currentTaskPosition);
+    }
+
+    /**
+     * Encodes the kind, model, callsign, fuel, cargo and emergency state of the given aircraft,
+     * along with the index of its task list.
+     *
+     * @param out           buffer to write to, with at least AIRCRAFT_LENGTH plus the length of
+     *                      the callsign remaining
+     * @param aircraft      aircraft to encode
+     * @param callsign      callsign of the aircraft, encoded in UTF-8
+     * @param taskListIndex index of the task list of the aircraft
+     * @throws IllegalArgumentException if the class of the aircraft is not known to the format
+     */
+    static void writeAircraft(ByteBuffer out, Aircraft aircraft, byte[] callsign,
+                              int taskListIndex) {
+        int payload;
+        if (aircraft instanceof PassengerAircraft) {
+            out.put(PASSENGER_OR_AIRPLANE);
+            payload = ((PassengerAircraft) aircraft).getNumPassengers();
+        } else if (aircraft instanceof FreightAircraft) {
+            out.put(FREIGHT_OR_HELICOPTER);
+            payload = ((FreightAircraft) aircraft).getFreightAmount();
+        } else {
+            throw new IllegalArgumentException();
+        }
+        out.put((byte) aircraft.getCharacteristics().ordinal());
+        out.putInt(callsign.length);
+        out.put(callsign);
+        out.putDouble(aircraft.getFuelAmount());
+        out.putInt(payload);
+        out.put((byte) (aircraft.hasEmergency() ? 1 : 0));
+        out.putInt(taskListIndex);
+    }
+
+    /**
+     * Decodes an aircraft written by writeAircraft(ByteBuffer, Aircraft, byte[], int).
+     *
+     * @param in        buffer positioned at the start of the encoded aircraft
+     * @param taskLists decoded task lists, by index
+     * @return new aircraft
+     * @throws IllegalArgumentException if the encoded aircraft is not valid
+     */
+    static Aircraft readAircraft(ByteBuffer in, List<TaskList> taskLists) {
+        byte kind = in.get();
+        AircraftCharacteristics model = MODELS[in.get()];
+        byte[] callsign = new byte[in.getInt()];
+        in.get(callsign);
+        double fuelAmount = in.getDouble();
+        int payload = in.getInt();
+        boolean emergency = in.get() != 0;
+        TaskList tasks = taskLists.get(in.getInt());
+
+        String name = new String(callsign, StandardCharsets.UTF_8);
+        Aircraft aircraft;
+        if (kind == PASSENGER_OR_AIRPLANE) {
+            aircraft = new PassengerAircraft(name, model, tasks, fuelAmount, payload);
+        } else if (kind == FREIGHT_OR_HELICOPTER) {
+            aircraft = new FreightAircraft(name, model, tasks, fuelAmount, payload);
+        } else {
+            throw new IllegalArgumentException();
+        }
+        if (emergency) {
+            aircraft.declareEmergency();
+        }
+        return aircraft;
+    }
+
+    /**
+     * Encodes the kind, number and emergency state of the given terminal, without its gates.
+     *
+     * @param out      buffer to write to, with at least TERMINAL_LENGTH bytes remaining
+     * @param terminal terminal to encode
+     * @throws IllegalArgumentException if the class of the terminal is not known to the format
+     */
+    static void writeTerminal(ByteBuffer out, Terminal terminal) {
+        if (terminal instanceof AirplaneTerminal) {
+            out.put(PASSENGER_OR_AIRPLANE);
+        } else if (terminal instanceof HelicopterTerminal) {
+            out.put(FREIGHT_OR_HELICOPTER);
+        } else {
+            throw new IllegalArgumentException();
+        }
+        out.putInt(terminal.getTerminalNumber());
+        out.put((byte) (terminal.hasEmergency() ? 1 : 0));
+    }
+
+    /**
+     * Decodes a terminal written by writeTerminal(ByteBuffer, Terminal).
+     *
+     * @param in buffer positioned at the start of the encoded terminal
+     * @return new terminal, without any gates
+     * @throws IllegalArgumentException if the encoded terminal is not valid
+     */
+    static Terminal readTerminal(ByteBuffer in) {
+        byte kind = in.get();
+        int terminalNumber = in.getInt();
+        Terminal terminal;
+        if (kind == PASSENGER_OR_AIRPLANE) {
+            terminal = new AirplaneTerminal(terminalNumber);
+        } else if (kind == FREIGHT_OR_HELICOPTER) {
+            terminal = new HelicopterTerminal(terminalNumber);
+        } else {
+            throw new IllegalArgumentException();
+        }
+        if (in.get() != 0) {
+            terminal.declareEmergency();
+        }
+        return terminal;
+    }
+
+    /**
+     * Returns every aircraft saved in a snapshot of the given control tower, in the order they
+     * are saved: the aircraft managed by the tower, followed by any aircraft parked at one of its
+     * gates without being managed by it, in the order of the terminals and gates.
+     *
+     * @param tower control tower to list the aircraft of
+     * @return aircraft saved in a snapshot of the tower
+     */
+    static List<Aircraft> aircraftOf(ControlTower tower) {
+        List<Aircraft> managed = tower.getAircraftView();
+        List<Aircraft> aircraft = new ArrayList<Aircraft>(managed);
+        Set<Aircraft> seen = Collections.newSetFromMap(new IdentityHashMap<Aircraft, Boolean>());
+        seen.addAll(managed);
+        for (Terminal terminal : tower.getTerminalsView()) {
+            for (Gate gate : terminal.getGatesView()) {
+                Aircraft occupant = gate.getAircraftAtGate();
+                if (occupant != null && seen.add(occupant)) {
+                    aircraft.add(occupant);
+                }
+            }
+        }
+        return aircraft;
+    }
+
+    /**
+     * Returns the distinct task lists of the given aircraft, in the order they are first used.
+     * Task lists are compared by identity.
+     *
+     * @param aircraft aircraft to list the task lists of
+     * @return task lists of the aircraft
+     */
+    static List<TaskList> taskListsOf(List<Aircraft> aircraft) {
+        List<TaskList> taskLists = new ArrayList<TaskList>();
+        Set<TaskList> seen = Collections.newSetFromMap(new IdentityHashMap<TaskList, Boolean>());
+        for (Aircraft each : aircraft) {
+            if (seen.add(each.getTaskList())) {
+                taskLists.add(each.getTaskList());
+            }
+        }
+        return taskLists;
+    }
+
+    /**
+     * Rebuilds a control tower from the given encoded body.
+     *
+     * @param in buffer positioned at the start of the encoded body
+     * @return restored control tower
+     * @throws NoSpaceException if a terminal in the snapshot has too many gates
+     */
+    private static ControlTower decode(ByteBuffer in) throws NoSpaceException {
+        long tickCount = in.getLong();
+
+        int numTaskLists = in.getInt();
+        List<TaskList> taskLists = new ArrayList<TaskList>(numTaskLists);
+        for (int i = 0; i < numTaskLists; i++) {
+            taskLists.add(readTaskList(in));
+        }
+
+        Aircraft[] aircraft = new Aircraft[in.getInt()];
+        int numManaged = in.getInt();
+        for (int i = 0; i < aircraft.length; i++) {
+            aircraft[i] = readAircraft(in, taskLists);
+        }
+
+        ControlTower tower = new ControlTower();
+        int numTerminals = in.getInt();
+        for (int i = 0; i < numTerminals; i++) {
+            Terminal terminal = readTerminal(in);
+            int numGates = in.getInt();
+            for (int j = 0; j < numGates; j++) {
+                Gate gate = new Gate(in.getInt());
+                int occupant = in.getInt();
+                if (occupant >= 0) {
+                    gate.parkAircraft(aircraft[occupant]);
+                }
+                terminal.addGate(gate);
+            }
+            // gates are filled in first so the tower indexes them as they are
+            tower.addTerminal(terminal);
+        }
+
+        for (int i = 0; i < numManaged; i++) {
+            tower.restoreAircraft(aircraft[i]);
+        }
+        tower.restoreTickCount(tickCount);
+        return tower;
+    }
+
+    /**
+     * Compresses the given body into blocks of at most BLOCK_SIZE uncompressed bytes, each
+     * written as its compressed length followed by the compressed bytes.
+     *
+     * @param body buffer holding the uncompressed body between its position and limit
+     * @return buffer holding the compressed body between its position and limit
+     */
+    private static ByteBuffer deflate(ByteBuffer body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        Encoder out = new Encoder(body.remaining() / 2 + 64);
+        try {
+            while (body.hasRemaining()) {
+                int blockLength = Math.min(BLOCK_SIZE, body.remaining());
+                ByteBuffer block = body.slice(body.position(), blockLength);
+                body.position(body.position() + blockLength);
+
+                deflater.reset();
+                deflater.setInput(block);
+                deflater.finish();
+                out.ensure(4);
+                int lengthPosition = out.buffer.position();
+                out.buffer.putInt(0);
+                int start = out.buffer.position();
+                while (!deflater.finished()) {
+                    out.ensure(BLOCK_SIZE / 4);
+                    deflater.deflate(out.buffer);
+                }
+                out.buffer.putInt(lengthPosition, out.buffer.position() - start);
+            }
+        } finally {
+            deflater.end();
+        }
+        out.buffer.flip();
+        return out.buffer;
+    }
+
+    /**
+     * Decompresses a body written by deflate(ByteBuffer).
+     *
+     * @param in         buffer positioned at the start of the compressed body
+     * @param bodyLength length of the uncompressed body, in bytes
+     * @return buffer holding the uncompressed body from its start
+     * @throws IOException if the compressed body is corrupt
+     */
+    private static ByteBuffer inflate(ByteBuffer in, int bodyLength) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        Inflater inflater = new Inflater();
+        try {
+            while (body.hasRemaining()) {
+                int blockLength = in.getInt();
+                if (blockLength < 0 || blockLength > in.remaining()) {
+                    throw new IOException("Corrupt snapshot block length " + blockLength);
+                }
+                inflater.reset();
+                inflater.setInput(in.slice(in.position(), blockLength));
+                in.position(in.position() + blockLength);
+                while (!inflater.finished()) {
+                    if (inflater.inflate(body) == 0
+                            && (inflater.needsInput() || !body.hasRemaining())) {
+                        throw new IOException("Corrupt snapshot block");
+                    }
+                }
+            }
+        } catch (DataFormatException | BufferUnderflowException e) {
+            throw new IOException("Corrupt snapshot block", e);
+        } finally {
+            inflater.end();
+        }
+        body.flip();
+        return body;
+    }
+
+    /**
+     * Growable buffer that the body of a snapshot is encoded into.
+     */
+    private static class Encoder {
+
+        /** Buffer holding the bytes written so far. */
+        private ByteBuffer buffer;
+
+        /**
+         * Creates a new Encoder with the given initial capacity.
+         *
+         * @param capacity initial capacity, in bytes
+         */
+        private Encoder(int capacity) {
+            this.buffer = ByteBuffer.allocate(capacity);
+        }
+
+        /**
+         * Grows the buffer, if needed, so that the given number of bytes can be written.
+         *
+         * @param bytes number of bytes about to be written
+         */
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer grown = ByteBuffer.allocate(capacity);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package towersim.ground;
 
 import towersim.aircraft.Aircraft;
+import towersim.jfr.GateLeaveEvent;
+import towersim.jfr.GateParkEvent;
 import towersim.util.NoSpaceException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /** Represents an aircraft gate with facilities for a single aircraft to be parked. */
 public class Gate {
@@ -12,8 +13,17 @@ public class Gate {
     /** The Gate's gate number. */
     private int gateNumber;
 
-    /** The Gate's occupant. */
-    private List<Aircraft> gate;
+    /**
+     * The Gate's occupant, or null if unoccupied. Aircraft claim the gate with a single
+     * compare-and-set, so two aircraft can never be parked at the same gate.
+     */
+    private AtomicReference<Aircraft> occupant;
+
+    /** The terminal this gate belongs to, or null if it has not been added to one. */
+    private Terminal terminal;
+
+    /** The position of this gate within its terminal's list of gates. */
+    private int position;
 
     /**
      * Creates a new Gate with the given unique gate number.
@@ -22,7 +32,7 @@ public class Gate {
      */
     public Gate(int gateNumber) {
         this.gateNumber = gateNumber;
-        this.gate = new ArrayList<Aircraft>();
+        this.occupant = new AtomicReference<Aircraft>();
     }
 
     /**
@@ -34,6 +44,35 @@ public class Gate {
         return gateNumber;
     }
 
+    /**
+     * Returns the terminal this gate has been added to, or null if it is not part of a terminal.
+     *
+     * @return terminal containing this gate
+     */
+    public Terminal getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Returns the position of this gate within its terminal's list of gates.
+     *
+     * @return index of this gate in its terminal
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * Records the terminal this gate has been added to and its position within that terminal.
+     *
+     * @param terminal terminal containing this gate
+     * @param position index of this gate in the terminal's list of gates
+     */
+    void setTerminal(Terminal terminal, int position) {
+        this.terminal = terminal;
+        this.position = position;
+    }
+
     /**
      * Parks the given aircraft at this gate, so that the gate becomes occupied.
      *
@@ -41,18 +80,65 @@ public class Gate {
      * @throws NoSpaceException if the gate is already occupied by an aircraft
      */
     public void parkAircraft(Aircraft aircraft) throws NoSpaceException {
-        if (isOccupied()) {
+        if (!tryParkAircraft(aircraft)) {
             throw new NoSpaceException();
-        } else {
-            gate.add(aircraft);
         }
     }
 
+    /**
+     * Parks the given aircraft at this gate if the gate is unoccupied, without throwing an
+     * exception if it is occupied. It is safe for several threads to try to park aircraft at the
+     * same gate at once, and exactly one of them will succeed.
+     *
+     * @param aircraft aircraft to park at gate
+     * @return true if the aircraft was parked; false if the gate is already occupied
+     */
+    public boolean tryParkAircraft(Aircraft aircraft) {
+        GateParkEvent event = new GateParkEvent();
+        event.begin();
+        boolean parked = occupant.compareAndSet(null, aircraft);
+        if (parked && terminal != null) {
+            terminal.gateOccupied(this, aircraft);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.callsign = aircraft.getCallsign();
+            event.terminalNumber = getTerminalNumber();
+            event.gateNumber = gateNumber;
+            event.parked = parked;
+            event.commit();
+        }
+        return parked;
+    }
+
     /**
      * Removes the currently parked aircraft from the gate.
      */
     public void aircraftLeaves() {
-        gate.clear();
+        GateLeaveEvent event = new GateLeaveEvent();
+        event.begin();
+        Aircraft aircraft = occupant.getAndSet(null);
+
+        // the terminal is only told about aircraft that actually left
+        if (aircraft != null && terminal != null) {
+            terminal.gateVacated(this, aircraft);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.callsign = aircraft == null ? null : aircraft.getCallsign();
+            event.terminalNumber = getTerminalNumber();
+            event.gateNumber = gateNumber;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the number of the terminal this gate belongs to, for flight recorder events.
+     *
+     * @return terminal number; or -1 if this gate is not part of a terminal
+     */
+    private int getTerminalNumber() {
+        return terminal == null ? -1 : terminal.getTerminalNumber();
     }
 
     /**
@@ -61,9 +147,7 @@ public class Gate {
      * @return true if an aircraft parked; false otherwise
      */
     public boolean isOccupied() {
-        // since each gate can only park one aircraft at a time
-        // the gate list can only hold upto 1 element
-        return gate.size() >= 1;
+        return occupant.get() != null;
     }
 
     /**
@@ -72,11 +156,7 @@ public class Gate {
      * @return currently parked aircraft
      */
     public Aircraft getAircraftAtGate() {
-        if (isOccupied()) {
-            // gets the 0th index or first element since gate list can only hold one aircraft
-            return gate.get(0);
-        }
-        return null;
+        return occupant.get();
     }
 
     /**
@@ -87,14 +167,14 @@ public class Gate {
     @Override
     public String toString() {
         String gateNumber = String.valueOf(getGateNumber());
+        Aircraft aircraft = getAircraftAtGate();
 
         // if there is an aircraft parked at this gate, then its callsign is added
         // otherwise left empty
-        if (getAircraftAtGate() == null) {
+        if (aircraft == null) {
             return String.format("Gate %1$s [empty]", gateNumber);
         } else {
-            return String.format("Gate %1$s [%2$s]",
-                    gateNumber, getAircraftAtGate().getCallsign());
+            return String.format("Gate %1$s [%2$s]", gateNumber, aircraft.getCallsign());
         }
     }
 }
@@ -0,0 +1,34 @@
+package towersim.ground;
+
+import towersim.aircraft.Aircraft;
+
+/**
+ * Denotes a class that wishes to be notified of changes to the gates of a terminal, so that it
+ * can keep its own view of the terminal up to date without rescanning every gate.
+ */
+public interface GateListener {
+
+    /**
+     * Called after a gate has been added to a terminal.
+     *
+     * @param terminal terminal the gate was added to
+     * @param gate     gate that was added
+     */
+    void gateAdded(Terminal terminal, Gate gate);
+
+    /**
+     * Called after an aircraft has been parked at a gate.
+     *
+     * @param gate     gate the aircraft was parked at
+     * @param aircraft aircraft that was parked
+     */
+    void aircraftParked(Gate gate, Aircraft aircraft);
+
+    /**
+     * Called after an aircraft has left a gate.
+     *
+     * @param gate     gate the aircraft left
+     * @param aircraft aircraft that left the gate
+     */
+    void aircraftLeft(Gate gate, Aircraft aircraft);
+}
@@ -1,11 +1,14 @@
 package towersim.ground;
 
+import towersim.aircraft.Aircraft;
+import towersim.util.EmergencyListener;
 import towersim.util.EmergencyState;
 import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 import towersim.util.OccupancyLevel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /** Represents an airport terminal building, containing several aircraft gates. */
@@ -23,6 +26,22 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
     /** All gates that are present within this terminal. */
     private List<Gate> gates;
 
+    /** Read-only live view of gates, handed out so callers do not need a copy. */
+    private List<Gate> gatesView;
+
+    /**
+     * Bit mask of unoccupied gates, where bit i is set if the gate at position i is unoccupied.
+     * A single long is enough since MAX_NUM_GATES is well below 64. The mask is only changed while
+     * holding this terminal's lock, but may be read at any time.
+     */
+    private volatile long unoccupiedGates;
+
+    /** Listeners to notify whenever a gate is added, or an aircraft parks at or leaves a gate. */
+    private List<GateListener> listeners;
+
+    /** Listener notified when this terminal enters or leaves a state of emergency, or null. */
+    private EmergencyListener emergencyListener;
+
     /**
      * Creates a new Terminal with the given unique terminal number.
      *
@@ -32,6 +51,9 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
         this.terminalNumber = terminalNumber;
         this.emergencyState = false;
         this.gates = new ArrayList<Gate>();
+        this.gatesView = Collections.unmodifiableList(gates);
+        this.unoccupiedGates = 0L;
+        this.listeners = new ArrayList<GateListener>();
     }
 
     /**
@@ -48,15 +70,79 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
      *
      * @param gate gate to add to terminal
      * @throws NoSpaceException if there is no space at the terminal for the new gate
+     * @throws IllegalArgumentException if the gate has already been added to a terminal
      */
-    public void addGate(Gate gate) throws NoSpaceException {
+    public synchronized void addGate(Gate gate) throws NoSpaceException {
+        // a gate has a single position in a single terminal's bit mask of unoccupied gates
+        if (gate.getTerminal() != null) {
+            throw new IllegalArgumentException();
+        }
         if (gates.size() < MAX_NUM_GATES) {
+            gate.setTerminal(this, gates.size());
             gates.add(gate);
+
+            // gates may already have an aircraft parked before being added to a terminal
+            if (!gate.isOccupied()) {
+                unoccupiedGates |= 1L << gate.getPosition();
+            }
+            for (GateListener listener : listeners) {
+                listener.gateAdded(this, gate);
+            }
         } else {
             throw new NoSpaceException();
         }
     }
 
+    /**
+     * Registers a listener to be notified of changes to the gates of this terminal.
+     *
+     * @param listener listener to add
+     */
+    public synchronized void addGateListener(GateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Updates the bit mask of unoccupied gates from the current state of the given gate. The
+     * state is read rather than assumed, so the mask stays correct even if gate events from
+     * different threads arrive out of order.
+     *
+     * @param gate gate whose bit to update
+     */
+    private void updateUnoccupiedGate(Gate gate) {
+        if (gate.isOccupied()) {
+            unoccupiedGates &= ~(1L << gate.getPosition());
+        } else {
+            unoccupiedGates |= 1L << gate.getPosition();
+        }
+    }
+
+    /**
+     * Records that an aircraft has parked at the given gate of this terminal.
+     *
+     * @param gate     gate that became occupied
+     * @param aircraft aircraft parked at the gate
+     */
+    synchronized void gateOccupied(Gate gate, Aircraft aircraft) {
+        updateUnoccupiedGate(gate);
+        for (GateListener listener : listeners) {
+            listener.aircraftParked(gate, aircraft);
+        }
+    }
+
+    /**
+     * Records that an aircraft has left the given gate of this terminal.
+     *
+     * @param gate     gate that became unoccupied
+     * @param aircraft aircraft that left the gate
+     */
+    synchronized void gateVacated(Gate gate, Aircraft aircraft) {
+        updateUnoccupiedGate(gate);
+        for (GateListener listener : listeners) {
+            listener.aircraftLeft(gate, aircraft);
+        }
+    }
+
     /**
      * Returns a list of all gates in the terminal.
      *
@@ -66,6 +152,16 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
         return new ArrayList<>(gates);
     }
 
+    /**
+     * Returns a read-only view of all gates in the terminal. Unlike getGates(), no copy is made,
+     * and the view reflects gates added to the terminal later on.
+     *
+     * @return read-only view of terminal's gates
+     */
+    public List<Gate> getGatesView() {
+        return gatesView;
+    }
+
     /**
      * Finds and returns the first non-occupied gate in this terminal.
      *
@@ -73,26 +169,68 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
      * @throws NoSuitableGateException if all gates in this terminal are occupied
      */
     public Gate findUnoccupiedGate() throws NoSuitableGateException {
-        for (Gate gate : getGates()) {
-            if (!gate.isOccupied()) {
-                return gate;
-            }
+        Gate gate = tryFindUnoccupiedGate();
+        if (gate == null) {
+            throw new NoSuitableGateException();
         }
-        throw new NoSuitableGateException();
+        return gate;
+    }
+
+    /**
+     * Finds and returns the first non-occupied gate in this terminal, or null if all gates in this
+     * terminal are occupied.
+     *
+     * @return first non-occupied gate in this terminal; or null if none exists
+     */
+    public Gate tryFindUnoccupiedGate() {
+        // the mask is read once, as other threads may be parking aircraft at the same time
+        long unoccupied = unoccupiedGates;
+        if (unoccupied == 0L) {
+            return null;
+        }
+        // the lowest set bit is the first non-occupied gate in the order gates were added
+        return gates.get(Long.numberOfTrailingZeros(unoccupied));
+    }
+
+    /**
+     * Returns whether at least one gate in this terminal is unoccupied.
+     *
+     * @return true if there is an unoccupied gate; false otherwise
+     */
+    public boolean hasUnoccupiedGate() {
+        return unoccupiedGates != 0L;
+    }
+
+    /**
+     * Sets the listener to notify whenever this terminal enters or leaves a state of emergency,
+     * replacing any previous listener.
+     *
+     * @param listener listener to notify, or null to stop notifying
+     */
+    public void setEmergencyListener(EmergencyListener listener) {
+        this.emergencyListener = listener;
     }
 
     /**
      * Declares a state of emergency.
      */
     public void declareEmergency() {
+        boolean changed = !emergencyState;
         emergencyState = true;
+        if (changed && emergencyListener != null) {
+            emergencyListener.emergencyChanged(this, true);
+        }
     }
 
     /**
      * Clears any active state of emergency.
      */
     public void clearEmergency() {
+        boolean changed = emergencyState;
         emergencyState = false;
+        if (changed && emergencyListener != null) {
+            emergencyListener.emergencyChanged(this, false);
+        }
     }
 
     /**
@@ -110,18 +248,20 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
      * @return percentage of occupied gates in this terminal, 0 to 100
      */
     public int calculateOccupancyLevel() {
-        if (getGates().size() == 0) {
+        if (gates.size() == 0) {
             return 0;
         }
+        return (int) Math.round(100 * (getOccupiedGateCount() / (double) gates.size()));
+    }
 
-        // counts all occupied gates in the terminal
-        int occupiedGates = 0;
-        for (Gate gate : getGates()) {
-            if (gate.isOccupied()) {
-                occupiedGates++;
-            }
-        }
-        return (int) Math.round(100 * (occupiedGates / (double) getGates().size()));
+    /**
+     * Returns the number of gates in this terminal that are occupied.
+     *
+     * @return number of occupied gates
+     */
+    public int getOccupiedGateCount() {
+        // every gate that is not marked unoccupied in the bit mask is occupied
+        return gates.size() - Long.bitCount(unoccupiedGates);
     }
 
     /**
@@ -133,7 +273,7 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
     public String toString() {
         String terminalType = getClass().getSimpleName();
         String terminalNum = String.valueOf(getTerminalNumber());
-        String numGates = String.valueOf(getGates().size());
+        String numGates = String.valueOf(gates.size());
         String emergency = "(EMERGENCY)";
 
         // if terminal has an emergency, then emergency status is added to the string
@@ -0,0 +1,215 @@
+package towersim.ground;
+
+import towersim.aircraft.Aircraft;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Owner of a terminal and its gates, which makes every change to them by processing requests
+ * from a mailbox, one at a time, on tasks run by an executor. Any thread may send requests, and
+ * each returns a future completed once the request has been processed.
+ * <p>
+ * Requests to one terminal never run at the same time, so they need no locks between them,
+ * while requests to different terminals run independently of each other. An actor only holds a
+ * thread while it has requests to process, and gives it up after a batch of them, so many
+ * thousands of actors can share a small pool of threads.
+ * <p>
+ * While a terminal has an actor, its gates and emergency state should only be changed through
+ * the actor. Changes made directly are still safe, since parking at and leaving a gate are each a
+ * single atomic operation, but are not ordered with the requests in the mailbox.
+ */
+public class TerminalActor {
+
+    /** Number of requests processed before the thread is handed back to the executor. */
+    private static final int BATCH_SIZE = 64;
+
+    /** Terminal owned by this actor. */
+    private final Terminal terminal;
+
+    /** Runs the tasks that process the requests of this actor. */
+    private final Executor executor;
+
+    /** Requests waiting to be processed, in the order they were sent. */
+    private final Queue<Runnable> mailbox;
+
+    /** Whether a task processing the mailbox has been handed to the executor and not finished. */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Creates a new TerminalActor owning the given terminal, whose requests are processed on
+     * tasks run by the given executor.
+     *
+     * @param terminal terminal to own
+     * @param executor runs the tasks that process requests
+     */
+    public TerminalActor(Terminal terminal, Executor executor) {
+        this.terminal = terminal;
+        this.executor = executor;
+        this.mailbox = new ConcurrentLinkedQueue<Runnable>();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the terminal owned by this actor.
+     *
+     * @return terminal of this actor
+     */
+    public Terminal getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Sends a request to apply the given function to the terminal. The returned future is
+     * completed with the result of the function, or exceptionally with anything it throws.
+     *
+     * @param request function to apply to the terminal
+     * @param <T>     type of the result of the request
+     * @return future completed once the request has been processed
+     */
+    public <T> CompletableFuture<T> ask(Function<? super Terminal, ? extends T> request) {
+        CompletableFuture<T> result = new CompletableFuture<T>();
+        mailbox.add(() -> {
+            // skipped if the request was failed because the executor rejected it
+            if (!result.isDone()) {
+                try {
+                    result.complete(request.apply(terminal));
+                } catch (RuntimeException | Error e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        try {
+            schedule();
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Sends a request to park the given aircraft at the first unoccupied gate of the terminal.
+     * No aircraft is parked while the terminal is in a state of emergency.
+     *
+     * @param aircraft aircraft to park
+     * @return future completed with the gate the aircraft was parked at; or with null if every
+     * gate was occupied or the terminal was in emergency
+     */
+    public CompletableFuture<Gate> park(Aircraft aircraft) {
+        return ask(owned -> {
+            if (owned.hasEmergency()) {
+                return null;
+            }
+            Gate gate = owned.tryFindUnoccupiedGate();
+            // the gate is still claimed atomically, in case it was parked at directly
+            while (gate != null && !gate.tryParkAircraft(aircraft)) {
+                gate = owned.tryFindUnoccupiedGate();
+            }
+            return gate;
+        });
+    }
+
+    /**
+     * Sends a request for the given aircraft to leave the gate of the terminal it is parked at.
+     *
+     * @param aircraft aircraft to leave its gate, compared by identity
+     * @return future completed with the gate the aircraft left; or with null if it was not parked
+     * at a gate of the terminal
+     */
+    public CompletableFuture<Gate> leave(Aircraft aircraft) {
+        return ask(owned -> {
+            for (Gate gate : owned.getGatesView()) {
+                if (gate.getAircraftAtGate() == aircraft) {
+                    gate.aircraftLeaves();
+                    return gate;
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Sends a request to declare a state of emergency at the terminal.
+     *
+     * @return future completed once the emergency has been declared
+     */
+    public CompletableFuture<Void> declareEmergency() {
+        return ask(owned -> {
+            owned.declareEmergency();
+            return null;
+        });
+    }
+
+    /**
+     * Sends a request to clear any state of emergency at the terminal.
+     *
+     * @return future completed once the emergency has been cleared
+     */
+    public CompletableFuture<Void> clearEmergency() {
+        return ask(owned -> {
+            owned.clearEmergency();
+            return null;
+        });
+    }
+
+    /**
+     * Sends a request for the occupancy level of the terminal, as a percentage from 0 to 100.
+     *
+     * @return future completed with the occupancy level once every earlier request has been
+     * processed
+     */
+    public CompletableFuture<Integer> calculateOccupancyLevel() {
+        return ask(Terminal::calculateOccupancyLevel);
+    }
+
+    /**
+     * Hands a task processing the mailbox to the executor, unless one is already running or
+     * waiting to run.
+     *
+     * @throws RejectedExecutionException if the executor does not accept the task
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::processMailbox);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Processes up to BATCH_SIZE requests from the mailbox, then schedules another task if any
+     * requests are left. If the executor no longer accepts tasks, the rest of the requests are
+     * processed on this task instead.
+     */
+    private void processMailbox() {
+        boolean keepProcessing = true;
+        while (keepProcessing) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable request = mailbox.poll();
+                if (request == null) {
+                    break;
+                }
+                request.run();
+            }
+            scheduled.set(false);
+            keepProcessing = false;
+            // a request may have been sent after the mailbox was last polled, but before another
+            // task could be scheduled for it
+            if (!mailbox.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    keepProcessing = scheduled.compareAndSet(false, true);
+                }
+            }
+        }
+    }
+}
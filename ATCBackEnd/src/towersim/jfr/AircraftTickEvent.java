@@ -0,0 +1,29 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for ticking a single aircraft. Only ticks taking longer than the
+ * threshold, 1 ms unless configured otherwise, are recorded.
+ */
+@Name("towersim.AircraftTick")
+@Label("Aircraft Tick")
+@Category("TowerSim")
+@Description("One tick of a single aircraft")
+@Threshold("1 ms")
+@StackTrace(false)
+public class AircraftTickEvent extends jdk.jfr.Event {
+
+    /** The callsign of the aircraft ticked. */
+    @Label("Callsign")
+    public String callsign;
+
+    /** The type of the aircraft's current task. */
+    @Label("Task")
+    public String task;
+}
@@ -0,0 +1,34 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for an aircraft leaving a gate, including telling the gate's terminal
+ * and its listeners. Only departures taking longer than the threshold, 1 ms unless configured
+ * otherwise, are recorded.
+ */
+@Name("towersim.GateLeave")
+@Label("Gate Leave")
+@Category("TowerSim")
+@Description("Aircraft leaving a gate")
+@Threshold("1 ms")
+@StackTrace(false)
+public class GateLeaveEvent extends jdk.jfr.Event {
+
+    /** The callsign of the aircraft leaving, or null if the gate was already unoccupied. */
+    @Label("Callsign")
+    public String callsign;
+
+    /** The number of the gate's terminal, or -1 if the gate is not part of a terminal. */
+    @Label("Terminal")
+    public int terminalNumber;
+
+    /** The number of the gate. */
+    @Label("Gate")
+    public int gateNumber;
+}
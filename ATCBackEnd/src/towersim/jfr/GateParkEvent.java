@@ -0,0 +1,38 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for an attempt to park an aircraft at a gate, including telling the
+ * gate's terminal and its listeners. Only attempts taking longer than the threshold, 1 ms unless
+ * configured otherwise, are recorded.
+ */
+@Name("towersim.GatePark")
+@Label("Gate Park")
+@Category("TowerSim")
+@Description("Aircraft parking at a gate")
+@Threshold("1 ms")
+@StackTrace(false)
+public class GateParkEvent extends jdk.jfr.Event {
+
+    /** The callsign of the aircraft parking. */
+    @Label("Callsign")
+    public String callsign;
+
+    /** The number of the gate's terminal, or -1 if the gate is not part of a terminal. */
+    @Label("Terminal")
+    public int terminalNumber;
+
+    /** The number of the gate. */
+    @Label("Gate")
+    public int gateNumber;
+
+    /** Whether the aircraft was parked, rather than finding the gate already occupied. */
+    @Label("Parked")
+    public boolean parked;
+}
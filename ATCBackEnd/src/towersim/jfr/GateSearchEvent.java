@@ -0,0 +1,36 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for a search for an unoccupied gate. Searches that find nothing report
+ * -1 for the terminal and gate numbers. Only searches taking longer than the threshold, 1 ms
+ * unless configured otherwise, are recorded.
+ */
+@Name("towersim.GateSearch")
+@Label("Gate Search")
+@Category("TowerSim")
+@Description("Search for an unoccupied gate for an aircraft")
+@Threshold("1 ms")
+public class GateSearchEvent extends jdk.jfr.Event {
+
+    /** The callsign of the aircraft needing a gate. */
+    @Label("Callsign")
+    public String callsign;
+
+    /** The type of the aircraft needing a gate. */
+    @Label("Aircraft Type")
+    public String aircraftType;
+
+    /** The number of the terminal of the gate found, or -1 if none was found. */
+    @Label("Terminal")
+    public int terminalNumber;
+
+    /** The number of the gate found, or -1 if none was found. */
+    @Label("Gate")
+    public int gateNumber;
+}
@@ -0,0 +1,46 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one tick of a control tower, broken down into its phases so that a
+ * slow tick can be pinned on ticking aircraft, moving tasks on or running timers. Only ticks
+ * taking longer than the threshold, 10 ms unless configured otherwise, are recorded.
+ */
+@Name("towersim.Tick")
+@Label("Tower Tick")
+@Category("TowerSim")
+@Description("One tick of a control tower")
+@Threshold("10 ms")
+@StackTrace(false)
+public class TickEvent extends jdk.jfr.Event {
+
+    /** The number of the tick. */
+    @Label("Tick")
+    public long tick;
+
+    /** The number of aircraft ticked. */
+    @Label("Aircraft Ticked")
+    public int aircraftTicked;
+
+    /** The time spent ticking aircraft. */
+    @Label("Aircraft Phase")
+    @Timespan
+    public long aircraftNanos;
+
+    /** The time spent moving aircraft on to their next task. */
+    @Label("Task Lifecycle Phase")
+    @Timespan
+    public long lifecycleNanos;
+
+    /** The time spent running timers that fell due. */
+    @Label("Timers Phase")
+    @Timespan
+    public long timersNanos;
+}
@@ -6,11 +6,22 @@ package towersim.tasks;
  */
 public class Task {
 
+    /** Shared tasks for every task type and load percentage from 0 to 100. */
+    private static final Task[][] INTERNED = new Task[TaskType.values().length][101];
+
+    static {
+        for (TaskType type : TaskType.values()) {
+            for (int loadPercent = 0; loadPercent <= 100; loadPercent++) {
+                INTERNED[type.ordinal()][loadPercent] = new Task(type, loadPercent);
+            }
+        }
+    }
+
     /** The Task's type. */
-    private TaskType type;
+    private final TaskType type;
 
     /** The Task's load percentage. */
-    private int loadPercent;
+    private final int loadPercent;
 
     /**
      * Creates a new Task of the given task type.
@@ -18,10 +29,8 @@ public class Task {
      * @param type type of task
      */
     public Task(TaskType type) {
-        this.type = type;
-
         // sets load percent to 0 in the case LOAD type Task was created without load percentage
-        this.loadPercent = 0;
+        this(type, 0);
     }
 
     /**
@@ -31,10 +40,35 @@ public class Task {
      * @param loadPercent percentage of maximum capacity to load
      */
     public Task(TaskType type, int loadPercent) {
-        this(type);
+        this.type = type;
         this.loadPercent = loadPercent;
     }
 
+    /**
+     * Returns the shared task of the given task type, with a load percentage of 0.
+     *
+     * @param type type of task
+     * @return task of the given type
+     */
+    public static Task of(TaskType type) {
+        return of(type, 0);
+    }
+
+    /**
+     * Returns a task of the given type and load percentage. Since tasks cannot be changed, the
+     * same task is returned every time for load percentages from 0 to 100.
+     *
+     * @param type        type of task
+     * @param loadPercent percentage of maximum capacity to load
+     * @return task of the given type and load percentage
+     */
+    public static Task of(TaskType type, int loadPercent) {
+        if (loadPercent < 0 || loadPercent > 100) {
+            return new Task(type, loadPercent);
+        }
+        return INTERNED[type.ordinal()][loadPercent];
+    }
+
     /**
      * Returns the type of this task.
      *
@@ -70,4 +104,31 @@ public class Task {
             return String.format("%1$s", taskType);
         }
     }
+
+    /**
+     * Returns true if and only if this task is equal to the other given object.
+     * <p>
+     * Two tasks are equal if they have the same type and load percentage.
+     *
+     * @param other object to compare to
+     * @return true if equal; false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Task)) {
+            return false;
+        }
+        Task task = (Task) other;
+        return type == task.type && loadPercent == task.loadPercent;
+    }
+
+    /**
+     * Returns the hash code of this task, consistent with equals(Object).
+     *
+     * @return hash code of this task
+     */
+    @Override
+    public int hashCode() {
+        return type.hashCode() * 31 + loadPercent;
+    }
 }
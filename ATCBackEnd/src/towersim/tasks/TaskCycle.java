@@ -0,0 +1,134 @@
+package towersim.tasks;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An immutable cycle of tasks, shared by every task list that cycles through the same tasks.
+ * <p>
+ * Cycles are interned: asking for a cycle of the same tasks always returns the same cycle, so a
+ * fleet flying a handful of distinct cycles only ever holds that many cycles and their tasks.
+ * Cycles are only interned weakly, so a cycle no task list uses any more can still be garbage
+ * collected, and cycles read from scenarios or other towers do not pile up over time.
+ */
+public final class TaskCycle {
+
+    /**
+     * Every cycle still in use, by its tasks. Each key is the tasksView of its cycle, so an entry
+     * is only kept while its cycle is reachable from elsewhere; guarded by its own lock.
+     */
+    private static final Map<List<Task>, WeakReference<TaskCycle>> INTERNED =
+            new WeakHashMap<List<Task>, WeakReference<TaskCycle>>();
+
+    /** The tasks in the cycle, in order. */
+    private final Task[] tasks;
+
+    /** Read-only view of tasks. */
+    private final List<Task> tasksView;
+
+    /**
+     * Creates a new TaskCycle of the given tasks.
+     *
+     * @param tasks shared tasks in the cycle
+     */
+    private TaskCycle(List<Task> tasks) {
+        this.tasks = tasks.toArray(new Task[0]);
+        this.tasksView = Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Returns the cycle of the given tasks, in order.
+     *
+     * @param tasks tasks in the cycle
+     * @return shared cycle of the tasks
+     */
+    public static TaskCycle of(List<Task> tasks) {
+        synchronized (INTERNED) {
+            WeakReference<TaskCycle> interned = INTERNED.get(tasks);
+            TaskCycle cycle = interned == null ? null : interned.get();
+            if (cycle != null) {
+                return cycle;
+            }
+            // the cycle keeps its own copy of the shared tasks, so later changes to the list are
+            // not seen by it
+            List<Task> shared = new ArrayList<Task>(tasks.size());
+            for (Task task : tasks) {
+                shared.add(Task.of(task.getType(), task.getLoadPercent()));
+            }
+            cycle = new TaskCycle(shared);
+            INTERNED.put(cycle.tasksView, new WeakReference<TaskCycle>(cycle));
+            return cycle;
+        }
+    }
+
+    /**
+     * Returns the cycle of the given tasks, in order.
+     *
+     * @param tasks tasks in the cycle
+     * @return shared cycle of the tasks
+     */
+    public static TaskCycle of(Task... tasks) {
+        return of(List.of(tasks));
+    }
+
+    /**
+     * Returns the number of tasks in the cycle.
+     *
+     * @return number of tasks
+     */
+    public int size() {
+        return tasks.length;
+    }
+
+    /**
+     * Returns the task at the given position in the cycle.
+     *
+     * @param position index of the task
+     * @return task at the position
+     * @throws IndexOutOfBoundsException if position is not an index of the cycle
+     */
+    public Task get(int position) {
+        return tasks[position];
+    }
+
+    /**
+     * Returns the position of the task after the given position, going back to the start of
+     * the cycle after the last task.
+     *
+     * @param position index of a task
+     * @return index of the next task
+     */
+    public int next(int position) {
+        return position + 1 < tasks.length ? position + 1 : 0;
+    }
+
+    /**
+     * Returns an unmodifiable view of the tasks in the cycle, in order.
+     *
+     * @return tasks in the cycle
+     */
+    public List<Task> getTasks() {
+        return tasksView;
+    }
+
+    /**
+     * Returns the human-readable string representation of this task cycle.
+     *
+     * @return tasks of the cycle separated by arrows
+     */
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (Task task : tasks) {
+            if (description.length() > 0) {
+                description.append(" -> ");
+            }
+            description.append(task);
+        }
+        return description.toString();
+    }
+}
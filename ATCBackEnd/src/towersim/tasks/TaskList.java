@@ -1,28 +1,103 @@
 package towersim.tasks;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
-/** Represents a circular list of tasks for an aircraft to cycle through. */
+/**
+ * Represents a circular list of tasks for an aircraft to cycle through.
+ * <p>
+ * The tasks themselves are held in a shared, immutable TaskCycle, so each task list only adds
+ * its position in the cycle.
+ */
 public class TaskList {
 
-    /** All tasks that the aircraft performs. */
-    private List<Task> tasks;
+    /** All tasks that the aircraft performs, shared with other task lists of the same tasks. */
+    private final TaskCycle tasks;
 
     /** The current task the aircraft is performing */
     private int currentTaskPosition;
 
+    /** Listeners told the new position whenever the current task moves, or null if none. */
+    private List<IntConsumer> positionListeners;
+
     /**
-     * Creates a new TaskList with the given list of tasks.
+     * Creates a new TaskList with the given list of tasks. Later changes to the given list do not
+     * affect the task list.
      *
      * @param tasks list of tasks
      */
     public TaskList(List<Task> tasks) {
-        this.tasks = tasks;
+        this(TaskCycle.of(tasks));
+    }
+
+    /**
+     * Creates a new TaskList that cycles through the given cycle of tasks.
+     *
+     * @param cycle cycle of tasks
+     */
+    public TaskList(TaskCycle cycle) {
+        this.tasks = cycle;
 
         // creates a index based counter to identify the current task for the aircraft
         this.currentTaskPosition = 0;
     }
 
+    /**
+     * Creates a new TaskList with the given list of tasks, positioned on the task at the given
+     * index, such as when restoring a task list that had already been cycled through.
+     *
+     * @param tasks               list of tasks
+     * @param currentTaskPosition index of the current task
+     * @throws IllegalArgumentException if currentTaskPosition is not an index of tasks
+     */
+    public TaskList(List<Task> tasks, int currentTaskPosition) {
+        this(TaskCycle.of(tasks), currentTaskPosition);
+    }
+
+    /**
+     * Creates a new TaskList that cycles through the given cycle of tasks, positioned on the task
+     * at the given index.
+     *
+     * @param cycle               cycle of tasks
+     * @param currentTaskPosition index of the current task
+     * @throws IllegalArgumentException if currentTaskPosition is not an index of the cycle
+     */
+    public TaskList(TaskCycle cycle, int currentTaskPosition) {
+        this(cycle);
+        if (currentTaskPosition < 0 || currentTaskPosition >= cycle.size()) {
+            throw new IllegalArgumentException();
+        }
+        this.currentTaskPosition = currentTaskPosition;
+    }
+
+    /**
+     * Returns an unmodifiable view of all the tasks in the list, in order.
+     *
+     * @return tasks in the list
+     */
+    public List<Task> getTasks() {
+        return tasks.getTasks();
+    }
+
+    /**
+     * Returns the shared cycle of tasks this list cycles through.
+     *
+     * @return cycle of tasks
+     */
+    public TaskCycle getCycle() {
+        return tasks;
+    }
+
+    /**
+     * Returns the index of the current task in the list.
+     *
+     * @return position of the current task
+     */
+    public int getCurrentTaskPosition() {
+        return currentTaskPosition;
+    }
+
     /**
      * Returns the current task in the list.
      *
@@ -38,14 +113,8 @@ public class TaskList {
      * @return next task
      */
     public Task getNextTask() {
-        // checks next position, if it exists then position is moved up
-        if ((currentTaskPosition + 1) < tasks.size()) {
-            return tasks.get(currentTaskPosition + 1);
-        } else {
-            // if the next position does not exist, the cycle is restarted from the first task
-            // hence index 0 or first element
-            return tasks.get(0);
-        }
+        // the cycle is restarted from the first task after the last task
+        return tasks.get(tasks.next(currentTaskPosition));
     }
 
     /**
@@ -54,10 +123,38 @@ public class TaskList {
     public void moveToNextTask() {
         // if next position exists, then position is moved up otherwise reverted back to the
         // start to recycle the tasks
-        if (currentTaskPosition + 1 < tasks.size()) {
-            currentTaskPosition++;
-        } else {
-            currentTaskPosition = 0;
+        currentTaskPosition = tasks.next(currentTaskPosition);
+        if (positionListeners != null) {
+            for (IntConsumer listener : positionListeners) {
+                listener.accept(currentTaskPosition);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener to be told the new position of the current task each time it moves,
+     * such as a store keeping its own copy of the position.
+     *
+     * @param listener listener to add
+     */
+    public void addPositionListener(IntConsumer listener) {
+        if (positionListeners == null) {
+            positionListeners = new ArrayList<IntConsumer>(1);
+        }
+        positionListeners.add(listener);
+    }
+
+    /**
+     * Stops telling the given listener about moves of the current task.
+     *
+     * @param listener listener to remove, compared by identity
+     */
+    public void removePositionListener(IntConsumer listener) {
+        if (positionListeners != null) {
+            positionListeners.removeIf(each -> each == listener);
+            if (positionListeners.isEmpty()) {
+                positionListeners = null;
+            }
         }
     }
 
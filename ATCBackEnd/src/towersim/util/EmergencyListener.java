@@ -0,0 +1,17 @@
+package towersim.util;
+
+/**
+ * Denotes a class that wishes to be notified when an entity enters or leaves a state of
+ * emergency.
+ */
+public interface EmergencyListener {
+
+    /**
+     * Called after the given entity has entered or left a state of emergency. Not called when
+     * an emergency is declared or cleared without changing the entity's state.
+     *
+     * @param source    entity whose state of emergency changed
+     * @param emergency true if an emergency was declared; false if it was cleared
+     */
+    void emergencyChanged(EmergencyState source, boolean emergency);
+}
@@ -0,0 +1,18 @@
+package towersim.util;
+
+/** Exception thrown when a scenario file does not describe a valid airport and fleet. */
+public class MalformedScenarioException extends Exception {
+
+    /** Constructs a MalformedScenarioException with no detail message. */
+    public MalformedScenarioException() {}
+
+    /**
+     * Constructs a MalformedScenarioException that contains a helpful
+     * detail message explaining why the exception occurred.
+     *
+     * @param message detail message
+     */
+    public MalformedScenarioException(String message) {
+        super(message);
+    }
+}
@@ -16,4 +16,15 @@ public class NoSpaceException extends Exception {
         super(message);
     }
 
+    /**
+     * Constructs a NoSpaceException with the given detail message, optionally without capturing
+     * a stack trace. Skipping the stack trace makes the exception much cheaper to create, for use
+     * on paths where the exception is expected to be thrown often.
+     *
+     * @param message            detail message
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public NoSpaceException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
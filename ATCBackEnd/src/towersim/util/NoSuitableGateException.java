@@ -15,4 +15,16 @@ public class NoSuitableGateException extends Exception {
     public NoSuitableGateException(String message) {
         super(message);
     }
+
+    /**
+     * Constructs a NoSuitableGateException with the given detail message, optionally without
+     * capturing a stack trace. Skipping the stack trace makes the exception much cheaper to
+     * create, for use on paths where the exception is expected to be thrown often.
+     *
+     * @param message            detail message
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public NoSuitableGateException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,97 @@
+package towersim.util;
+
+/**
+ * Unbounded queue for passing elements from exactly one producer thread to exactly one consumer
+ * thread without locking. The queue is a singly linked list: the producer only ever writes the
+ * tail and the consumer only ever writes the head, so the two threads never contend, and each
+ * element is published to the consumer by a single volatile write.
+ * <p>
+ * Calling offer() from more than one thread at a time, or poll() from more than one thread at a
+ * time, is not supported.
+ *
+ * @param <E> type of elements held in the queue
+ */
+public class SpscQueue<E> {
+
+    /** Node before the first element, read and moved on only by the consumer. */
+    private Node<E> head;
+
+    /** Last node in the list, appended to only by the producer. */
+    private Node<E> tail;
+
+    /**
+     * Creates a new, empty SpscQueue.
+     */
+    public SpscQueue() {
+        Node<E> stub = new Node<E>(null);
+        this.head = stub;
+        this.tail = stub;
+    }
+
+    /**
+     * Adds the given element to the end of this queue. Must only be called by the producer.
+     *
+     * @param element element to add
+     * @throws NullPointerException if element is null
+     */
+    public void offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        Node<E> node = new Node<E>(element);
+        // the volatile write publishes the element to the consumer
+        tail.next = node;
+        tail = node;
+    }
+
+    /**
+     * Removes and returns the element at the front of this queue. Must only be called by the
+     * consumer.
+     *
+     * @return first element; or null if the queue is empty
+     */
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E element = next.element;
+        // the node becomes the new stub, so it no longer holds on to the element
+        next.element = null;
+        head = next;
+        return element;
+    }
+
+    /**
+     * Returns whether this queue has no elements for the consumer. Must only be called by the
+     * consumer.
+     *
+     * @return true if empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    /**
+     * A link in the list of elements.
+     *
+     * @param <E> type of the element held
+     */
+    private static class Node<E> {
+
+        /** The element held, or null once the node is the stub. */
+        private E element;
+
+        /** The next node in the list, or null if this is the tail. */
+        private volatile Node<E> next;
+
+        /**
+         * Creates a new Node holding the given element.
+         *
+         * @param element element to hold
+         */
+        Node(E element) {
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package towersim.util;
+
+/**
+ * Hierarchical timing wheel for running tasks after a number of simulation ticks.
+ * <p>
+ * Pending timers are kept in levels of 64 slots, where each slot of level 0 covers one tick and
+ * each slot of a higher level covers all 64 slots of the level below. A timer is placed in the
+ * lowest level that can hold its deadline, and is moved down a level each time its slot comes up,
+ * until it fires from level 0. Scheduling and cancelling a timer take constant time, and a tick
+ * only visits the timers that fire or move down on that tick, however many timers are pending.
+ */
+public class TimingWheel {
+
+    /** Number of bits of the tick used to index the slots of each level. */
+    private static final int BITS_PER_LEVEL = 6;
+
+    /** Number of slots in each level. */
+    private static final int SLOTS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+
+    /** Mask selecting the slot index from a tick shifted down to a level. */
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+
+    /** Number of levels, enough for delays of 2^36 ticks before timers need re-placing. */
+    private static final int LEVELS = 6;
+
+    /** Largest delay that can be placed directly; longer timers are re-placed as time passes. */
+    private static final long MAX_SPAN = (1L << (BITS_PER_LEVEL * LEVELS)) - 1;
+
+    /** Sentinel head of the list of timers in each slot, indexed by level and then slot. */
+    private final Timeout[][] slots;
+
+    /** For each level, a bit mask of the slots that hold at least one timer. */
+    private final long[] occupiedSlots;
+
+    /** The current tick of this wheel. */
+    private long currentTick;
+
+    /** Number of timers that are pending. */
+    private int size;
+
+    /**
+     * Creates a new, empty TimingWheel starting at tick 0.
+     */
+    public TimingWheel() {
+        this.slots = new Timeout[LEVELS][SLOTS_PER_LEVEL];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS_PER_LEVEL; slot++) {
+                Timeout head = new Timeout(this, 0, null);
+                head.previous = head;
+                head.next = head;
+                slots[level][slot] = head;
+            }
+        }
+        this.occupiedSlots = new long[LEVELS];
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the current tick of this wheel.
+     *
+     * @return current tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Returns the number of timers that have been scheduled but have not yet fired or been
+     * cancelled.
+     *
+     * @return number of pending timers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the given task to run once the given number of ticks have passed.
+     *
+     * @param delay number of ticks to wait, at least 1
+     * @param task  task to run
+     * @return handle that can be used to cancel the timer
+     * @throws IllegalArgumentException if delay is less than 1
+     */
+    public Timeout schedule(long delay, Runnable task) {
+        if (delay < 1) {
+            throw new IllegalArgumentException();
+        }
+        Timeout timeout = new Timeout(this, currentTick + delay, task);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Adds the given timer to the slot that is due to be visited next before its deadline.
+     *
+     * @param timeout timer to place
+     */
+    private void place(Timeout timeout) {
+        // timers beyond the top level are placed as far away as possible and re-placed later
+        long deadline = Math.min(timeout.deadline, currentTick + MAX_SPAN);
+        long delay = deadline - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (BITS_PER_LEVEL * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (deadline >>> (BITS_PER_LEVEL * level)) & SLOT_MASK;
+
+        Timeout head = slots[level][slot];
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+        timeout.level = level;
+        timeout.slot = slot;
+        occupiedSlots[level] |= 1L << slot;
+    }
+
+    /**
+     * Removes the given timer from the slot it is in.
+     *
+     * @param timeout timer to remove
+     */
+    private void unlink(Timeout timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        Timeout head = slots[timeout.level][timeout.slot];
+        if (head.next == head) {
+            occupiedSlots[timeout.level] &= ~(1L << timeout.slot);
+        }
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    /**
+     * Advances this wheel by one tick, running every task whose deadline is the new tick. Tasks
+     * are run one at a time on the calling thread, and may schedule or cancel other timers.
+     */
+    public void advance() {
+        currentTick++;
+
+        // when the lower levels wrap around, the next slot of the level above is moved down
+        int level = 1;
+        long tick = currentTick;
+        while (level < LEVELS && (tick & SLOT_MASK) == 0) {
+            tick >>>= BITS_PER_LEVEL;
+            level++;
+        }
+        for (int cascade = level - 1; cascade >= 1; cascade--) {
+            int slot = (int) (currentTick >>> (BITS_PER_LEVEL * cascade)) & SLOT_MASK;
+            Timeout head = slots[cascade][slot];
+            while (head.next != head) {
+                Timeout timeout = head.next;
+                unlink(timeout);
+                place(timeout);
+            }
+        }
+
+        Timeout head = slots[0][(int) currentTick & SLOT_MASK];
+        while (head.next != head) {
+            Timeout timeout = head.next;
+            unlink(timeout);
+            size--;
+            timeout.expired = true;
+            timeout.task.run();
+        }
+    }
+
+    /**
+     * Returns the earliest tick after the current tick at which advancing this wheel will run a
+     * task or move timers down a level. Every tick before it can be skipped with skipTo(long).
+     *
+     * @return next tick at which this wheel has work to do; or Long.MAX_VALUE if none is pending
+     */
+    public long nextEventTick() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            if (occupiedSlots[level] == 0L) {
+                continue;
+            }
+            int shift = BITS_PER_LEVEL * level;
+            long block = (currentTick >>> shift) + 1;
+            // distance from the next slot of this level to the nearest occupied slot
+            int start = (int) block & SLOT_MASK;
+            long distance = Long.numberOfTrailingZeros(
+                    Long.rotateRight(occupiedSlots[level], start));
+            next = Math.min(next, (block + distance) << shift);
+        }
+        return next;
+    }
+
+    /**
+     * Moves this wheel forward to the given tick without visiting any slots. The tick must be
+     * before nextEventTick(), so that no timers fire or move in the ticks skipped over.
+     *
+     * @param tick tick to move forward to
+     * @throws IllegalArgumentException if tick is before the current tick, or not before the next
+     * event tick
+     */
+    public void skipTo(long tick) {
+        if (tick < currentTick || tick >= nextEventTick()) {
+            throw new IllegalArgumentException();
+        }
+        currentTick = tick;
+    }
+
+    /**
+     * A timer scheduled on a timing wheel, which can be used to cancel it before it fires.
+     */
+    public static class Timeout {
+
+        /** The wheel this timer was scheduled on. */
+        private final TimingWheel wheel;
+
+        /** The tick at which this timer fires. */
+        private final long deadline;
+
+        /** The task run when this timer fires. */
+        private final Runnable task;
+
+        /** The previous timer in the same slot. */
+        private Timeout previous;
+
+        /** The next timer in the same slot. */
+        private Timeout next;
+
+        /** The level of the slot holding this timer. */
+        private int level;
+
+        /** The index of the slot holding this timer within its level. */
+        private int slot;
+
+        /** Whether this timer has fired. */
+        private boolean expired;
+
+        /** Whether this timer has been cancelled. */
+        private boolean cancelled;
+
+        /**
+         * Creates a new Timeout for the given wheel.
+         *
+         * @param wheel    wheel the timer is scheduled on
+         * @param deadline tick at which the timer fires
+         * @param task     task run when the timer fires
+         */
+        private Timeout(TimingWheel wheel, long deadline, Runnable task) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * Returns the tick at which this timer fires.
+         *
+         * @return deadline tick
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Returns whether this timer has fired.
+         *
+         * @return true if fired; false otherwise
+         */
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * Returns whether this timer has been cancelled.
+         *
+         * @return true if cancelled; false otherwise
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancels this timer so that its task will not be run. Has no effect if the timer has
+         * already fired or been cancelled.
+         *
+         * @return true if the timer was cancelled by this call; false otherwise
+         */
+        public boolean cancel() {
+            if (expired || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            wheel.unlink(this);
+            wheel.size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package towersim.aircraft;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AircraftStoreTest {
+    private AircraftStore store;
+    private List<Task> loadTasks;
+    private List<Task> awayTasks;
+
+    @Before
+    public void setup() {
+        this.store = new AircraftStore();
+
+        this.loadTasks = new ArrayList<Task>();
+        this.loadTasks.add(new Task(TaskType.LOAD, 65));
+        this.loadTasks.add(new Task(TaskType.TAKEOFF));
+
+        this.awayTasks = new ArrayList<Task>();
+        this.awayTasks.add(new Task(TaskType.AWAY));
+        this.awayTasks.add(new Task(TaskType.LAND));
+    }
+
+    @Test
+    public void storeTickMatchesAircraftTickTest() {
+        PassengerAircraft passenger = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(loadTasks), 10000, 20);
+        FreightAircraft freight = new FreightAircraft("DEF456",
+                AircraftCharacteristics.BOEING_747_8F, new TaskList(loadTasks), 11000, 50);
+        PassengerAircraft away = new PassengerAircraft("GHI789",
+                AircraftCharacteristics.ROBINSON_R44, new TaskList(awayTasks), 150, 2);
+
+        PassengerAircraft storedPassenger = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(loadTasks), 10000, 20);
+        FreightAircraft storedFreight = new FreightAircraft("DEF456",
+                AircraftCharacteristics.BOEING_747_8F, new TaskList(loadTasks), 11000, 50);
+        PassengerAircraft storedAway = new PassengerAircraft("GHI789",
+                AircraftCharacteristics.ROBINSON_R44, new TaskList(awayTasks), 150, 2);
+        store.add(storedPassenger);
+        store.add(storedFreight);
+        store.add(storedAway);
+
+        for (int i = 0; i < 12; i++) {
+            passenger.tick();
+            freight.tick();
+            away.tick();
+            store.tick();
+        }
+
+        assertEquals(passenger.getFuelAmount(), storedPassenger.getFuelAmount(), 0);
+        assertEquals(passenger.getNumPassengers(), storedPassenger.getNumPassengers());
+        assertEquals(freight.getFuelAmount(), storedFreight.getFuelAmount(), 0);
+        assertEquals(freight.getFreightAmount(), storedFreight.getFreightAmount());
+        assertEquals(away.getFuelAmount(), storedAway.getFuelAmount(), 0);
+    }
+
+    @Test
+    public void aircraftReadsStateFromStoreTest() {
+        PassengerAircraft passenger = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(loadTasks), 10000, 20);
+        passenger.declareEmergency();
+        store.add(passenger);
+
+        assertEquals("Incorrect store size", 1, store.size());
+        assertSame("Incorrect aircraft in slot", passenger, store.getAircraft(0));
+        assertEquals(10000, passenger.getFuelAmount(), 0);
+        assertEquals(20, passenger.getNumPassengers());
+        assertTrue("Emergency should be kept by the store", passenger.hasEmergency());
+
+        passenger.clearEmergency();
+        assertFalse("Emergency should be cleared in the store", passenger.hasEmergency());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addAircraftTwiceTest() {
+        PassengerAircraft passenger = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(loadTasks), 10000, 20);
+        store.add(passenger);
+        store.add(passenger);
+    }
+
+    @Test
+    public void storeFollowsSharedTaskListTest() {
+        TaskList shared = new TaskList(awayTasks);
+        PassengerAircraft first = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.ROBINSON_R44, shared, 150, 2);
+        PassengerAircraft second = new PassengerAircraft("DEF456",
+                AircraftCharacteristics.ROBINSON_R44, shared, 150, 2);
+        store.add(first);
+        store.add(second);
+
+        shared.moveToNextTask();
+        store.tick();
+        assertEquals("Landing aircraft should not burn fuel", 150, first.getFuelAmount(), 0);
+        assertEquals("Landing aircraft should not burn fuel", 150, second.getFuelAmount(), 0);
+
+        store.removeIf(each -> each == first);
+        shared.moveToNextTask();
+        store.tick();
+        assertEquals("Removed aircraft should not be ticked", 150, first.getFuelAmount(), 0);
+        assertTrue("Away aircraft should burn fuel", second.getFuelAmount() < 150);
+    }
+}
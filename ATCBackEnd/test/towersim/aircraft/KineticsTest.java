@@ -0,0 +1,56 @@
+package towersim.aircraft;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class KineticsTest {
+
+    private static void assertMatchesFormulas(AircraftCharacteristics model, int loadPercent) {
+        int passengers = PassengerAircraft.totalPassengersToBeLoaded(model, loadPercent);
+        int passengerTime = PassengerAircraft.loadingTime(passengers);
+        assertEquals(passengers, Kinetics.totalToLoad(Kinetics.PASSENGER, model, loadPercent));
+        assertEquals(passengerTime,
+                Kinetics.loadingTime(Kinetics.PASSENGER, model, loadPercent));
+        assertEquals(Double.doubleToLongBits(model.fuelCapacity / passengerTime),
+                Double.doubleToLongBits(
+                        Kinetics.fuelPerTick(Kinetics.PASSENGER, model, loadPercent)));
+        assertEquals(Math.round(passengers / (double) passengerTime),
+                Kinetics.payloadPerTick(Kinetics.PASSENGER, model, loadPercent));
+
+        int freight = FreightAircraft.totalFreightToBeLoaded(model, loadPercent);
+        int freightTime = FreightAircraft.loadingTime(freight);
+        assertEquals(freight, Kinetics.totalToLoad(Kinetics.FREIGHT, model, loadPercent));
+        assertEquals(freightTime, Kinetics.loadingTime(Kinetics.FREIGHT, model, loadPercent));
+        assertEquals(Double.doubleToLongBits(model.fuelCapacity / freightTime),
+                Double.doubleToLongBits(
+                        Kinetics.fuelPerTick(Kinetics.FREIGHT, model, loadPercent)));
+        assertEquals(Math.round(freight / (double) freightTime),
+                Kinetics.payloadPerTick(Kinetics.FREIGHT, model, loadPercent));
+    }
+
+    @Test
+    public void tableMatchesFormulasTest() {
+        for (AircraftCharacteristics model : AircraftCharacteristics.values()) {
+            for (int loadPercent = 0; loadPercent <= 100; loadPercent++) {
+                assertMatchesFormulas(model, loadPercent);
+            }
+        }
+    }
+
+    @Test
+    public void outsideTableMatchesFormulasTest() {
+        for (AircraftCharacteristics model : AircraftCharacteristics.values()) {
+            assertMatchesFormulas(model, -5);
+            assertMatchesFormulas(model, 101);
+            assertMatchesFormulas(model, 250);
+        }
+    }
+
+    @Test
+    public void awayBurnTest() {
+        for (AircraftCharacteristics model : AircraftCharacteristics.values()) {
+            assertEquals(0.1 * model.fuelCapacity, Kinetics.awayBurn(model), 0);
+        }
+    }
+}
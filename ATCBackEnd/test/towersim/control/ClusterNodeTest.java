@@ -0,0 +1,250 @@
+package towersim.control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ClusterNodeTest {
+    private Path directory;
+    private ExecutorService nodeThreads;
+
+    @Before
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("cluster");
+        this.nodeThreads = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        nodeThreads.shutdownNow();
+        Files.delete(directory);
+    }
+
+    private static TaskList cycle() {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 40));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        return new TaskList(tasks);
+    }
+
+    private static ControlTower airport(int shard) throws NoSpaceException {
+        ControlTower tower = new ControlTower();
+        Terminal terminal = new AirplaneTerminal(1);
+        for (int gate = 1; gate <= 4; gate++) {
+            terminal.addGate(new Gate(gate));
+        }
+        tower.addTerminal(terminal);
+        for (int i = 0; i < 3; i++) {
+            tower.tryAddAircraft(new PassengerAircraft("S" + shard + "A" + i,
+                    AircraftCharacteristics.AIRBUS_A320, cycle(), 20000, 0));
+        }
+        return tower;
+    }
+
+    /** Sends every aircraft that has been AWAY for a tick on to the next airport. */
+    private static Federation.Router nextAirport(int count) {
+        return (shard, aircraft) -> aircraft.getFuelAmount() < 20000 ? (shard + 1) % count : shard;
+    }
+
+    private static String describe(List<ControlTower> towers) {
+        StringBuilder description = new StringBuilder();
+        for (ControlTower tower : towers) {
+            description.append("tick ").append(tower.getTickCount());
+            for (Aircraft aircraft : tower.getAircraft()) {
+                description.append('\n').append(aircraft).append(' ')
+                        .append(aircraft.getFuelAmount()).append(' ')
+                        .append(tower.findGateOfAircraft(aircraft));
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+
+    private List<SocketAddress> unixAddresses(int count) {
+        List<SocketAddress> addresses = new ArrayList<SocketAddress>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(UnixDomainSocketAddress.of(directory.resolve("node" + i)));
+        }
+        return addresses;
+    }
+
+    private static List<SocketAddress> loopbackAddresses(int count) throws IOException {
+        List<SocketAddress> addresses = new ArrayList<SocketAddress>();
+        for (int i = 0; i < count; i++) {
+            try (ServerSocketChannel probe = ServerSocketChannel.open()) {
+                probe.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                addresses.add(probe.getLocalAddress());
+            }
+        }
+        return addresses;
+    }
+
+    private interface NodeRun {
+        String run(ClusterNode node) throws IOException;
+    }
+
+    /** Runs every node on its own thread, returning the description each run returns. */
+    private List<String> runCluster(List<SocketAddress> addresses, List<List<ControlTower>> towers,
+                                    Federation.Router router, NodeRun run) throws Exception {
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (int i = 0; i < addresses.size(); i++) {
+            int node = i;
+            results.add(nodeThreads.submit(() -> {
+                try (ClusterNode clusterNode = new ClusterNode(addresses, node, towers.get(node),
+                        router, 10000)) {
+                    return run.run(clusterNode);
+                }
+            }));
+        }
+        List<String> descriptions = new ArrayList<String>();
+        for (Future<String> result : results) {
+            descriptions.add(result.get());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void matchesFederationTest() throws Exception {
+        List<ControlTower> federated = new ArrayList<ControlTower>();
+        for (int shard = 0; shard < 4; shard++) {
+            federated.add(airport(shard));
+        }
+        new Federation(federated, nextAirport(4)).advance(30);
+
+        List<List<ControlTower>> towers = new ArrayList<List<ControlTower>>();
+        towers.add(List.of(airport(0)));
+        towers.add(List.of(airport(1), airport(2)));
+        towers.add(List.of(airport(3)));
+        List<String> nodes = runCluster(unixAddresses(3), towers, nextAirport(4), node -> {
+            assertEquals(4, node.getShardCount());
+            node.advance(10);
+            node.advance(20);
+            assertEquals(30, node.getTickCount());
+            return describe(node.getTowers());
+        });
+
+        assertEquals("Cluster should give the same results as a federation",
+                describe(federated), String.join("", nodes));
+        try (var files = Files.list(directory)) {
+            assertEquals("Sockets should be removed on close", 0, files.count());
+        }
+    }
+
+    @Test
+    public void tcpLoopbackTest() throws Exception {
+        List<List<ControlTower>> towers = new ArrayList<List<ControlTower>>();
+        for (int shard = 0; shard < 3; shard++) {
+            towers.add(List.of(airport(shard)));
+        }
+        List<String> counts = runCluster(loopbackAddresses(3), towers, nextAirport(3), node -> {
+            assertEquals(node.getNode(), node.getFirstShard());
+            node.advance(25);
+            return node.getTowers().get(0).getAircraft().size() + " " + node.getHandoffCount();
+        });
+
+        int aircraft = 0;
+        for (String count : counts) {
+            aircraft += Integer.parseInt(count.split(" ")[0]);
+            assertTrue("Every node should hand aircraft over",
+                    Long.parseLong(count.split(" ")[1]) > 0);
+        }
+        assertEquals("No aircraft should be lost in transit", 9, aircraft);
+    }
+
+    @Test
+    public void largeBatchTest() throws Exception {
+        List<List<ControlTower>> towers = new ArrayList<List<ControlTower>>();
+        for (int shard = 0; shard < 2; shard++) {
+            ControlTower tower = new ControlTower();
+            for (int i = 0; i < 20000; i++) {
+                List<Task> tasks = List.of(new Task(TaskType.AWAY), new Task(TaskType.AWAY));
+                tower.tryAddAircraft(new PassengerAircraft("LONG-CALLSIGN-" + shard + "-" + i,
+                        AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks), 20000, 0));
+            }
+            towers.add(List.of(tower));
+        }
+        // every aircraft swaps airports on every tick, in messages larger than socket buffers
+        List<String> sizes = runCluster(unixAddresses(2), towers,
+                (shard, aircraft) -> 1 - shard, node -> {
+                    node.advance(3);
+                    return node.getTowers().get(0).getAircraft().get(0).getCallsign();
+                });
+        assertTrue(sizes.get(0).startsWith("LONG-CALLSIGN-1-"));
+        assertTrue(sizes.get(1).startsWith("LONG-CALLSIGN-0-"));
+    }
+
+    @Test
+    public void peerMissingTest() throws Exception {
+        List<SocketAddress> addresses = unixAddresses(2);
+        try {
+            new ClusterNode(addresses, 1, List.of(airport(0)), nextAirport(1), 100);
+            fail("Node should not start without the rest of the cluster");
+        } catch (IOException e) {
+            assertFalse(Files.exists(directory.resolve("node1")));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidNodeTest() throws Exception {
+        new ClusterNode(unixAddresses(2), 2, List.of(), nextAirport(1));
+    }
+
+    @Test
+    public void nodeLeavesTest() throws Exception {
+        List<SocketAddress> addresses = unixAddresses(2);
+        List<List<ControlTower>> towers = List.of(List.of(airport(0)), List.of(airport(1)));
+        try {
+            runCluster(addresses, towers, nextAirport(2), node -> {
+                if (node.getNode() == 1) {
+                    node.advance(2);
+                    return "left";
+                }
+                try {
+                    node.advance(5);
+                    fail("Node should notice the rest of the cluster leaving");
+                } catch (IOException e) {
+                    // expected
+                }
+                try {
+                    node.advance(1);
+                    fail("Node should stay broken");
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+                return "broken";
+            });
+        } catch (ExecutionException e) {
+            throw new AssertionError(e.getCause());
+        }
+    }
+}
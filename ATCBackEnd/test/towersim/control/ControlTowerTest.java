@@ -5,6 +5,8 @@ import org.junit.After;
 import org.junit.Test;
 import towersim.aircraft.Aircraft;
 import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.AircraftStore;
+import towersim.aircraft.AircraftType;
 import towersim.aircraft.FreightAircraft;
 import towersim.aircraft.PassengerAircraft;
 import towersim.ground.AirplaneTerminal;
@@ -19,6 +21,9 @@ import towersim.util.NoSuitableGateException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -264,6 +269,28 @@ public class ControlTowerTest {
         assertTrue(expected);
     }
 
+    @Test
+    public void findUnoccupiedGateAfterAircraftLeavesTest() {
+        Gate gate = null;
+
+        try {
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addTerminal(airplaneTerminal2);
+            airplaneTerminal.addGate(gate1);
+            airplaneTerminal2.addGate(gate2);
+            gate1.parkAircraft(passengerAircraft);
+            gate2.parkAircraft(freightAircraft);
+        } catch (NoSpaceException e) {}
+
+        gate1.aircraftLeaves();
+
+        try {
+            gate = controlTower.findUnoccupiedGate(freightAircraft);
+        } catch (NoSuitableGateException e) {}
+
+        assertEquals("Incorrect Gate found", gate1, gate);
+    }
+
     @Test
     public void addAircraftTest() {
         ArrayList<Aircraft> expected = new ArrayList<Aircraft>();
@@ -292,4 +319,709 @@ public class ControlTowerTest {
 
         assertEquals("Incorrect gate of aircraft", gate1, controlTower.findGateOfAircraft(passengerAircraft));
     }
+
+    @Test
+    public void findGateOfAircraftAfterLeavingTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            gate1.parkAircraft(passengerAircraft);
+        } catch (NoSpaceException e) {}
+
+        gate1.aircraftLeaves();
+
+        assertNull("Aircraft should not have a gate", controlTower.findGateOfAircraft(passengerAircraft));
+    }
+
+    @Test
+    public void getParkedAircraftTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            airplaneTerminal.addGate(gate2);
+            helicopterTerminal.addGate(gate3);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addTerminal(helicopterTerminal);
+            gate2.parkAircraft(freightAircraft);
+            gate3.parkAircraft(helicopter1);
+        } catch (NoSpaceException e) {}
+
+        assertEquals("Incorrect number of parked aircraft", 2, controlTower.getParkedAircraft().size());
+        assertEquals("Incorrect gate of aircraft", gate2, controlTower.getParkedAircraft().get(freightAircraft));
+        assertEquals("Incorrect gate of aircraft", gate3, controlTower.getParkedAircraft().get(helicopter1));
+    }
+
+    @Test
+    public void parallelTickMatchesSerialTickTest() throws NoSpaceException {
+        ControlTower serialTower = new ControlTower();
+        ControlTower parallelTower = new ControlTower();
+        ForkJoinPool tickPool = new ForkJoinPool(4);
+        parallelTower.setTickPool(tickPool);
+
+        List<Task> awayTasks = new ArrayList<Task>();
+        awayTasks.add(new Task(TaskType.AWAY));
+        awayTasks.add(new Task(TaskType.LAND));
+        List<Task> loadTasks = new ArrayList<Task>();
+        loadTasks.add(new Task(TaskType.LOAD, 40));
+        loadTasks.add(new Task(TaskType.TAKEOFF));
+        loadTasks.add(new Task(TaskType.AWAY));
+        loadTasks.add(new Task(TaskType.LAND));
+        loadTasks.add(new Task(TaskType.WAIT));
+
+        for (int i = 0; i < 50; i++) {
+            Terminal serialTerminal = new AirplaneTerminal(i + 1);
+            Terminal parallelTerminal = new AirplaneTerminal(i + 1);
+            for (int j = 0; j < 6; j++) {
+                serialTerminal.addGate(new Gate(6 * i + j + 1));
+                parallelTerminal.addGate(new Gate(6 * i + j + 1));
+            }
+            serialTower.addTerminal(serialTerminal);
+            parallelTower.addTerminal(parallelTerminal);
+        }
+
+        // enough aircraft to be split across the pool, every tenth loading at one of the gates
+        for (int i = 0; i < 3000; i++) {
+            List<Task> tasks = i % 10 == 0 ? loadTasks : awayTasks;
+            try {
+                serialTower.addAircraft(new PassengerAircraft("S" + i, AircraftCharacteristics.AIRBUS_A320,
+                        new TaskList(tasks), 27200 - i, i % 150));
+                parallelTower.addAircraft(new PassengerAircraft("P" + i, AircraftCharacteristics.AIRBUS_A320,
+                        new TaskList(tasks), 27200 - i, i % 150));
+            } catch (NoSuitableGateException e) {}
+        }
+
+        try {
+            for (int tick = 0; tick < 5; tick++) {
+                serialTower.tick();
+                parallelTower.tick();
+            }
+        } finally {
+            tickPool.shutdown();
+        }
+
+        assertEquals("Parallel tower should manage the same aircraft",
+                serialTower.getAircraft().size(), parallelTower.getAircraft().size());
+        for (int i = 0; i < serialTower.getAircraft().size(); i++) {
+            PassengerAircraft serial = (PassengerAircraft) serialTower.getAircraft().get(i);
+            PassengerAircraft parallel = (PassengerAircraft) parallelTower.getAircraft().get(i);
+            assertEquals("Parallel tick should match serial fuel", serial.getFuelAmount(),
+                    parallel.getFuelAmount(), 0);
+            assertEquals("Parallel tick should match serial passengers",
+                    serial.getNumPassengers(), parallel.getNumPassengers());
+            assertEquals("Parallel tick should match serial task",
+                    serial.getTaskList().getCurrentTaskPosition(),
+                    parallel.getTaskList().getCurrentTaskPosition());
+        }
+    }
+
+    @Test
+    public void getAircraftViewTest() {
+        List<Aircraft> view = controlTower.getAircraftView();
+        assertEquals("View should start empty", 0, view.size());
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addAircraft(passengerAircraft);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        assertEquals("View should reflect added aircraft", controlTower.getAircraft(), view);
+        assertEquals("View should reflect added terminals", controlTower.getTerminals(),
+                controlTower.getTerminalsView());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getTerminalsViewIsReadOnlyTest() {
+        controlTower.getTerminalsView().add(airplaneTerminal);
+    }
+
+    @Test
+    public void tryAddAircraftTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+        } catch (NoSpaceException e) {}
+
+        assertEquals("Aircraft should be parked", AdmissionResult.PARKED,
+                controlTower.tryAddAircraft(passengerAircraft));
+        assertEquals("No gate should be left", AdmissionResult.NO_SUITABLE_GATE,
+                controlTower.tryAddAircraft(freightAircraft));
+        assertNull("No gate should be found", controlTower.tryFindUnoccupiedGate(freightAircraft));
+        assertEquals("Incorrect admitted aircraft", 1, controlTower.getAircraft().size());
+    }
+
+    @Test
+    public void calculateOccupancyLevelTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            airplaneTerminal.addGate(gate2);
+            gate1.parkAircraft(passengerAircraft);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addTerminal(helicopterTerminal);
+            helicopterTerminal.addGate(gate3);
+            helicopterTerminal.addGate(gate4);
+            helicopterTerminal.addGate(gate5);
+            helicopterTerminal.addGate(gate6);
+            gate3.parkAircraft(helicopter1);
+            gate4.parkAircraft(helicopter2);
+        } catch (NoSpaceException e) {}
+
+        assertEquals("Incorrect airport occupancy", 50, controlTower.calculateOccupancyLevel());
+        assertEquals("Incorrect airplane occupancy", 50,
+                controlTower.calculateOccupancyLevel(AircraftType.AIRPLANE));
+        assertEquals("Incorrect helicopter occupancy", 50,
+                controlTower.calculateOccupancyLevel(AircraftType.HELICOPTER));
+
+        gate1.aircraftLeaves();
+
+        assertEquals("Incorrect occupied gate count", 2, controlTower.getOccupiedGateCount());
+        assertEquals("Incorrect gate count", 6, controlTower.getGateCount());
+        assertEquals("Incorrect airplane occupancy", 0,
+                controlTower.calculateOccupancyLevel(AircraftType.AIRPLANE));
+    }
+
+    @Test
+    public void tryAddAircraftConcurrentlyTest() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            Terminal terminal = new AirplaneTerminal(i);
+            for (int j = 0; j < Terminal.MAX_NUM_GATES; j++) {
+                try {
+                    terminal.addGate(new Gate(j));
+                } catch (NoSpaceException e) {}
+            }
+            controlTower.addTerminal(terminal);
+        }
+
+        int numThreads = 8;
+        int aircraftPerThread = 100;
+        AtomicInteger parked = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < numThreads; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < aircraftPerThread; i++) {
+                    Aircraft aircraft = new PassengerAircraft("T" + thread + "A" + i,
+                            AircraftCharacteristics.AIRBUS_A320, taskList, 10000, 50);
+                    if (controlTower.tryAddAircraftConcurrently(aircraft) == AdmissionResult.PARKED) {
+                        parked.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("Every gate should be claimed once", 300, parked.get());
+        assertEquals("Incorrect admitted aircraft", 300, controlTower.getAircraft().size());
+        assertEquals("Incorrect parked aircraft", 300, controlTower.getParkedAircraft().size());
+        assertEquals("Incorrect occupancy", 100, controlTower.calculateOccupancyLevel());
+        assertNull("No gate should be left", controlTower.tryFindUnoccupiedGate(passengerAircraft));
+    }
+
+    @Test
+    public void taskLifecycleTest() {
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.AWAY));
+        cycle.add(new Task(TaskType.LAND));
+        cycle.add(new Task(TaskType.LOAD, 50));
+        cycle.add(new Task(TaskType.TAKEOFF));
+        PassengerAircraft aircraft = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 10000, 0);
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addAircraft(aircraft);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+        controlTower.enableTaskLifecycle();
+
+        controlTower.tick();
+        assertEquals("Aircraft should have landed", gate1, controlTower.findGateOfAircraft(aircraft));
+        assertEquals(TaskType.LOAD, aircraft.getTaskList().getCurrentTask().getType());
+
+        controlTower.tick();
+        assertEquals(TaskType.LOAD, aircraft.getTaskList().getCurrentTask().getType());
+
+        controlTower.tick();
+        assertFalse("Gate should be released on takeoff", gate1.isOccupied());
+        assertEquals(TaskType.AWAY, aircraft.getTaskList().getCurrentTask().getType());
+        assertEquals("Aircraft should be loaded over two ticks", 76, aircraft.getNumPassengers());
+    }
+
+    @Test
+    public void taskLifecycleEmergencyLandsFirstTest() {
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.LAND));
+        cycle.add(new Task(TaskType.WAIT));
+        PassengerAircraft first = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 1000, 0);
+        PassengerAircraft emergency = new PassengerAircraft("DEF456",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 20000, 0);
+        emergency.declareEmergency();
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.enableTaskLifecycle();
+            controlTower.addAircraft(first);
+            controlTower.addAircraft(emergency);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        assertEquals("Both aircraft should be queued to land", 2, controlTower.getLandingQueueLength());
+        controlTower.tick();
+        assertEquals("Emergency aircraft should land first", emergency, gate1.getAircraftAtGate());
+        assertEquals("Other aircraft should keep waiting", 1, controlTower.getLandingQueueLength());
+    }
+
+    @Test
+    public void taskLifecycleHelicopterDoesNotBlockAirplaneTest() {
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.LAND));
+        cycle.add(new Task(TaskType.WAIT));
+        PassengerAircraft helicopter = new PassengerAircraft("GHI123",
+                AircraftCharacteristics.ROBINSON_R44, new TaskList(cycle), 30, 3);
+        PassengerAircraft airplane = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 20000, 0);
+        helicopter.declareEmergency();
+        TowerMetrics metrics = controlTower.enableMetrics();
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.enableTaskLifecycle();
+            controlTower.addAircraft(helicopter);
+            controlTower.addAircraft(airplane);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        controlTower.tick();
+        assertEquals("Airplane should land while helicopter has no gate", airplane,
+                gate1.getAircraftAtGate());
+        assertEquals("Helicopter should keep waiting", 1, controlTower.getLandingQueueLength());
+
+        for (int i = 0; i < 5; i++) {
+            controlTower.tick();
+        }
+        assertEquals("Waiting to land should not count as failed allocations", 0L,
+                (long) metrics.getGateAllocationFailures().get("HELICOPTER"));
+    }
+
+    @Test
+    public void eventDrivenTicksMatchTicksTest() {
+        ControlTower eventTower = new ControlTower();
+        eventTower.enableEventDrivenTicks();
+
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.AWAY));
+        cycle.add(new Task(TaskType.LAND));
+        PassengerAircraft ticked = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 10000, 0);
+        PassengerAircraft skipped = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 10000, 0);
+
+        try {
+            controlTower.addAircraft(ticked);
+            eventTower.addAircraft(skipped);
+        } catch (NoSuitableGateException e) {}
+
+        for (int i = 0; i < 1000; i++) {
+            controlTower.tick();
+        }
+        eventTower.advance(1000);
+
+        assertEquals("Incorrect tick count", 1000, eventTower.getTickCount());
+        assertEquals("Event-driven ticks should match ticks", ticked.getFuelAmount(),
+                skipped.getFuelAmount(), 0);
+        assertTrue("Aircraft should have run out of fuel", skipped.isQuiescent());
+    }
+
+    @Test
+    public void eventDrivenTicksWithConcurrentAdmissionTest() {
+        ControlTower eventTower = new ControlTower();
+        eventTower.enableEventDrivenTicks();
+
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.AWAY));
+        cycle.add(new Task(TaskType.LAND));
+        PassengerAircraft ticked = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 10000, 0);
+        PassengerAircraft admitted = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 10000, 0);
+
+        assertEquals(AdmissionResult.ADMITTED, controlTower.tryAddAircraft(ticked));
+        assertEquals(AdmissionResult.ADMITTED, eventTower.tryAddAircraftConcurrently(admitted));
+        for (int i = 0; i < 5; i++) {
+            controlTower.tick();
+        }
+        eventTower.advance(5);
+
+        assertTrue("Aircraft should have burned fuel", admitted.getFuelAmount() < 10000);
+        assertEquals("Concurrently admitted aircraft should be ticked", ticked.getFuelAmount(),
+                admitted.getFuelAmount(), 0);
+    }
+
+    @Test
+    public void eventDrivenTicksWithTaskLifecycleTest() {
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.LOAD, 100));
+        cycle.add(new Task(TaskType.TAKEOFF));
+        cycle.add(new Task(TaskType.AWAY));
+        cycle.add(new Task(TaskType.LAND));
+        PassengerAircraft aircraft = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 10000, 0);
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.enableTaskLifecycle();
+            controlTower.enableEventDrivenTicks();
+            controlTower.addAircraft(aircraft);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        controlTower.advance(1);
+        assertEquals("Aircraft should still be loading", TaskType.LOAD,
+                aircraft.getTaskList().getCurrentTask().getType());
+
+        controlTower.advance(1);
+        assertEquals("Aircraft should have taken off", TaskType.AWAY,
+                aircraft.getTaskList().getCurrentTask().getType());
+        assertEquals("Aircraft should be refuelled", 27200, aircraft.getFuelAmount(), 0);
+
+        controlTower.advance(1);
+        assertEquals("Aircraft should have departed and landed again", gate1,
+                controlTower.findGateOfAircraft(aircraft));
+        assertEquals(TaskType.LOAD, aircraft.getTaskList().getCurrentTask().getType());
+    }
+
+    @Test
+    public void scheduleTest() {
+        List<Long> fired = new ArrayList<Long>();
+        controlTower.schedule(5, () -> fired.add(controlTower.getTickCount()));
+        controlTower.schedule(70000, () -> fired.add(controlTower.getTickCount()));
+        controlTower.schedule(3, () -> fired.add(-1L)).cancel();
+        assertEquals(2, controlTower.getPendingTimerCount());
+
+        controlTower.enableEventDrivenTicks();
+        controlTower.advance(100000);
+        assertEquals("Timers fired on the wrong ticks", List.of(5L, 70000L), fired);
+        assertEquals(0, controlTower.getPendingTimerCount());
+        assertEquals(100000, controlTower.getTickCount());
+    }
+
+    @Test
+    public void emergencyRegistryTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addTerminal(helicopterTerminal);
+            controlTower.addAircraft(passengerAircraft);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+        helicopter1.declareEmergency();
+        try {
+            helicopterTerminal.addGate(gate2);
+            controlTower.addAircraft(helicopter1);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        assertEquals("Aircraft in emergency when added should be recorded", 1,
+                controlTower.getAircraftInEmergency().size());
+
+        passengerAircraft.declareEmergency();
+        helicopterTerminal.declareEmergency();
+        assertEquals("Incorrect emergency count", 3, controlTower.getEmergencyCount());
+        List<Aircraft> inEmergency = new ArrayList<Aircraft>(controlTower.getAircraftInEmergency());
+        assertEquals("Aircraft should be listed in declaration order", helicopter1,
+                inEmergency.get(0));
+        assertTrue(controlTower.getTerminalsInEmergency().contains(helicopterTerminal));
+
+        helicopter1.clearEmergency();
+        helicopterTerminal.clearEmergency();
+        assertEquals("Incorrect emergency count", 1, controlTower.getEmergencyCount());
+        assertTrue(controlTower.getTerminalsInEmergency().isEmpty());
+    }
+
+    @Test
+    public void gateSearchSkipsTerminalsInEmergencyTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            airplaneTerminal2.addGate(gate2);
+        } catch (NoSpaceException e) {}
+        controlTower.addTerminal(airplaneTerminal);
+        controlTower.addTerminal(airplaneTerminal2);
+
+        airplaneTerminal.declareEmergency();
+        assertEquals("Terminal in emergency should be skipped", gate2,
+                controlTower.tryFindUnoccupiedGate(passengerAircraft));
+
+        airplaneTerminal2.declareEmergency();
+        assertNull("Every terminal is in emergency",
+                controlTower.tryFindUnoccupiedGate(passengerAircraft));
+
+        airplaneTerminal.clearEmergency();
+        assertEquals("Terminal should be used again once cleared", gate1,
+                controlTower.tryFindUnoccupiedGate(passengerAircraft));
+    }
+
+    @Test
+    public void emergencyAircraftTickedFirstTest() {
+        List<String> order = new ArrayList<String>();
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.AWAY));
+        cycle.add(new Task(TaskType.LAND));
+        List<PassengerAircraft> fleet = new ArrayList<PassengerAircraft>();
+        for (String callsign : new String[] {"AAA111", "BBB222", "CCC333"}) {
+            fleet.add(new PassengerAircraft(callsign, AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(cycle), 10000, 0) {
+                @Override
+                public void tick() {
+                    order.add(getCallsign());
+                    super.tick();
+                }
+            });
+        }
+        try {
+            for (PassengerAircraft aircraft : fleet) {
+                controlTower.addAircraft(aircraft);
+            }
+        } catch (NoSuitableGateException e) {}
+        fleet.get(2).declareEmergency();
+
+        controlTower.tick();
+        assertEquals("[CCC333, AAA111, BBB222]", order.toString());
+
+        order.clear();
+        controlTower.enableEventDrivenTicks();
+        controlTower.tick();
+        assertEquals("Emergency aircraft should be ticked first", "CCC333", order.get(0));
+        assertEquals("Every aircraft should be ticked once", 3, order.size());
+    }
+
+    @Test
+    public void emergencyRequeuesLandingAircraftTest() {
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.LAND));
+        cycle.add(new Task(TaskType.WAIT));
+        PassengerAircraft lowFuel = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 1000, 0);
+        PassengerAircraft later = new PassengerAircraft("DEF456",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 20000, 0);
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.enableTaskLifecycle();
+            controlTower.addAircraft(lowFuel);
+            controlTower.addAircraft(later);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        later.declareEmergency();
+        controlTower.tick();
+        assertEquals("Aircraft declaring emergency while queued should land first", later,
+                gate1.getAircraftAtGate());
+    }
+
+    @Test
+    public void emergencyClearedRequeuesLandingAircraftTest() {
+        List<Task> cycle = new ArrayList<Task>();
+        cycle.add(new Task(TaskType.LAND));
+        cycle.add(new Task(TaskType.WAIT));
+        PassengerAircraft lowFuel = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 1000, 0);
+        PassengerAircraft later = new PassengerAircraft("DEF456",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(cycle), 20000, 0);
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.enableTaskLifecycle();
+            controlTower.addAircraft(lowFuel);
+            controlTower.addAircraft(later);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+
+        later.declareEmergency();
+        later.clearEmergency();
+        later.clearEmergency();
+        assertEquals("Both aircraft should still be queued to land", 2,
+                controlTower.getLandingQueueLength());
+        controlTower.tick();
+        assertEquals("Aircraft clearing its emergency should go back to its place", lowFuel,
+                gate1.getAircraftAtGate());
+    }
+
+    @Test
+    public void removeAircraftTest() {
+        try {
+            airplaneTerminal.addGate(gate1);
+            helicopterTerminal.addGate(gate2);
+            controlTower.addTerminal(airplaneTerminal);
+            controlTower.addTerminal(helicopterTerminal);
+            controlTower.addAircraft(passengerAircraft);
+            controlTower.addAircraft(helicopter1);
+        } catch (NoSpaceException | NoSuitableGateException e) {}
+        controlTower.useColumnarStore();
+        passengerAircraft.declareEmergency();
+
+        assertTrue(controlTower.removeAircraft(passengerAircraft));
+        assertFalse("Aircraft should only be removed once",
+                controlTower.removeAircraft(passengerAircraft));
+        assertFalse("Gate should be released", gate1.isOccupied());
+        assertEquals(1, controlTower.getAircraft().size());
+        assertTrue(controlTower.getAircraftInEmergency().isEmpty());
+
+        passengerAircraft.clearEmergency();
+        assertEquals("Removed aircraft should keep its state", 10000,
+                passengerAircraft.getFuelAmount(), 0);
+        assertEquals(50, passengerAircraft.getNumPassengers());
+        assertEquals("Tower should stop listening to removed aircraft", 0,
+                controlTower.getEmergencyCount());
+
+        controlTower.tick();
+        assertEquals(helicopter1, controlTower.getAircraft().get(0));
+    }
+
+    @Test
+    public void addAircraftAsyncTest() throws NoSpaceException, InterruptedException,
+            ExecutionException {
+        airplaneTerminal.addGate(gate1);
+        airplaneTerminal2.addGate(gate2);
+        controlTower.addTerminal(airplaneTerminal);
+        controlTower.enableTerminalActors(ForkJoinPool.commonPool());
+        controlTower.addTerminal(airplaneTerminal2);
+        assertNotNull("Terminals added later should get an actor",
+                controlTower.getTerminalActor(airplaneTerminal2));
+
+        PassengerAircraft extra = new PassengerAircraft("XYZ789",
+                AircraftCharacteristics.AIRBUS_A320, taskList, 0, 0);
+        assertEquals(AdmissionResult.PARKED,
+                controlTower.addAircraftAsync(passengerAircraft).get());
+        assertEquals("Next terminal should be asked once the first is full",
+                AdmissionResult.PARKED, controlTower.addAircraftAsync(freightAircraft).get());
+        assertEquals(AdmissionResult.NO_SUITABLE_GATE, controlTower.addAircraftAsync(extra).get());
+
+        assertEquals(2, controlTower.getAircraft().size());
+        assertEquals(gate1, controlTower.findGateOfAircraft(passengerAircraft));
+        assertEquals(gate2, controlTower.findGateOfAircraft(freightAircraft));
+    }
+
+    @Test
+    public void terminalActorEmergencyTest() throws NoSpaceException, InterruptedException,
+            ExecutionException {
+        airplaneTerminal.addGate(gate1);
+        airplaneTerminal2.addGate(gate2);
+        controlTower.addTerminal(airplaneTerminal);
+        controlTower.addTerminal(airplaneTerminal2);
+        controlTower.enableTerminalActors(ForkJoinPool.commonPool());
+
+        controlTower.getTerminalActor(airplaneTerminal).declareEmergency().get();
+        assertTrue(controlTower.getTerminalsInEmergency().contains(airplaneTerminal));
+        assertEquals(AdmissionResult.PARKED,
+                controlTower.addAircraftAsync(passengerAircraft).get());
+        assertEquals("Terminal in emergency should be skipped", gate2,
+                controlTower.findGateOfAircraft(passengerAircraft));
+
+        controlTower.getTerminalActor(airplaneTerminal).clearEmergency().get();
+        assertEquals(0, controlTower.getEmergencyCount());
+        assertSame(gate1, controlTower.tryFindUnoccupiedGate(freightAircraft));
+    }
+
+    @Test
+    public void addAircraftBatchTest() throws NoSpaceException {
+        airplaneTerminal.addGate(gate1);
+        helicopterTerminal.addGate(gate2);
+        controlTower.addTerminal(airplaneTerminal);
+        controlTower.addTerminal(helicopterTerminal);
+        List<Task> awayTasks = new ArrayList<Task>();
+        awayTasks.add(new Task(TaskType.AWAY));
+        PassengerAircraft away = new PassengerAircraft("XYZ789",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(awayTasks), 0, 0);
+
+        List<AdmissionResult> results = controlTower.addAircraft(
+                List.of(passengerAircraft, helicopter1, freightAircraft, away));
+        assertEquals(List.of(AdmissionResult.PARKED, AdmissionResult.PARKED,
+                AdmissionResult.NO_SUITABLE_GATE, AdmissionResult.ADMITTED), results);
+        assertEquals(List.of(passengerAircraft, helicopter1, away), controlTower.getAircraft());
+        assertEquals(gate1, controlTower.findGateOfAircraft(passengerAircraft));
+        assertEquals(gate2, controlTower.findGateOfAircraft(helicopter1));
+    }
+
+    @Test
+    public void addAircraftBatchEmergencyTest() throws NoSpaceException {
+        airplaneTerminal.addGate(gate1);
+        controlTower.addTerminal(airplaneTerminal);
+        freightAircraft.declareEmergency();
+
+        assertEquals("Aircraft in emergency should be given gates first",
+                List.of(AdmissionResult.NO_SUITABLE_GATE, AdmissionResult.PARKED),
+                controlTower.addAircraft(List.of(passengerAircraft, freightAircraft)));
+        assertEquals(1, controlTower.getEmergencyCount());
+    }
+
+    @Test
+    public void addAircraftBatchMatchesSequentialTest() throws NoSpaceException {
+        ControlTower sequential = new ControlTower();
+        int gateNumber = 1;
+        for (int i = 0; i < 12; i++) {
+            Terminal batchTerminal = i % 3 == 0
+                    ? new HelicopterTerminal(i) : new AirplaneTerminal(i);
+            Terminal sequentialTerminal = i % 3 == 0
+                    ? new HelicopterTerminal(i) : new AirplaneTerminal(i);
+            for (int gate = 0; gate < 1 + i % Terminal.MAX_NUM_GATES; gate++) {
+                batchTerminal.addGate(new Gate(gateNumber));
+                sequentialTerminal.addGate(new Gate(gateNumber++));
+            }
+            controlTower.addTerminal(batchTerminal);
+            sequential.addTerminal(sequentialTerminal);
+        }
+        controlTower.getTerminals().get(4).declareEmergency();
+        sequential.getTerminals().get(4).declareEmergency();
+
+        List<Aircraft> batch = new ArrayList<Aircraft>();
+        for (int i = 0; i < 60; i++) {
+            batch.add(i % 4 == 0
+                    ? new FreightAircraft("F" + i, AircraftCharacteristics.SIKORSKY_SKYCRANE,
+                            taskList, 0, 0)
+                    : new PassengerAircraft("P" + i, AircraftCharacteristics.AIRBUS_A320,
+                            taskList, 0, 0));
+        }
+        List<AdmissionResult> results = controlTower.addAircraft(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(sequential.tryAddAircraft(batch.get(i)), results.get(i));
+        }
+        assertEquals(sequential.getAircraft(), controlTower.getAircraft());
+        for (Aircraft aircraft : controlTower.getAircraft()) {
+            assertEquals(sequential.findGateOfAircraft(aircraft).getGateNumber(),
+                    controlTower.findGateOfAircraft(aircraft).getGateNumber());
+        }
+    }
+
+    @Test
+    public void rejectedByColumnarStoreKeepsGateTest() throws NoSpaceException {
+        airplaneTerminal.addGate(gate1);
+        controlTower.addTerminal(airplaneTerminal);
+        controlTower.useColumnarStore();
+        PassengerAircraft stored = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks), 10000, 50);
+        new AircraftStore().add(stored);
+
+        try {
+            controlTower.tryAddAircraft(stored);
+            fail("Aircraft already in a store should be rejected");
+        } catch (IllegalArgumentException expected) {}
+        try {
+            controlTower.tryAddAircraftConcurrently(stored);
+            fail("Aircraft already in a store should be rejected");
+        } catch (IllegalArgumentException expected) {}
+        List<Aircraft> batch = new ArrayList<Aircraft>();
+        batch.add(new PassengerAircraft("DEF456", AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(tasks), 10000, 50));
+        batch.add(stored);
+        try {
+            controlTower.addAircraft(batch);
+            fail("Batch with an aircraft already in a store should be rejected");
+        } catch (IllegalArgumentException expected) {}
+
+        assertFalse("Gate should not be kept by a rejected aircraft", gate1.isOccupied());
+        assertEquals("No aircraft should be added", 0, controlTower.getAircraft().size());
+    }
 }
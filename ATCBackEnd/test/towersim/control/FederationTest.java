@@ -0,0 +1,141 @@
+package towersim.control;
+
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FederationTest {
+
+    private static TaskList cycle() {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 40));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        return new TaskList(tasks);
+    }
+
+    private static List<ControlTower> airports(int count) throws NoSpaceException {
+        List<ControlTower> towers = new ArrayList<ControlTower>();
+        for (int i = 0; i < count; i++) {
+            ControlTower tower = new ControlTower();
+            Terminal terminal = new AirplaneTerminal(1);
+            for (int gate = 1; gate <= 4; gate++) {
+                terminal.addGate(new Gate(gate));
+            }
+            tower.addTerminal(terminal);
+            for (int j = 0; j < 3; j++) {
+                tower.tryAddAircraft(new PassengerAircraft("S" + i + "A" + j,
+                        AircraftCharacteristics.AIRBUS_A320, cycle(), 20000, 0));
+            }
+            towers.add(tower);
+        }
+        return towers;
+    }
+
+    /** Sends every aircraft that has been AWAY for a tick on to the next airport. */
+    private static int nextAirport(int shard, Aircraft aircraft, int count) {
+        return aircraft.getFuelAmount() < 20000 ? (shard + 1) % count : shard;
+    }
+
+    private static String describe(Federation federation) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < federation.getShardCount(); i++) {
+            ControlTower tower = federation.getShard(i);
+            description.append("shard ").append(i).append(" tick ").append(tower.getTickCount());
+            for (Aircraft aircraft : tower.getAircraft()) {
+                description.append('\n').append(aircraft).append(' ')
+                        .append(aircraft.getFuelAmount()).append(' ')
+                        .append(tower.findGateOfAircraft(aircraft));
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+
+    @Test
+    public void handoffTest() throws Exception {
+        Federation federation = new Federation(airports(2),
+                (shard, aircraft) -> nextAirport(shard, aircraft, 2));
+        federation.advance(1);
+
+        assertEquals(1, federation.getTickCount());
+        assertEquals(6, federation.getHandoffCount());
+        ControlTower first = federation.getShard(0);
+        assertEquals(3, first.getAircraft().size());
+        for (Aircraft aircraft : first.getAircraft()) {
+            assertTrue("Aircraft should come from the other airport",
+                    aircraft.getCallsign().startsWith("S1"));
+        }
+    }
+
+    @Test
+    public void deterministicTest() throws Exception {
+        String expected = null;
+        for (int run = 0; run < 5; run++) {
+            Federation federation = new Federation(airports(4),
+                    (shard, aircraft) -> nextAirport(shard, aircraft, 4));
+            federation.advance(7);
+            federation.advance(30);
+            String description = describe(federation);
+            if (expected == null) {
+                expected = description;
+            }
+            assertEquals("Federation should not depend on thread scheduling",
+                    expected, description);
+            int total = 0;
+            for (int i = 0; i < federation.getShardCount(); i++) {
+                assertEquals(37, federation.getShard(i).getTickCount());
+                total += federation.getShard(i).getAircraft().size();
+            }
+            assertEquals("No aircraft should be lost in transit", 12, total);
+        }
+    }
+
+    @Test
+    public void routerFailureTest() throws Exception {
+        Federation federation = new Federation(airports(2), (shard, aircraft) -> {
+            throw new IllegalStateException("router down");
+        });
+        try {
+            federation.advance(3);
+            fail("Router failure should propagate");
+        } catch (IllegalStateException e) {
+            assertEquals("router down", e.getMessage());
+        }
+        try {
+            federation.advance(1);
+            fail("Federation should stay broken");
+        } catch (IllegalStateException e) {
+            assertNull(e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownShardTest() throws Exception {
+        new Federation(airports(2), (shard, aircraft) -> 2).advance(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateShardTest() throws Exception {
+        ControlTower tower = new ControlTower();
+        List<ControlTower> shards = new ArrayList<ControlTower>();
+        shards.add(tower);
+        shards.add(tower);
+        new Federation(shards, (shard, aircraft) -> shard);
+    }
+}
@@ -0,0 +1,283 @@
+package towersim.control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+import towersim.util.NoSuitableGateException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MutationLogTest {
+    private Path directory;
+    private ControlTower controlTower;
+    private Terminal airplaneTerminal;
+
+    @Before
+    public void setup() throws IOException, NoSpaceException {
+        this.directory = Files.createTempDirectory("mutations");
+        this.controlTower = new ControlTower();
+        this.airplaneTerminal = new AirplaneTerminal(1);
+        airplaneTerminal.addGate(new Gate(1));
+        controlTower.addTerminal(airplaneTerminal);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static TaskList cycle() {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 60));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        return new TaskList(tasks);
+    }
+
+    private void addFleet() throws NoSpaceException, NoSuitableGateException {
+        controlTower.enableTaskLifecycle();
+        for (int i = 0; i < 6; i++) {
+            controlTower.addAircraft(new PassengerAircraft("P" + i,
+                    AircraftCharacteristics.AIRBUS_A320, cycle(), 20000, 0));
+        }
+        Terminal helicopterTerminal = new HelicopterTerminal(2);
+        controlTower.addTerminal(helicopterTerminal);
+        helicopterTerminal.addGate(new Gate(2));
+        airplaneTerminal.addGate(new Gate(3));
+        controlTower.addAircraft(new FreightAircraft("F1",
+                AircraftCharacteristics.BOEING_747_8F, cycle(), 100000, 0));
+    }
+
+    private static String describe(ControlTower tower) {
+        StringBuilder description = new StringBuilder("tick " + tower.getTickCount());
+        for (Aircraft aircraft : tower.getAircraft()) {
+            description.append('\n').append(aircraft).append(' ')
+                    .append(aircraft.getFuelAmount()).append(' ')
+                    .append(aircraft.calculateOccupancyLevel()).append(' ')
+                    .append(tower.findGateOfAircraft(aircraft));
+        }
+        for (Terminal terminal : tower.getTerminals()) {
+            description.append('\n').append(terminal).append(' ').append(terminal.hasEmergency());
+        }
+        return description.toString();
+    }
+
+    @Test
+    public void replayTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        controlTower.attachMutationLog(log);
+        addFleet();
+
+        List<String> states = new ArrayList<String>();
+        for (int i = 0; i < 40; i++) {
+            if (i == 5) {
+                controlTower.getAircraft().get(2).declareEmergency();
+                airplaneTerminal.declareEmergency();
+            }
+            if (i == 12) {
+                controlTower.getAircraft().get(2).clearEmergency();
+            }
+            controlTower.tick();
+            states.add(describe(controlTower));
+        }
+        log.close();
+
+        assertEquals(states.get(states.size() - 1), describe(MutationLog.replay(directory)));
+        assertEquals("Replay should stop at the end of the given tick", states.get(9),
+                describe(MutationLog.replay(directory, 10)));
+    }
+
+    @Test
+    public void checkpointTest() throws Exception {
+        MutationLog log = new MutationLog(directory, 64, false);
+        controlTower.attachMutationLog(log);
+        addFleet();
+        for (int i = 0; i < 20; i++) {
+            controlTower.tick();
+        }
+        assertTrue("Segments should roll", segmentCount() > 2);
+
+        log.checkpoint();
+        assertEquals("Checkpoint should truncate old segments", 1, segmentCount());
+        for (int i = 0; i < 20; i++) {
+            controlTower.tick();
+        }
+        log.close();
+
+        assertEquals(describe(controlTower), describe(MutationLog.replay(directory)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replayBeforeCheckpointTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        addFleet();
+        controlTower.tick();
+        controlTower.tick();
+        controlTower.attachMutationLog(log);
+        log.close();
+        MutationLog.replay(directory, 1);
+    }
+
+    @Test
+    public void truncatedRecordTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        controlTower.attachMutationLog(log);
+        addFleet();
+        for (int i = 0; i < 10; i++) {
+            controlTower.tick();
+        }
+        log.close();
+        String expected = describe(controlTower);
+
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            lastSegment = files.filter(f -> f.getFileName().toString().startsWith("segment-"))
+                    .max(Comparator.naturalOrder()).get();
+        }
+        // a tick record cut short, as if the process died while writing it
+        Files.write(lastSegment, new byte[]{11, 0, 0}, StandardOpenOption.APPEND);
+        assertEquals(expected, describe(MutationLog.replay(directory)));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    @Test
+    public void removeAircraftReplayTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        controlTower.attachMutationLog(log);
+        addFleet();
+        controlTower.advance(3);
+
+        Aircraft parked = null;
+        Aircraft away = null;
+        for (Aircraft aircraft : controlTower.getAircraft()) {
+            if (controlTower.findGateOfAircraft(aircraft) != null) {
+                parked = aircraft;
+            } else {
+                away = aircraft;
+            }
+        }
+        assertNotNull(parked);
+        assertNotNull(away);
+        List<Aircraft> removed = new ArrayList<Aircraft>();
+        removed.add(parked);
+        removed.add(away);
+        assertEquals(2, controlTower.removeAircraft(removed));
+        controlTower.advance(2);
+
+        // the aircraft changes while it is away from this tower, then comes back
+        away.tick();
+        away.getTaskList().moveToNextTask();
+        away.declareEmergency();
+        controlTower.tryAddAircraft(away);
+        controlTower.advance(4);
+        log.close();
+
+        assertEquals(describe(controlTower), describe(MutationLog.replay(directory)));
+    }
+
+    @Test
+    public void addAircraftBatchReplayTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        controlTower.attachMutationLog(log);
+        controlTower.enableTaskLifecycle();
+        airplaneTerminal.addGate(new Gate(2));
+        List<Aircraft> batch = new ArrayList<Aircraft>();
+        for (int i = 0; i < 4; i++) {
+            TaskList tasks = cycle();
+            tasks.moveToNextTask();
+            tasks.moveToNextTask();
+            batch.add(new PassengerAircraft("B" + i, AircraftCharacteristics.AIRBUS_A320, tasks,
+                    20000, 0));
+        }
+        controlTower.addAircraft(batch);
+        controlTower.advance(6);
+        log.close();
+
+        assertEquals(describe(controlTower), describe(MutationLog.replay(directory)));
+    }
+
+    @Test
+    public void occupiedGateAddedReplayTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        controlTower.attachMutationLog(log);
+        Aircraft parked = new PassengerAircraft("G1", AircraftCharacteristics.AIRBUS_A320,
+                cycle(), 20000, 0);
+        Gate occupied = new Gate(2);
+        occupied.parkAircraft(parked);
+        airplaneTerminal.addGate(occupied);
+        assertEquals(AdmissionResult.ADMITTED, controlTower.tryAddAircraft(parked));
+        controlTower.advance(2);
+        log.close();
+
+        ControlTower replayed = MutationLog.replay(directory);
+        assertEquals(describe(controlTower), describe(replayed));
+        assertEquals("Replayed gate should be occupied", 50,
+                replayed.calculateOccupancyLevel());
+    }
+
+    @Test
+    public void sharedTaskListReplayTest() throws Exception {
+        MutationLog log = new MutationLog(directory);
+        controlTower.attachMutationLog(log);
+        controlTower.enableTaskLifecycle();
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.AWAY));
+        TaskList shared = new TaskList(tasks);
+        Aircraft first = new PassengerAircraft("S1", AircraftCharacteristics.AIRBUS_A320,
+                shared, 20000, 0);
+        controlTower.tryAddAircraft(first);
+        controlTower.tryAddAircraft(new PassengerAircraft("S2",
+                AircraftCharacteristics.AIRBUS_A320, shared, 20000, 0));
+        controlTower.advance(2);
+
+        List<Aircraft> removed = new ArrayList<Aircraft>();
+        removed.add(first);
+        controlTower.removeAircraft(removed);
+        controlTower.tryAddAircraft(new PassengerAircraft("S3",
+                AircraftCharacteristics.AIRBUS_A320, shared, 20000, 0));
+        controlTower.advance(3);
+        log.close();
+
+        ControlTower replayed = MutationLog.replay(directory);
+        assertEquals(describe(controlTower), describe(replayed));
+        assertSame("Aircraft sharing a task list should still share it on replay",
+                replayed.getAircraft().get(0).getTaskList(),
+                replayed.getAircraft().get(1).getTaskList());
+    }
+}
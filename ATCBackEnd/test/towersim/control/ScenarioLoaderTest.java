@@ -0,0 +1,150 @@
+package towersim.control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.Terminal;
+import towersim.tasks.TaskType;
+import towersim.util.MalformedScenarioException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ScenarioLoaderTest {
+    private static final String SCENARIO = String.join("\n",
+            "# a small airport",
+            "terminal airplane 1",
+            "gate 1 1",
+            "gate 1 2",
+            "terminal helicopter 2 emergency",
+            "",
+            "gate 2 3   # helipad",
+            "passenger ABC123 AIRBUS_A320 27200 120 WAIT,LOAD@60,TAKEOFF,AWAY,LAND",
+            "freight DEF456 BOEING_747_8F 1000.5 0 AWAY,LAND,LOAD@100,TAKEOFF emergency",
+            "freight GHI789 SIKORSKY_SKYCRANE 3000 9100 LOAD,TAKEOFF,AWAY,LAND",
+            "");
+
+    private Path file;
+
+    @Before
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("scenario", ".txt");
+    }
+
+    @After
+    public void teardown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private ControlTower load(String scenario, int chunkSize)
+            throws IOException, MalformedScenarioException {
+        Files.writeString(file, scenario);
+        return new ScenarioLoader(ForkJoinPool.commonPool(), chunkSize).load(file);
+    }
+
+    private void assertMalformed(String scenario, String expectedLine) throws IOException {
+        try {
+            load(scenario, 16);
+            fail("Scenario should be rejected");
+        } catch (MalformedScenarioException e) {
+            assertTrue("Wrong line reported: " + e.getMessage(),
+                    e.getMessage().startsWith(expectedLine + ":"));
+        }
+    }
+
+    @Test
+    public void loadTest() throws IOException, MalformedScenarioException {
+        ControlTower tower = load(SCENARIO, ScenarioLoader.DEFAULT_CHUNK_SIZE);
+
+        List<Terminal> terminals = tower.getTerminals();
+        assertEquals(2, terminals.size());
+        assertEquals(2, terminals.get(0).getGates().size());
+        assertTrue(terminals.get(1).hasEmergency());
+        assertEquals(3, tower.getGateCount());
+
+        List<Aircraft> aircraft = tower.getAircraft();
+        assertEquals(3, aircraft.size());
+        PassengerAircraft passenger = (PassengerAircraft) aircraft.get(0);
+        assertEquals("ABC123", passenger.getCallsign());
+        assertEquals(120, passenger.getNumPassengers());
+        assertEquals(TaskType.WAIT, passenger.getTaskList().getCurrentTask().getType());
+        assertEquals(60, passenger.getTaskList().getNextTask().getLoadPercent());
+        assertEquals(terminals.get(0), tower.findGateOfAircraft(passenger).getTerminal());
+
+        FreightAircraft away = (FreightAircraft) aircraft.get(1);
+        assertEquals(1000.5, away.getFuelAmount(), 0);
+        assertTrue(away.hasEmergency());
+        assertNull("Away aircraft should not be parked", tower.findGateOfAircraft(away));
+
+        assertEquals(terminals.get(1), tower.findGateOfAircraft(aircraft.get(2)).getTerminal());
+        assertEquals(2, tower.getOccupiedGateCount());
+    }
+
+    @Test
+    public void smallChunksTest() throws IOException, MalformedScenarioException {
+        ControlTower whole = load(SCENARIO, ScenarioLoader.DEFAULT_CHUNK_SIZE);
+        ControlTower chunked = load(SCENARIO, 7);
+        assertEquals(whole.getAircraft().toString(), chunked.getAircraft().toString());
+        assertEquals(whole.getTerminals().toString(), chunked.getTerminals().toString());
+        assertEquals(whole.getParkedAircraft().size(), chunked.getParkedAircraft().size());
+    }
+
+    @Test
+    public void unknownModelTest() throws IOException {
+        assertMalformed(SCENARIO + "passenger X AIRBUS_A999 0 0 AWAY\n", "Line 11");
+    }
+
+    @Test
+    public void fuelOverCapacityTest() throws IOException {
+        assertMalformed("terminal airplane 1\n\npassenger X AIRBUS_A320 27201 0 AWAY\n",
+                "Line 3");
+    }
+
+    @Test
+    public void cargoOverCapacityTest() throws IOException {
+        assertMalformed("freight X SIKORSKY_SKYCRANE 0 9101 AWAY\n", "Line 1");
+    }
+
+    @Test
+    public void wrongCargoTest() throws IOException {
+        assertMalformed("passenger X BOEING_747_8F 0 0 AWAY\n", "Line 1");
+    }
+
+    @Test
+    public void invalidLoadPercentTest() throws IOException {
+        assertMalformed("passenger X AIRBUS_A320 0 0 AWAY,LOAD@101\n", "Line 1");
+    }
+
+    @Test
+    public void unknownTerminalTest() throws IOException {
+        assertMalformed("terminal airplane 1\ngate 2 1\n", "Line 2");
+    }
+
+    @Test
+    public void duplicateTerminalTest() throws IOException {
+        assertMalformed("terminal airplane 1\nterminal helicopter 1\n", "Line 2");
+    }
+
+    @Test
+    public void tooManyGatesTest() throws IOException {
+        StringBuilder scenario = new StringBuilder("terminal airplane 1\n");
+        for (int i = 1; i <= Terminal.MAX_NUM_GATES + 1; i++) {
+            scenario.append("gate 1 ").append(i).append('\n');
+        }
+        assertMalformed(scenario.toString(), "Line " + (Terminal.MAX_NUM_GATES + 2));
+    }
+
+    @Test
+    public void noSuitableGateTest() throws IOException {
+        assertMalformed("terminal helicopter 1\ngate 1 1\n"
+                + "passenger X AIRBUS_A320 0 0 WAIT,TAKEOFF\n", "Line 3");
+    }
+}
@@ -0,0 +1,204 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.*;
+
+public class TowerEventStreamTest {
+    private ControlTower controlTower;
+    private Terminal terminal;
+    private Flow.Publisher<List<TowerEvent>> events;
+    private List<List<TowerEvent>> batches;
+
+    @Before
+    public void setup() throws NoSpaceException {
+        this.controlTower = new ControlTower();
+        this.terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(1));
+        terminal.addGate(new Gate(2));
+        controlTower.addTerminal(terminal);
+        // batches are delivered on the ticking thread, so they can be checked straight away
+        this.events = controlTower.enableEvents(Runnable::run, 16,
+                ControlTower.DEFAULT_LOW_FUEL_PERCENT);
+        this.batches = new ArrayList<List<TowerEvent>>();
+    }
+
+    private void subscribe() {
+        events.subscribe(new Flow.Subscriber<List<TowerEvent>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<TowerEvent> batch) {
+                batches.add(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new AssertionError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    private static TaskList tasks(TaskType... types) {
+        List<Task> tasks = new ArrayList<Task>();
+        for (TaskType type : types) {
+            tasks.add(new Task(type));
+        }
+        return new TaskList(tasks);
+    }
+
+    private List<TowerEvent.Kind> kinds(List<TowerEvent> batch) {
+        List<TowerEvent.Kind> kinds = new ArrayList<TowerEvent.Kind>();
+        for (TowerEvent event : batch) {
+            kinds.add(event.getKind());
+        }
+        return kinds;
+    }
+
+    @Test
+    public void noSubscribersTest() {
+        assertSame(events, controlTower.getEvents());
+        controlTower.tryAddAircraft(new PassengerAircraft("ABC001",
+                AircraftCharacteristics.AIRBUS_A320, tasks(TaskType.WAIT), 0, 0));
+        controlTower.tick();
+        subscribe();
+        controlTower.tick();
+        assertTrue("Changes made without subscribers should not be published",
+                batches.isEmpty());
+    }
+
+    @Test
+    public void gateAndTaskTest() {
+        subscribe();
+        controlTower.enableTaskLifecycle();
+        Aircraft aircraft = new PassengerAircraft("ABC001", AircraftCharacteristics.AIRBUS_A320,
+                tasks(TaskType.WAIT, TaskType.TAKEOFF), 27200, 0);
+        controlTower.tryAddAircraft(aircraft);
+        controlTower.tick();
+
+        assertEquals(1, batches.size());
+        List<TowerEvent> batch = batches.get(0);
+        // parked then left within the tick, so the occupancy level ends where it started
+        assertEquals(List.of(TowerEvent.Kind.AIRCRAFT_PARKED, TowerEvent.Kind.AIRCRAFT_LEFT,
+                TowerEvent.Kind.TASK_MOVED, TowerEvent.Kind.TASK_MOVED), kinds(batch));
+        for (TowerEvent event : batch) {
+            assertEquals("Changes between ticks belong to the next tick", 1, event.getTick());
+            assertSame(aircraft, event.getAircraft());
+        }
+        assertEquals(1, batch.get(0).getGate().getGateNumber());
+        assertSame(terminal, batch.get(1).getTerminal());
+    }
+
+    @Test
+    public void occupancyTest() {
+        subscribe();
+        controlTower.tryAddAircraft(new PassengerAircraft("ABC001",
+                AircraftCharacteristics.AIRBUS_A320, tasks(TaskType.WAIT), 0, 0));
+        controlTower.tick();
+        controlTower.tick();
+
+        assertEquals("Ticks without changes should publish nothing", 1, batches.size());
+        TowerEvent occupancy = batches.get(0).get(1);
+        assertEquals(TowerEvent.Kind.OCCUPANCY_CHANGED, occupancy.getKind());
+        assertSame(terminal, occupancy.getTerminal());
+        assertEquals(50, occupancy.getValue());
+    }
+
+    @Test
+    public void emergencyTest() {
+        subscribe();
+        controlTower.tick();
+        Aircraft aircraft = new PassengerAircraft("ABC001", AircraftCharacteristics.AIRBUS_A320,
+                tasks(TaskType.AWAY), 27200, 0);
+        controlTower.tryAddAircraft(aircraft);
+        aircraft.declareEmergency();
+        terminal.declareEmergency();
+        controlTower.tick();
+        aircraft.clearEmergency();
+        controlTower.tick();
+
+        assertEquals(2, batches.size());
+        assertEquals(List.of(TowerEvent.Kind.EMERGENCY_DECLARED,
+                TowerEvent.Kind.EMERGENCY_DECLARED), kinds(batches.get(0)));
+        assertSame(aircraft, batches.get(0).get(0).getAircraft());
+        assertSame(terminal, batches.get(0).get(1).getTerminal());
+        assertEquals(2, batches.get(0).get(0).getTick());
+        assertEquals(List.of(TowerEvent.Kind.EMERGENCY_CLEARED), kinds(batches.get(1)));
+        assertEquals(3, batches.get(1).get(0).getTick());
+    }
+
+    @Test
+    public void fuelThresholdTest() {
+        subscribe();
+        // each AWAY tick burns 10% of capacity: 35% -> 25% -> 15% -> 5%
+        Aircraft aircraft = new PassengerAircraft("ABC001", AircraftCharacteristics.AIRBUS_A320,
+                tasks(TaskType.AWAY), 9520, 0);
+        controlTower.tryAddAircraft(aircraft);
+        for (int i = 0; i < 3; i++) {
+            controlTower.tick();
+        }
+
+        assertEquals(1, batches.size());
+        TowerEvent low = batches.get(0).get(0);
+        assertEquals(TowerEvent.Kind.FUEL_LOW, low.getKind());
+        assertEquals(2, low.getTick());
+        assertEquals(15, low.getValue());
+        assertEquals("tick 2 FUEL_LOW ABC001 15%", low.toString());
+    }
+
+    @Test
+    public void eventDrivenFuelThresholdTest() {
+        subscribe();
+        controlTower.enableEventDrivenTicks();
+        // burns 35% -> 25% -> 15% -> 5% -> 0%, then stays empty and is no longer ticked
+        Aircraft aircraft = new PassengerAircraft("ABC001", AircraftCharacteristics.AIRBUS_A320,
+                tasks(TaskType.AWAY), 9520, 0);
+        Aircraft parked = new PassengerAircraft("DEF002", AircraftCharacteristics.AIRBUS_A320,
+                tasks(TaskType.WAIT), 0, 0);
+        controlTower.tryAddAircraft(aircraft);
+        controlTower.tryAddAircraft(parked);
+        controlTower.advance(10);
+
+        List<TowerEvent> fuelEvents = new ArrayList<TowerEvent>();
+        for (List<TowerEvent> batch : batches) {
+            for (TowerEvent event : batch) {
+                if (event.getKind() == TowerEvent.Kind.FUEL_LOW
+                        || event.getKind() == TowerEvent.Kind.FUEL_RESTORED) {
+                    fuelEvents.add(event);
+                }
+            }
+        }
+        assertEquals("Only the crossing should be reported", 1, fuelEvents.size());
+        assertEquals("tick 2 FUEL_LOW ABC001 15%", fuelEvents.get(0).toString());
+
+        // ticks 5 to 10 were skipped, so the next change belongs to tick 11
+        batches.clear();
+        aircraft.declareEmergency();
+        controlTower.advance(1);
+        assertEquals(1, batches.size());
+        assertEquals("Changes after skipped ticks should carry the next tick", 11,
+                batches.get(0).get(0).getTick());
+    }
+}
@@ -0,0 +1,153 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TowerMetricsTest {
+    private ControlTower tower;
+    private Terminal terminal;
+    private TaskList waitTasks;
+    private TaskList awayTasks;
+
+    @Before
+    public void setup() throws NoSpaceException {
+        this.tower = new ControlTower();
+        this.terminal = new AirplaneTerminal(1);
+        this.terminal.addGate(new Gate(1));
+        this.tower.addTerminal(terminal);
+
+        List<Task> wait = new ArrayList<Task>();
+        wait.add(new Task(TaskType.WAIT));
+        wait.add(new Task(TaskType.TAKEOFF));
+        this.waitTasks = new TaskList(wait);
+
+        List<Task> away = new ArrayList<Task>();
+        away.add(new Task(TaskType.AWAY));
+        away.add(new Task(TaskType.LAND));
+        this.awayTasks = new TaskList(away);
+    }
+
+    private PassengerAircraft airplane(String callsign, TaskList tasks) {
+        return new PassengerAircraft(callsign, AircraftCharacteristics.AIRBUS_A320, tasks,
+                10000, 0);
+    }
+
+    @Test
+    public void gateAllocationsTest() {
+        TowerMetrics metrics = tower.enableMetrics();
+        assertEquals(AdmissionResult.PARKED,
+                tower.tryAddAircraft(airplane("ABC001", waitTasks)));
+        assertEquals(AdmissionResult.NO_SUITABLE_GATE,
+                tower.tryAddAircraft(airplane("ABC002", waitTasks)));
+        assertEquals(AdmissionResult.NO_SUITABLE_GATE,
+                tower.tryAddAircraft(new PassengerAircraft("HEL001",
+                        AircraftCharacteristics.ROBINSON_R44, waitTasks, 100, 0)));
+        assertEquals(AdmissionResult.ADMITTED,
+                tower.tryAddAircraft(airplane("ABC003", awayTasks)));
+
+        assertEquals(2L, (long) metrics.getGateAllocationAttempts().get("AIRPLANE"));
+        assertEquals(1L, (long) metrics.getGateAllocationSuccesses().get("AIRPLANE"));
+        assertEquals(1L, (long) metrics.getGateAllocationFailures().get("AIRPLANE"));
+        assertEquals(1L, (long) metrics.getGateAllocationFailures().get("HELICOPTER"));
+        assertEquals(0L, (long) metrics.getGateAllocationSuccesses().get("HELICOPTER"));
+
+        long searches = 0;
+        for (long count : metrics.getGateSearchHistogram()) {
+            searches += count;
+        }
+        assertEquals(3, searches);
+        assertEquals(100, (int) metrics.getTerminalOccupancyLevels().get("AirplaneTerminal 1"));
+    }
+
+    @Test
+    public void ticksTest() {
+        tower.tryAddAircraft(airplane("ABC001", awayTasks));
+        tower.tryAddAircraft(airplane("ABC002", awayTasks));
+        TowerMetrics metrics = tower.enableMetrics();
+        assertSame(metrics, tower.enableMetrics());
+        assertSame(metrics, tower.getMetrics());
+
+        tower.tick();
+        tower.tick();
+        tower.tick();
+
+        assertEquals(3, metrics.getTicks());
+        assertEquals(6, metrics.getAircraftTicked());
+        assertTrue(metrics.getTickDurationP99Nanos() >= metrics.getTickDurationP50Nanos());
+        assertTrue(metrics.getTickDurationMeanNanos() > 0);
+        assertTrue(metrics.getAircraftTickedPerSecond() > 0);
+    }
+
+    @Test
+    public void emergenciesTest() {
+        PassengerAircraft inEmergency = airplane("ABC001", awayTasks);
+        inEmergency.declareEmergency();
+        tower.tryAddAircraft(inEmergency);
+        TowerMetrics metrics = tower.enableMetrics();
+        assertEquals(1, metrics.getAircraftEmergencies());
+
+        PassengerAircraft later = airplane("ABC002", awayTasks);
+        tower.tryAddAircraft(later);
+        later.declareEmergency();
+        terminal.declareEmergency();
+        assertEquals(2, metrics.getAircraftEmergencies());
+        assertEquals(1, metrics.getTerminalEmergencies());
+        assertEquals(3, metrics.getActiveEmergencies());
+
+        inEmergency.clearEmergency();
+        terminal.clearEmergency();
+        assertEquals(1, metrics.getActiveEmergencies());
+    }
+
+    @Test
+    public void registerTest() throws Exception {
+        TowerMetrics metrics = tower.enableMetrics();
+        tower.tick();
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = metrics.register(server, "test");
+
+        assertEquals("towersim:type=ControlTower,name=\"test\"", name.toString());
+        assertEquals(1L, server.getAttribute(name, "Ticks"));
+        assertEquals(0L, server.getAttribute(name, "ActiveEmergencies"));
+        assertNotNull(server.getAttribute(name, "GateAllocationAttempts"));
+    }
+
+    @Test
+    public void histogramBucketsTest() {
+        assertEquals(0, Log2Histogram.bucketOf(0));
+        assertEquals(1, Log2Histogram.bucketOf(1));
+        assertEquals(2, Log2Histogram.bucketOf(3));
+        assertEquals(3, Log2Histogram.bucketOf(4));
+        assertEquals(63, Log2Histogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(7, Log2Histogram.upperBoundOf(3));
+
+        Log2Histogram histogram = new Log2Histogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(5);
+        }
+        histogram.record(1000);
+        assertEquals(7, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(99));
+        assertEquals(1023, histogram.getPercentile(100));
+        assertEquals(100, histogram.getCount());
+        assertEquals(14.95, histogram.getMean(), 1e-9);
+    }
+}
@@ -0,0 +1,136 @@
+package towersim.control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+import towersim.util.NoSuitableGateException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TowerSnapshotTest {
+    private ControlTower controlTower;
+    private Path file;
+
+    @Before
+    public void setup() throws IOException, NoSpaceException, NoSuitableGateException {
+        this.file = Files.createTempFile("tower", ".snapshot");
+        this.controlTower = new ControlTower();
+
+        Terminal airplaneTerminal = new AirplaneTerminal(1);
+        airplaneTerminal.addGate(new Gate(1));
+        airplaneTerminal.addGate(new Gate(2));
+        Terminal helicopterTerminal = new HelicopterTerminal(2);
+        helicopterTerminal.addGate(new Gate(3));
+        helicopterTerminal.declareEmergency();
+        controlTower.addTerminal(airplaneTerminal);
+        controlTower.addTerminal(helicopterTerminal);
+
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 40));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        tasks.add(new Task(TaskType.AWAY));
+        TaskList shared = new TaskList(tasks);
+        TaskList away = new TaskList(tasks, 3);
+
+        controlTower.addAircraft(new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, shared, 10000, 120));
+        controlTower.addAircraft(new FreightAircraft("DEF456",
+                AircraftCharacteristics.BOEING_747_8F, shared, 20000.5, 30000));
+        FreightAircraft awayAircraft = new FreightAircraft("GHI789",
+                AircraftCharacteristics.BOEING_747_8F, away, 5000, 0);
+        awayAircraft.declareEmergency();
+        controlTower.addAircraft(awayAircraft);
+        shared.moveToNextTask();
+        controlTower.advance(7);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void assertRestored(ControlTower restored) {
+        assertEquals(controlTower.getTickCount(), restored.getTickCount());
+        for (int i = 0; i < controlTower.getTerminals().size(); i++) {
+            assertEquals(controlTower.getTerminals().get(i).toString(),
+                    restored.getTerminals().get(i).toString());
+        }
+        assertEquals(controlTower.getOccupiedGateCount(), restored.getOccupiedGateCount());
+
+        List<Aircraft> expected = controlTower.getAircraft();
+        List<Aircraft> actual = restored.getAircraft();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Aircraft before = expected.get(i);
+            Aircraft after = actual.get(i);
+            assertEquals(before.toString(), after.toString());
+            assertEquals(before.getFuelAmount(), after.getFuelAmount(), 0);
+            assertEquals(before.getTotalWeight(), after.getTotalWeight(), 0);
+            assertEquals(before.getTaskList().toString(), after.getTaskList().toString());
+            assertEquals(String.valueOf(controlTower.findGateOfAircraft(before)),
+                    String.valueOf(restored.findGateOfAircraft(after)));
+        }
+        assertSame("Shared task lists should stay shared", actual.get(0).getTaskList(),
+                actual.get(1).getTaskList());
+        assertTrue(actual.get(2).hasEmergency());
+        assertTrue(restored.getTerminals().get(1).hasEmergency());
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        TowerSnapshot.write(controlTower, file, false);
+        assertRestored(TowerSnapshot.read(file));
+    }
+
+    @Test
+    public void compressedRoundTripTest() throws IOException {
+        TowerSnapshot.write(controlTower, file, true);
+        assertRestored(TowerSnapshot.read(file));
+    }
+
+    @Test
+    public void restoredTowerTicksTest() throws IOException {
+        TowerSnapshot.write(controlTower, file, true);
+        ControlTower restored = TowerSnapshot.read(file);
+        controlTower.tick();
+        restored.tick();
+        assertEquals(controlTower.getAircraft().get(2).getFuelAmount(),
+                restored.getAircraft().get(2).getFuelAmount(), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void notSnapshotTest() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17,
+                18, 19, 20, 21});
+        TowerSnapshot.read(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedSnapshotTest() throws IOException {
+        TowerSnapshot.write(controlTower, file, false);
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] truncated = new byte[bytes.length - 10];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        Files.write(file, truncated);
+        TowerSnapshot.read(file);
+    }
+}
@@ -124,6 +124,25 @@ public class AirplaneTerminalTest {
         assertTrue("Exception should be thrown as maximum gates added", expected);
     }
 
+    @Test
+    public void addGateAlreadyAddedTest() throws NoSpaceException {
+        List<Gate> expected = new ArrayList<Gate>();
+        expected.add(gate1);
+        airplaneTerminal.addGate(gate1);
+
+        try {
+            airplaneTerminal.addGate(gate1);
+            fail("Exception should be thrown as gate already added");
+        } catch (IllegalArgumentException expectedException) {}
+        try {
+            new AirplaneTerminal(6).addGate(gate1);
+            fail("Exception should be thrown as gate added to another terminal");
+        } catch (IllegalArgumentException expectedException) {}
+
+        assertEquals("Gate should only be added once", expected, airplaneTerminal.getGates());
+        assertEquals("Gate should stay unoccupied", gate1, airplaneTerminal.tryFindUnoccupiedGate());
+    }
+
     @Test
     public void findUnoccupiedGateTest() {
         Gate expected = gate1;
@@ -224,4 +224,11 @@ public class GateTest {
         String expected = "Gate 7 [DEF456]";
         assertEquals("The toString() method is incorrect", expected, gate2.toString());
     }
+
+    @Test
+    public void tryParkAircraftOccupiedGateTest() {
+        assertTrue("Aircraft should park at an unoccupied gate", gate1.tryParkAircraft(passengerAircraft));
+        assertFalse("Aircraft should not park at an occupied gate", gate1.tryParkAircraft(freightAircraft));
+        assertEquals("Incorrect aircraft at gate", passengerAircraft, gate1.getAircraftAtGate());
+    }
 }
@@ -0,0 +1,127 @@
+package towersim.ground;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+public class TerminalActorTest {
+
+    private ExecutorService executor;
+    private Terminal terminal;
+    private TerminalActor actor;
+
+    @Before
+    public void setup() throws NoSpaceException {
+        this.executor = Executors.newFixedThreadPool(4);
+        this.terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(1));
+        terminal.addGate(new Gate(2));
+        this.actor = new TerminalActor(terminal, executor);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private static Aircraft aircraft(String callsign) {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        return new PassengerAircraft(callsign, AircraftCharacteristics.AIRBUS_A320,
+                new TaskList(tasks), 0, 0);
+    }
+
+    @Test
+    public void parkAndLeaveTest() throws Exception {
+        Aircraft first = aircraft("ABC001");
+        Aircraft second = aircraft("ABC002");
+        CompletableFuture<Gate> firstGate = actor.park(first);
+        CompletableFuture<Gate> secondGate = actor.park(second);
+        CompletableFuture<Gate> noGate = actor.park(aircraft("ABC003"));
+        CompletableFuture<Integer> occupancy = actor.calculateOccupancyLevel();
+
+        assertEquals("Requests should be processed in order", 1,
+                firstGate.get().getGateNumber());
+        assertEquals(2, secondGate.get().getGateNumber());
+        assertNull(noGate.get());
+        assertEquals(100, (int) occupancy.get());
+
+        assertSame(firstGate.get(), actor.leave(first).get());
+        assertNull("Aircraft should only leave once", actor.leave(first).get());
+        assertEquals(50, (int) actor.calculateOccupancyLevel().get());
+    }
+
+    @Test
+    public void emergencyTest() throws Exception {
+        actor.declareEmergency().get();
+        assertTrue(terminal.hasEmergency());
+        assertNull("No aircraft should park in emergency", actor.park(aircraft("ABC001")).get());
+        actor.clearEmergency().get();
+        assertNotNull(actor.park(aircraft("ABC001")).get());
+    }
+
+    @Test
+    public void requestFailureTest() throws Exception {
+        try {
+            actor.ask(owned -> owned.getGatesView().get(5)).get();
+            fail("Request failure should complete the future exceptionally");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IndexOutOfBoundsException);
+        }
+        assertEquals("Actor should keep processing requests", 0,
+                (int) actor.calculateOccupancyLevel().get());
+    }
+
+    @Test
+    public void manyTerminalsTest() throws Exception {
+        List<TerminalActor> actors = new ArrayList<TerminalActor>();
+        for (int i = 0; i < 2000; i++) {
+            Terminal each = new AirplaneTerminal(i);
+            each.addGate(new Gate(1));
+            each.addGate(new Gate(2));
+            actors.add(new TerminalActor(each, executor));
+        }
+        List<CompletableFuture<Gate>> parked = new ArrayList<CompletableFuture<Gate>>();
+        for (int round = 0; round < 3; round++) {
+            for (TerminalActor each : actors) {
+                parked.add(each.park(aircraft("R" + round)));
+            }
+        }
+        int gates = 0;
+        for (CompletableFuture<Gate> gate : parked) {
+            gates += gate.get() == null ? 0 : 1;
+        }
+        assertEquals("Each terminal should fill exactly its two gates", 4000, gates);
+    }
+
+    @Test
+    public void rejectedTest() throws Exception {
+        executor.shutdown();
+        try {
+            actor.park(aircraft("ABC001")).get();
+            fail("Request should fail once the executor stops");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertFalse("Failed request should not run", terminal.getGates().get(0).isOccupied());
+    }
+}
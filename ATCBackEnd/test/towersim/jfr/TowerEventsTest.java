@@ -0,0 +1,120 @@
+package towersim.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TowerEventsTest {
+    private Path file;
+    private Recording recording;
+
+    @Before
+    public void setup() throws Exception {
+        this.file = Files.createTempFile("towersim", ".jfr");
+        this.recording = new Recording();
+        for (String name : new String[] {"towersim.Tick", "towersim.AircraftTick",
+                "towersim.GateSearch", "towersim.GatePark", "towersim.GateLeave"}) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+        }
+    }
+
+    @After
+    public void teardown() throws Exception {
+        recording.close();
+        Files.deleteIfExists(file);
+    }
+
+    private List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> named = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                named.add(event);
+            }
+        }
+        return named;
+    }
+
+    @Test
+    public void recordsTowerEventsTest() throws Exception {
+        ControlTower tower = new ControlTower();
+        Terminal terminal = new AirplaneTerminal(4);
+        Gate gate = new Gate(7);
+        terminal.addGate(gate);
+        tower.addTerminal(terminal);
+
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.LOAD, 50));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        PassengerAircraft aircraft = new PassengerAircraft("ABC123",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks), 10000, 0);
+
+        recording.start();
+        tower.addAircraft(aircraft);
+        tower.tick();
+        gate.aircraftLeaves();
+        recording.stop();
+        recording.dump(file);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        List<RecordedEvent> searches = eventsNamed(events, "towersim.GateSearch");
+        assertEquals(1, searches.size());
+        assertEquals("ABC123", searches.get(0).getString("callsign"));
+        assertEquals("AIRPLANE", searches.get(0).getString("aircraftType"));
+        assertEquals(4, searches.get(0).getInt("terminalNumber"));
+        assertEquals(7, searches.get(0).getInt("gateNumber"));
+
+        List<RecordedEvent> parks = eventsNamed(events, "towersim.GatePark");
+        assertEquals(1, parks.size());
+        assertTrue(parks.get(0).getBoolean("parked"));
+        assertEquals(4, parks.get(0).getInt("terminalNumber"));
+
+        List<RecordedEvent> ticks = eventsNamed(events, "towersim.Tick");
+        assertEquals(1, ticks.size());
+        assertEquals(1, ticks.get(0).getLong("tick"));
+        assertEquals(1, ticks.get(0).getInt("aircraftTicked"));
+        assertTrue(ticks.get(0).getDuration("aircraftNanos").toNanos() >= 0);
+
+        List<RecordedEvent> aircraftTicks = eventsNamed(events, "towersim.AircraftTick");
+        assertEquals(1, aircraftTicks.size());
+        assertEquals("LOAD", aircraftTicks.get(0).getString("task"));
+
+        List<RecordedEvent> leaves = eventsNamed(events, "towersim.GateLeave");
+        assertEquals(1, leaves.size());
+        assertEquals("ABC123", leaves.get(0).getString("callsign"));
+        assertEquals(7, leaves.get(0).getInt("gateNumber"));
+    }
+
+    @Test
+    public void thresholdsFilterFastOperationsTest() throws Exception {
+        recording.close();
+        recording = new Recording();
+        recording.enable("towersim.Tick").withThreshold(Duration.ofHours(1));
+        recording.start();
+        new ControlTower().tick();
+        recording.stop();
+        recording.dump(file);
+
+        assertTrue(eventsNamed(RecordingFile.readAllEvents(file), "towersim.Tick").isEmpty());
+    }
+}
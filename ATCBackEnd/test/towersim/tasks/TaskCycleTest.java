@@ -0,0 +1,79 @@
+package towersim.tasks;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskCycleTest {
+
+    @Test
+    public void internedTaskTest() {
+        assertSame(Task.of(TaskType.LOAD, 80), Task.of(TaskType.LOAD, 80));
+        assertSame(Task.of(TaskType.AWAY), Task.of(TaskType.AWAY, 0));
+        assertEquals(new Task(TaskType.LOAD, 80), Task.of(TaskType.LOAD, 80));
+        assertNotEquals(Task.of(TaskType.LOAD, 80), Task.of(TaskType.LOAD, 81));
+        assertEquals(150, Task.of(TaskType.LOAD, 150).getLoadPercent());
+    }
+
+    @Test
+    public void internedCycleTest() {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(new Task(TaskType.LOAD, 80));
+        tasks.add(new Task(TaskType.TAKEOFF));
+
+        TaskCycle cycle = TaskCycle.of(tasks);
+        assertSame(cycle, TaskCycle.of(Task.of(TaskType.AWAY), Task.of(TaskType.LAND),
+                Task.of(TaskType.LOAD, 80), Task.of(TaskType.TAKEOFF)));
+        assertSame("Cycle should hold shared tasks", Task.of(TaskType.LOAD, 80), cycle.get(2));
+        assertNotSame(cycle, TaskCycle.of(Task.of(TaskType.AWAY), Task.of(TaskType.LAND)));
+    }
+
+    @Test
+    public void unusedCycleCollectedTest() throws InterruptedException {
+        WeakReference<TaskCycle> unused = new WeakReference<TaskCycle>(
+                TaskCycle.of(Task.of(TaskType.LOAD, 37), Task.of(TaskType.WAIT)));
+        for (int i = 0; i < 50 && unused.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("Interning should not keep unused cycles reachable", unused.get());
+    }
+
+    @Test
+    public void taskListsShareCycleTest() {
+        List<Task> tasks = new ArrayList<Task>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        TaskList first = new TaskList(tasks);
+        TaskList second = new TaskList(tasks);
+        assertSame(first.getCycle(), second.getCycle());
+
+        first.moveToNextTask();
+        assertEquals(TaskType.TAKEOFF, first.getCurrentTask().getType());
+        assertEquals("Cursors should be independent", TaskType.WAIT,
+                second.getCurrentTask().getType());
+
+        tasks.add(new Task(TaskType.AWAY));
+        assertEquals("Later changes to the list should not be seen", 2,
+                second.getTasks().size());
+    }
+
+    @Test
+    public void nextTest() {
+        TaskCycle cycle = TaskCycle.of(Task.of(TaskType.WAIT), Task.of(TaskType.TAKEOFF));
+        assertEquals(1, cycle.next(0));
+        assertEquals(0, cycle.next(1));
+    }
+
+    @Test
+    public void toStringTest() {
+        TaskCycle cycle = TaskCycle.of(Task.of(TaskType.LOAD, 80), Task.of(TaskType.TAKEOFF));
+        assertEquals("LOAD at 80% -> TAKEOFF", cycle.toString());
+    }
+}
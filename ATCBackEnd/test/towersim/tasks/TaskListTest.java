@@ -164,4 +164,17 @@ public class TaskListTest {
         assertEquals("The toString is incorrect", expected, taskList1.toString());
 
     }
+
+    @Test
+    public void restoredPositionTest() {
+        TaskList restored = new TaskList(tasks, 3);
+        assertEquals(3, restored.getCurrentTaskPosition());
+        assertEquals(t4, restored.getCurrentTask());
+        assertEquals(tasks, restored.getTasks());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restoredPositionOutOfRangeTest() {
+        new TaskList(tasks, tasks.size());
+    }
 }
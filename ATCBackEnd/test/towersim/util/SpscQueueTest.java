@@ -0,0 +1,51 @@
+package towersim.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpscQueueTest {
+
+    @Test
+    public void fifoTest() {
+        SpscQueue<String> queue = new SpscQueue<String>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        queue.offer("a");
+        queue.offer("b");
+        assertFalse(queue.isEmpty());
+        assertEquals("a", queue.poll());
+        queue.offer("c");
+        assertEquals("b", queue.poll());
+        assertEquals("c", queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offerNullTest() {
+        new SpscQueue<String>().offer(null);
+    }
+
+    @Test
+    public void crossThreadOrderTest() throws InterruptedException {
+        SpscQueue<Integer> queue = new SpscQueue<Integer>();
+        int count = 200000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                queue.offer(i);
+            }
+        });
+        producer.start();
+        int expected = 0;
+        while (expected < count) {
+            Integer element = queue.poll();
+            if (element != null) {
+                assertEquals(expected, (int) element);
+                expected++;
+            }
+        }
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+}
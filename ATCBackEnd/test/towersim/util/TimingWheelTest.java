@@ -0,0 +1,113 @@
+package towersim.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+    private TimingWheel wheel;
+    private List<Long> fired;
+
+    @Before
+    public void setup() {
+        this.wheel = new TimingWheel();
+        this.fired = new ArrayList<Long>();
+    }
+
+    private void scheduleRecording(long delay) {
+        wheel.schedule(delay, () -> fired.add(wheel.getCurrentTick()));
+    }
+
+    @Test
+    public void firesOnDeadlineTest() {
+        scheduleRecording(1);
+        scheduleRecording(63);
+        scheduleRecording(64);
+        scheduleRecording(4097);
+        scheduleRecording(300000);
+        for (int i = 0; i < 300000; i++) {
+            wheel.advance();
+        }
+        List<Long> expected = List.of(1L, 63L, 64L, 4097L, 300000L);
+        assertEquals("Timers fired on the wrong ticks", expected, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void firesOnDeadlineFromLaterTickTest() {
+        for (int i = 0; i < 4000; i++) {
+            wheel.advance();
+        }
+        for (long delay = 1; delay < 20000; delay += 37) {
+            scheduleRecording(delay);
+        }
+        for (int i = 0; i < 20000; i++) {
+            wheel.advance();
+        }
+        int index = 0;
+        for (long delay = 1; delay < 20000; delay += 37) {
+            assertEquals("Timer fired on the wrong tick", 4000 + delay, (long) fired.get(index++));
+        }
+    }
+
+    @Test
+    public void cancelTest() {
+        TimingWheel.Timeout timeout = wheel.schedule(100, () -> fired.add(0L));
+        assertEquals(1, wheel.size());
+        assertTrue("Timer should be cancelled", timeout.cancel());
+        assertFalse("Timer should only be cancelled once", timeout.cancel());
+        assertEquals(0, wheel.size());
+        for (int i = 0; i < 200; i++) {
+            wheel.advance();
+        }
+        assertTrue("Cancelled timer should not fire", fired.isEmpty());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.isExpired());
+    }
+
+    @Test
+    public void cancelAfterFiringTest() {
+        TimingWheel.Timeout timeout = wheel.schedule(1, () -> fired.add(0L));
+        wheel.advance();
+        assertTrue(timeout.isExpired());
+        assertFalse("Fired timer cannot be cancelled", timeout.cancel());
+    }
+
+    @Test
+    public void nextEventTickTest() {
+        assertEquals(Long.MAX_VALUE, wheel.nextEventTick());
+        scheduleRecording(10);
+        assertEquals(10, wheel.nextEventTick());
+        wheel.skipTo(9);
+        wheel.advance();
+        assertEquals(List.of(10L), fired);
+    }
+
+    @Test
+    public void skipToFarTimerTest() {
+        scheduleRecording(1000000);
+        while (wheel.nextEventTick() != Long.MAX_VALUE) {
+            long next = wheel.nextEventTick();
+            if (next - 1 > wheel.getCurrentTick()) {
+                wheel.skipTo(next - 1);
+            }
+            wheel.advance();
+        }
+        assertEquals(List.of(1000000L), fired);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void skipPastTimerTest() {
+        scheduleRecording(10);
+        wheel.skipTo(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scheduleZeroDelayTest() {
+        wheel.schedule(0, () -> {});
+    }
+}